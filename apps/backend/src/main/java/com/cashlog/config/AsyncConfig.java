@@ -0,0 +1,55 @@
+package com.cashlog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * One virtual thread per task for fanning analytics sub-queries out over
+     * the connection pool; the pool size, not the executor, bounds how many
+     * actually run at once.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService analyticsExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Reader and parsing workers of a file import. Each import starts a
+     * fixed number of tasks that block on bounded queues, so virtual threads
+     * cost nothing while they wait.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService importExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Renders the parts of a large PDF export. Layout is CPU-bound, so the
+     * pool has one platform thread per core; parts beyond that queue.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService pdfExportExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs background export jobs: a few platform threads and a bounded
+     * queue, so a burst of requests is refused instead of piling up renders.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService exportJobExecutor(@Value("${app.export.jobs.workers:2}") int workers,
+                                             @Value("${app.export.jobs.queue-capacity:16}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+}
@@ -1,10 +1,20 @@
 package com.cashlog.controller;
 
 import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.DailyTotalsDTO;
+import com.cashlog.dto.response.DashboardDTO;
 import com.cashlog.dto.response.MonthlySummaryDTO;
 import com.cashlog.dto.response.MonthlyTrendPointDTO;
+import com.cashlog.dto.response.PivotCubeDTO;
+import com.cashlog.dto.response.RangeSummaryDTO;
+import com.cashlog.dto.response.RollupVerificationDTO;
+import com.cashlog.dto.response.TrendBucketDTO;
 import com.cashlog.entity.TransactionType;
 import com.cashlog.service.AnalyticsService;
+import com.cashlog.service.DashboardService;
+import com.cashlog.service.MonthlyAggregateService;
+import com.cashlog.service.PivotDimension;
+import com.cashlog.service.TrendGranularity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +23,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -22,6 +34,8 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final DashboardService dashboardService;
 
     @GetMapping("/monthly-summary")
     @Operation(summary = "Get monthly income/expense/net summary")
@@ -32,6 +46,25 @@ public class AnalyticsController {
         return ResponseEntity.ok(summary);
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Get income/expense/net totals for an arbitrary startDate/endDate range (or a year/month)")
+    public ResponseEntity<RangeSummaryDTO> getRangeSummary(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate[] range = resolveRange(year, month, startDate, endDate);
+        return ResponseEntity.ok(analyticsService.getRangeSummary(range[0], range[1]));
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "Get per-day income/expense/net totals and transaction counts of a month")
+    public ResponseEntity<List<DailyTotalsDTO>> getDailyTotals(
+            @RequestParam Integer year,
+            @RequestParam Integer month) {
+        return ResponseEntity.ok(analyticsService.getDailyTotals(year, month));
+    }
+
     @GetMapping("/monthly-trend")
     @Operation(summary = "Get per-month income/expense/net totals; omit dates for the full history")
     public ResponseEntity<List<MonthlyTrendPointDTO>> getMonthlyTrend(
@@ -40,21 +73,100 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getMonthlyTrend(startDate, endDate));
     }
 
+    @GetMapping("/trend")
+    @Operation(summary = "Get income/expense/net totals per DAY, WEEK (ISO), MONTH, QUARTER or YEAR; omit dates for the full history")
+    public ResponseEntity<List<TrendBucketDTO>> getTrend(
+            @RequestParam(required = false, defaultValue = "MONTH") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(analyticsService.getTrend(startDate, endDate,
+                TrendGranularity.valueOf(granularity.toUpperCase(Locale.ROOT))));
+    }
+
     @GetMapping("/category-breakdown")
-    @Operation(summary = "Get monthly amount breakdown by category for a transaction type")
+    @Operation(summary = "Get amount breakdown by category for a transaction type, "
+            + "for a year/month or an arbitrary startDate/endDate range")
     public ResponseEntity<List<BreakdownItemDTO>> getCategoryBreakdown(
-            @RequestParam Integer year,
-            @RequestParam Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false, defaultValue = "EXPENSE") TransactionType type) {
-        return ResponseEntity.ok(analyticsService.getCategoryBreakdown(year, month, type));
+        LocalDate[] range = resolveRange(year, month, startDate, endDate);
+        return ResponseEntity.ok(analyticsService.getCategoryBreakdown(range[0], range[1], type));
     }
 
     @GetMapping("/tag-breakdown")
-    @Operation(summary = "Get monthly amount breakdown by tag for a transaction type")
+    @Operation(summary = "Get amount breakdown by tag for a transaction type, "
+            + "for a year/month or an arbitrary startDate/endDate range")
     public ResponseEntity<List<BreakdownItemDTO>> getTagBreakdown(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false, defaultValue = "EXPENSE") TransactionType type) {
+        LocalDate[] range = resolveRange(year, month, startDate, endDate);
+        return ResponseEntity.ok(analyticsService.getTagBreakdown(range[0], range[1], type));
+    }
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "Get the month's summary, category/tag breakdowns for both types and the trend in one response; "
+            + "omit trend dates for the full history")
+    public ResponseEntity<DashboardDTO> getDashboard(
             @RequestParam Integer year,
             @RequestParam Integer month,
-            @RequestParam(required = false, defaultValue = "EXPENSE") TransactionType type) {
-        return ResponseEntity.ok(analyticsService.getTagBreakdown(year, month, type));
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate trendStartDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate trendEndDate) {
+        return ResponseEntity.ok(dashboardService.getDashboard(year, month, trendStartDate, trendEndDate));
+    }
+
+    @GetMapping("/pivot")
+    @Operation(summary = "Get a CATEGORY- or TAG-by-month matrix with row and column totals (year, or startDate/endDate)")
+    public ResponseEntity<PivotCubeDTO> getPivot(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false, defaultValue = "EXPENSE") TransactionType type,
+            @RequestParam(required = false, defaultValue = "CATEGORY") String dimension) {
+        if (year != null && startDate == null && endDate == null) {
+            startDate = LocalDate.of(year, 1, 1);
+            endDate = LocalDate.of(year, 12, 31);
+        }
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Either year, or startDate and endDate, are required");
+        }
+        LocalDate[] range = resolveRange(null, null, startDate, endDate);
+        return ResponseEntity.ok(analyticsService.getPivot(range[0], range[1], type,
+                PivotDimension.valueOf(dimension.toUpperCase(Locale.ROOT))));
+    }
+
+    @GetMapping("/rollups/verify")
+    @Operation(summary = "Recompute the monthly rollups from raw transactions and report any drift")
+    public ResponseEntity<RollupVerificationDTO> verifyRollups() {
+        return ResponseEntity.ok(monthlyAggregateService.verify());
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild the monthly rollups from raw transactions, reporting the drift that was repaired")
+    public ResponseEntity<RollupVerificationDTO> rebuildRollups() {
+        return ResponseEntity.ok(monthlyAggregateService.rebuild());
+    }
+
+    /**
+     * An explicit startDate/endDate pair wins; otherwise year/month selects a
+     * whole calendar month.
+     */
+    private static LocalDate[] resolveRange(Integer year, Integer month, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null) {
+            if (startDate.isAfter(endDate)) {
+                throw new IllegalArgumentException("startDate must not be after endDate");
+            }
+            return new LocalDate[]{startDate, endDate};
+        }
+        if (year != null && month != null) {
+            YearMonth period = YearMonth.of(year, month);
+            return new LocalDate[]{period.atDay(1), period.atEndOfMonth()};
+        }
+        throw new IllegalArgumentException("Either year and month, or startDate and endDate, are required");
     }
 }
@@ -1,5 +1,7 @@
 package com.cashlog.controller;
 
+import com.cashlog.service.ExportCache;
+import com.cashlog.service.ExportFormat;
 import com.cashlog.service.ExportService;
 import com.cashlog.service.PdfExportService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -7,11 +9,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/export")
@@ -21,46 +28,70 @@ public class ExportController {
     
     private final ExportService exportService;
     private final PdfExportService pdfExportService;
+    private final ExportCache exportCache;
     
     @GetMapping("/csv")
     @Operation(summary = "Export transactions to CSV")
-    public ResponseEntity<String> exportCsv(
+    public ResponseEntity<StreamingResponseBody> exportCsv(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) throws IOException {
         
-        String csv = exportService.exportToCsv(startDate, endDate);
-        
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+        return export(ExportFormat.CSV, startDate, endDate, request,
+                out -> exportService.writeCsv(startDate, endDate, out));
     }
     
     @GetMapping("/excel")
     @Operation(summary = "Export transactions to Excel")
-    public ResponseEntity<byte[]> exportExcel(
+    public ResponseEntity<StreamingResponseBody> exportExcel(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        
-        byte[] excel = exportService.exportToExcel(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) throws IOException {
         
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.xlsx")
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(excel);
+        return export(ExportFormat.XLSX, startDate, endDate, request,
+                out -> exportService.writeExcel(startDate, endDate, out));
     }
     
     @GetMapping("/pdf")
     @Operation(summary = "Export transactions to PDF")
-    public ResponseEntity<byte[]> exportPdf(
+    public ResponseEntity<StreamingResponseBody> exportPdf(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) throws IOException {
         
-        byte[] pdf = pdfExportService.exportToPdf(startDate, endDate);
+        return export(ExportFormat.PDF, startDate, endDate, request,
+                out -> pdfExportService.writePdf(startDate, endDate, out));
+    }
+    
+    /**
+     * Serves the range from the export cache when it holds the range as it is
+     * now, with its ETag, or {@code 304} if the client already has it.
+     * Otherwise renders it on an async request thread as the rows are read,
+     * keeping a copy for the next download.
+     */
+    private ResponseEntity<StreamingResponseBody> export(ExportFormat format, LocalDate startDate,
+                                                         LocalDate endDate, WebRequest request,
+                                                         ExportCache.Renderer renderer) throws IOException {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions." + format.extension())
+                .contentType(MediaType.parseMediaType(format.contentType()));
         
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        Optional<ExportCache.Hit> cached = exportCache.lookup(format, startDate, endDate);
+        if (cached.isEmpty()) {
+            return response.body(out -> exportCache.write(format, startDate, endDate, out, renderer));
+        }
+        ExportCache.Hit hit = cached.get();
+        if (request.checkNotModified(hit.etag())) {
+            hit.close();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(hit.etag()).build();
+        }
+        return response
+                .eTag(hit.etag())
+                .contentLength(hit.size())
+                .body(out -> {
+                    try (hit) {
+                        hit.transferTo(out);
+                    }
+                });
     }
 }
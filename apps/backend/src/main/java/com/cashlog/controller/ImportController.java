@@ -0,0 +1,31 @@
+package com.cashlog.controller;
+
+import com.cashlog.dto.response.ImportResultDTO;
+import com.cashlog.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@Tag(name = "Import", description = "Data import APIs")
+public class ImportController {
+
+    private final ImportService importService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import transactions from a CSV or XLSX file, reporting rejected rows")
+    public ResponseEntity<ImportResultDTO> importTransactions(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return ResponseEntity.ok(importService.importFile(file.getOriginalFilename(), content));
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.cashlog.controller;
 
+import com.cashlog.dto.request.BulkTransactionRequest;
 import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchResultDTO;
+import com.cashlog.dto.response.BulkResultDTO;
+import com.cashlog.dto.response.CursorPageResponseDTO;
 import com.cashlog.dto.response.PageResponseDTO;
 import com.cashlog.dto.response.TransactionDTO;
 import com.cashlog.entity.TransactionType;
 import com.cashlog.service.TransactionService;
+import com.cashlog.specification.TagMatch;
+import com.cashlog.specification.TransactionOrder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -18,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -36,6 +43,18 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     
+    @PostMapping("/batch")
+    @Operation(summary = "Create many transactions at once, reporting a result per item")
+    public ResponseEntity<BatchResultDTO> createTransactions(@RequestBody List<CreateTransactionRequest> requests) {
+        return ResponseEntity.ok(transactionService.createTransactions(requests));
+    }
+    
+    @PostMapping("/bulk")
+    @Operation(summary = "Set the category of, add or remove tags on, or delete every transaction matching the filters")
+    public ResponseEntity<BulkResultDTO> bulkUpdate(@Valid @RequestBody BulkTransactionRequest request) {
+        return ResponseEntity.ok(transactionService.bulkUpdate(request));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get transaction by ID")
     public ResponseEntity<TransactionDTO> getTransaction(@PathVariable Long id) {
@@ -51,16 +70,45 @@ public class TransactionController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) List<Long> categoryId,
             @RequestParam(required = false) List<Long> tagId,
+            @RequestParam(defaultValue = "ANY") String tagMatch,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String q,
             @PageableDefault(size = 20, sort = "transactionDate", direction = Sort.Direction.DESC) Pageable pageable) {
 
         TransactionType transactionType = type != null ? TransactionType.valueOf(type) : null;
 
         Page<TransactionDTO> transactions = transactionService.getTransactions(
-                startDate, endDate, transactionType, categoryId, tagId, pageable);
+                startDate, endDate, transactionType, categoryId, tagId, TagMatch.valueOf(tagMatch),
+                minAmount, maxAmount, q, pageable);
 
         return ResponseEntity.ok(PageResponseDTO.of(transactions));
     }
     
+    @GetMapping("/scroll")
+    @Operation(summary = "Get transactions with optional filters, newest or largest first, using cursor (keyset) pagination")
+    public ResponseEntity<CursorPageResponseDTO<TransactionDTO>> scrollTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> tagId,
+            @RequestParam(defaultValue = "ANY") String tagMatch,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "DATE") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        TransactionType transactionType = type != null ? TransactionType.valueOf(type) : null;
+
+        return ResponseEntity.ok(transactionService.scrollTransactions(
+                startDate, endDate, transactionType, categoryId, tagId, TagMatch.valueOf(tagMatch),
+                minAmount, maxAmount, q, TransactionOrder.valueOf(order), cursor, size, includeTotal));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update transaction by ID")
     public ResponseEntity<TransactionDTO> updateTransaction(
@@ -0,0 +1,55 @@
+package com.cashlog.dto.request;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.specification.TagMatch;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One change applied to every transaction matching the filters, which are
+ * those of the transaction list plus explicit {@code ids}, all combined with
+ * AND. At least one filter is required. {@code categoryId} is the target of
+ * {@link Action#SET_CATEGORY}; {@code tagNames} are the tags to add or remove.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransactionRequest {
+
+    public enum Action { SET_CATEGORY, ADD_TAGS, REMOVE_TAGS, DELETE }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    private List<Long> ids;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private TransactionType type;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    private List<Long> categoryIds;
+
+    private List<Long> tagIds;
+
+    @Builder.Default
+    private TagMatch tagMatch = TagMatch.ANY;
+
+    private String q;
+
+    private Long categoryId;
+
+    private Set<String> tagNames;
+}
@@ -0,0 +1,23 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+/**
+ * Outcome of one item of a batch request. {@code index} is the item's
+ * position in the request; {@code id} is set when it was created and
+ * {@code error} when it was rejected.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResultDTO {
+
+    public enum Status { CREATED, REJECTED }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/** Per-item results of a batch request, in request order, with totals. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchResultDTO {
+    private int created;
+    private int rejected;
+    private List<BatchItemResultDTO> results;
+}
@@ -0,0 +1,13 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+/** Number of transactions a bulk change altered; rows it matched but left as they were are not counted. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkResultDTO {
+    private int affected;
+}
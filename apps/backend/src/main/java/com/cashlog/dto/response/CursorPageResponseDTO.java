@@ -0,0 +1,22 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back to get
+ * the following page; it is null on the last page. {@code totalElements} is
+ * only filled in when the caller asked for it, since it costs a count query.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponseDTO<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,20 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Income/expense/net totals of one calendar day, for the dashboard heatmap. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyTotalsDTO {
+    private LocalDate date;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netAmount;
+    private Long transactionCount;
+}
@@ -0,0 +1,23 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard page shows for one month, in one response: the
+ * summary cards, both pie charts for either type, and the trend line.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardDTO {
+    private MonthlySummaryDTO summary;
+    private List<BreakdownItemDTO> expenseByCategory;
+    private List<BreakdownItemDTO> incomeByCategory;
+    private List<BreakdownItemDTO> expenseByTag;
+    private List<BreakdownItemDTO> incomeByTag;
+    private List<MonthlyTrendPointDTO> trend;
+}
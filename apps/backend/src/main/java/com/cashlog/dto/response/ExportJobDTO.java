@@ -0,0 +1,33 @@
+package com.cashlog.dto.response;
+
+import com.cashlog.service.ExportFormat;
+import com.cashlog.service.ExportJobService;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Status of an export job. {@code rowsWritten} out of {@code totalRows}
+ * (counted when the job started) is its progress; {@code sizeBytes} is set
+ * once it is {@code DONE} and its file can be downloaded. {@code error} says
+ * why a {@code FAILED} job failed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJobDTO {
+    private String id;
+    private ExportFormat format;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private ExportJobService.State state;
+    private long rowsWritten;
+    private Long totalRows;
+    private Long sizeBytes;
+    private String error;
+    private Instant createdAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,14 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+/** Why one row of an imported file was not created; {@code line} is 1-based and counts the header. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportErrorDTO {
+    private long line;
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Report of a file import. {@code rows} counts the data rows read, each of
+ * which was either created or rejected. {@code complete} is false when the
+ * file could not be read to the end; the rows before that point are still
+ * imported. {@code errors} lists the first rejections by line, up to a cap,
+ * while the counts are always exact.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportResultDTO {
+    private long rows;
+    private long created;
+    private long rejected;
+    private boolean complete;
+    private long elapsedMillis;
+    private List<ImportErrorDTO> errors;
+}
@@ -0,0 +1,38 @@
+package com.cashlog.dto.response;
+
+import com.cashlog.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A category- or tag-by-month matrix in a compact layout: the row and column
+ * labels are sent once each, and the amounts as one flat row-major array, so
+ * the cell for {@code rows[r]} and {@code months[c]} is
+ * {@code amounts[r * months.size() + c]}. Rows are ordered by total,
+ * largest first; empty cells are zero.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PivotCubeDTO {
+    private String dimension;
+    private TransactionType type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    /** Column labels, {@code yyyy-MM}. */
+    private List<String> months;
+    private List<PivotMemberDTO> rows;
+    private List<BigDecimal> amounts;
+    private List<BigDecimal> rowTotals;
+    /**
+     * Sums of each column's cells. For tags these can exceed the type's
+     * total, as a transaction with several tags is in several rows.
+     */
+    private List<BigDecimal> columnTotals;
+    private BigDecimal grandTotal;
+}
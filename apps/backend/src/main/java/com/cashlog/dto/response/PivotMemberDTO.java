@@ -0,0 +1,15 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+/** A row label of a pivot: the category or tag and its display attributes. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PivotMemberDTO {
+    private Long id;
+    private String name;
+    private String color;
+}
@@ -0,0 +1,21 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Income/expense/net totals of an arbitrary inclusive date range, e.g. a pay period or a quarter. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RangeSummaryDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netAmount;
+    private Long transactionCount;
+}
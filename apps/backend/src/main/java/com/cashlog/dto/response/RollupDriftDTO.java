@@ -0,0 +1,26 @@
+package com.cashlog.dto.response;
+
+import com.cashlog.entity.TransactionType;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One rollup bucket whose stored totals disagree with the totals recomputed
+ * from the raw transaction rows. {@code expected*} is the recomputed value,
+ * {@code actual*} what the rollup table held.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupDriftDTO {
+    private String month;
+    private TransactionType transactionType;
+    private Long categoryId;
+    private BigDecimal expectedAmount;
+    private BigDecimal actualAmount;
+    private Long expectedCount;
+    private Long actualCount;
+}
@@ -0,0 +1,24 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Result of comparing the monthly rollups and the balance checkpoints
+ * against the raw transaction rows. When {@code rebuilt} is true the listed
+ * drift has already been repaired.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupVerificationDTO {
+    private int bucketsChecked;
+    private int driftedBuckets;
+    private int checkpointsChecked;
+    private int driftedCheckpoints;
+    private boolean rebuilt;
+    private List<RollupDriftDTO> drift;
+}
@@ -0,0 +1,29 @@
+package com.cashlog.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One bucket of a day/week/month/quarter/year trend. {@code startDate} and
+ * {@code endDate} are the bucket's bounds clipped to the queried range, so
+ * the first and last bucket may be partial.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendBucketDTO {
+    /** e.g. {@code 2024-03-05}, {@code 2024-W10}, {@code 2024-03}, {@code 2024-Q1}, {@code 2024}. */
+    private String period;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netAmount;
+    /** Running balance from the first ever recorded transaction, as on the monthly trend. */
+    private BigDecimal cumulativeSavings;
+    private Boolean hasTransactions;
+}
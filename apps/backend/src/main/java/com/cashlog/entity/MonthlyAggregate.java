@@ -0,0 +1,68 @@
+package com.cashlog.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Rollup row of the {@code monthly_aggregate} table: the total amount and row
+ * count of all transactions of one type and category in one calendar month.
+ * Maintained incrementally by {@code MonthlyAggregateService}.
+ */
+@Entity
+@Table(name = "monthly_aggregate")
+@IdClass(MonthlyAggregate.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyAggregate {
+
+    /** Calendar month encoded as {@code yyyymm}. */
+    @Id
+    @Column(name = "month_key", nullable = false)
+    private Integer monthKey;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 10)
+    private TransactionType transactionType;
+
+    @Id
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    public static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    public static int monthKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    public static YearMonth toYearMonth(int monthKey) {
+        return YearMonth.of(monthKey / 100, monthKey % 100);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Integer monthKey;
+        private TransactionType transactionType;
+        private Long categoryId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cashlog.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Running-balance checkpoint of the {@code monthly_balance} table: the net
+ * (income - expense) of every transaction up to and including one calendar
+ * month. Maintained incrementally by {@code MonthlyAggregateService}.
+ */
+@Entity
+@Table(name = "monthly_balance")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyBalance {
+
+    /** Calendar month encoded as {@code yyyymm}, see {@link MonthlyAggregate#monthKey}. */
+    @Id
+    @Column(name = "month_key", nullable = false)
+    private Integer monthKey;
+
+    @Column(name = "cumulative_net", nullable = false, precision = 19, scale = 2)
+    private BigDecimal cumulativeNet;
+}
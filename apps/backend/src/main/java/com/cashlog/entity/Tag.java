@@ -2,6 +2,10 @@ package com.cashlog.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -13,6 +17,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Transactions reference tags by id (see TagIndex); reading several of those
+// references loads them together instead of one select each.
+@BatchSize(size = 50)
+// Reference data like Category; only the tag itself is cached, not the
+// transactions collection.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Tag {
     
     @Id
@@ -0,0 +1,40 @@
+package com.cashlog.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * Posting of the memo search index: {@code transactionId}'s memo contains
+ * {@code gram}. Written and removed with native statements by
+ * {@code MemoSearchService}; mapped only so that filters can query it.
+ */
+@Entity
+@Table(name = "transaction_memo_gram")
+@IdClass(TransactionMemoGram.Key.class)
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionMemoGram {
+
+    @Id
+    @Column(name = "gram", nullable = false, length = 2)
+    private String gram;
+
+    @Id
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String gram;
+        private Long transactionId;
+    }
+}
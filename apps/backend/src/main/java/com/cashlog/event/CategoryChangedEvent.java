@@ -0,0 +1,8 @@
+package com.cashlog.event;
+
+/**
+ * Published by {@code CategoryService} when a category is renamed, recoloured
+ * or deleted, so listeners can drop derived data that carries its name.
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
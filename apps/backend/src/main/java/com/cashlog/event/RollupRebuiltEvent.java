@@ -0,0 +1,8 @@
+package com.cashlog.event;
+
+/**
+ * Published by {@code MonthlyAggregateService} after the monthly rollup has
+ * been recomputed from the raw rows; any answer derived from it may change.
+ */
+public record RollupRebuiltEvent() {
+}
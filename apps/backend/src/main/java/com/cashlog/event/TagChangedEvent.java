@@ -0,0 +1,8 @@
+package com.cashlog.event;
+
+/**
+ * Published by {@code TagService} when a tag is renamed, recoloured or
+ * deleted, so listeners can drop derived data that carries its name.
+ */
+public record TagChangedEvent(Long tagId) {
+}
@@ -0,0 +1,22 @@
+package com.cashlog.event;
+
+/**
+ * Published by {@code TransactionService} for every create, update and
+ * delete. {@code before} is null for a create and {@code after} is null for a
+ * delete. Listeners that keep derived in-memory state should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+public record TransactionChangedEvent(TransactionSnapshot before, TransactionSnapshot after) {
+
+    public static TransactionChangedEvent created(TransactionSnapshot after) {
+        return new TransactionChangedEvent(null, after);
+    }
+
+    public static TransactionChangedEvent updated(TransactionSnapshot before, TransactionSnapshot after) {
+        return new TransactionChangedEvent(before, after);
+    }
+
+    public static TransactionChangedEvent deleted(TransactionSnapshot before) {
+        return new TransactionChangedEvent(before, null);
+    }
+}
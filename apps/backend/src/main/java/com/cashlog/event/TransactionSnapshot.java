@@ -0,0 +1,34 @@
+package com.cashlog.event;
+
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the analytics-relevant fields of a {@link Transaction},
+ * taken at a point in time so listeners never touch a managed entity after
+ * its transaction has finished.
+ */
+public record TransactionSnapshot(
+        Long id,
+        LocalDate transactionDate,
+        TransactionType transactionType,
+        Long categoryId,
+        BigDecimal amountKrw,
+        Set<Long> tagIds) {
+
+    public static TransactionSnapshot of(Transaction transaction) {
+        return new TransactionSnapshot(
+                transaction.getId(),
+                transaction.getTransactionDate(),
+                transaction.getTransactionType(),
+                transaction.getCategory().getId(),
+                transaction.getAmountKrw(),
+                transaction.getTags().stream().map(Tag::getId).collect(Collectors.toUnmodifiableSet()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.cashlog.event;
+
+import com.cashlog.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by {@code TransactionService} once per bulk operation, in place
+ * of a {@link TransactionChangedEvent} per row. {@code ids} are the rows the
+ * operation changed and {@code before} the same rows grouped by day, type and
+ * category as they were before it, so listeners can adjust derived data per
+ * bucket. {@code categoryId} is the new category of a {@link Change#CATEGORY_SET}
+ * and {@code tagIds} the tags added or removed; both are null otherwise.
+ */
+public record TransactionsBulkChangedEvent(
+        Change change,
+        List<Long> ids,
+        List<DayBucket> before,
+        Long categoryId,
+        Set<Long> tagIds) {
+
+    public enum Change { CATEGORY_SET, TAGS_ADDED, TAGS_REMOVED, DELETED }
+
+    /** Total amount and row count of the changed rows of one day, type and category. */
+    public record DayBucket(LocalDate date, TransactionType type, Long categoryId, BigDecimal amountKrw, long count) {
+    }
+
+    public static TransactionsBulkChangedEvent categorySet(List<Long> ids, List<DayBucket> before, Long categoryId) {
+        return new TransactionsBulkChangedEvent(Change.CATEGORY_SET, ids, before, categoryId, null);
+    }
+
+    public static TransactionsBulkChangedEvent tagsAdded(List<Long> ids, List<DayBucket> before, Set<Long> tagIds) {
+        return new TransactionsBulkChangedEvent(Change.TAGS_ADDED, ids, before, null, tagIds);
+    }
+
+    public static TransactionsBulkChangedEvent tagsRemoved(List<Long> ids, List<DayBucket> before, Set<Long> tagIds) {
+        return new TransactionsBulkChangedEvent(Change.TAGS_REMOVED, ids, before, null, tagIds);
+    }
+
+    public static TransactionsBulkChangedEvent deleted(List<Long> ids, List<DayBucket> before) {
+        return new TransactionsBulkChangedEvent(Change.DELETED, ids, before, null, null);
+    }
+}
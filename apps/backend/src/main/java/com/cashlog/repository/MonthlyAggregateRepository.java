@@ -0,0 +1,135 @@
+package com.cashlog.repository;
+
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.projection.MonthTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface MonthlyAggregateRepository extends JpaRepository<MonthlyAggregate, MonthlyAggregate.Key> {
+
+    /**
+     * Adds {@code amount}/{@code count} (either may be negative) to one rollup
+     * bucket, creating the bucket on first use. A single MERGE keeps the
+     * read-modify-write inside the database, so concurrent writers to the same
+     * bucket never lose an update.
+     *
+     * <p>Native statements name the tables they touch, so Hibernate only
+     * flushes and evicts cached data for those rather than for every table.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_aggregate"))
+    @Query(value = "MERGE INTO monthly_aggregate m " +
+            "USING (VALUES (CAST(:monthKey AS INT), CAST(:type AS VARCHAR(10)), CAST(:categoryId AS BIGINT), " +
+            "CAST(:amount AS DECIMAL(19,2)), CAST(:count AS BIGINT))) " +
+            "AS d (month_key, transaction_type, category_id, amount, cnt) " +
+            "ON m.month_key = d.month_key AND m.transaction_type = d.transaction_type AND m.category_id = d.category_id " +
+            "WHEN MATCHED THEN UPDATE SET total_amount = m.total_amount + d.amount, " +
+            "transaction_count = m.transaction_count + d.cnt " +
+            "WHEN NOT MATCHED THEN INSERT (month_key, transaction_type, category_id, total_amount, transaction_count) " +
+            "VALUES (d.month_key, d.transaction_type, d.category_id, d.amount, d.cnt)",
+            nativeQuery = true)
+    void applyDelta(
+        @Param("monthKey") int monthKey,
+        @Param("type") String type,
+        @Param("categoryId") Long categoryId,
+        @Param("amount") BigDecimal amount,
+        @Param("count") long count
+    );
+
+    /**
+     * Set-based {@link #applyDelta}: adds ({@code sign = 1}) or removes
+     * ({@code sign = -1}) the given transaction rows, summed per bucket in the
+     * database, in one MERGE. A non-null {@code categoryId} books them under
+     * that category instead of their own.
+     */
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_aggregate"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction")})
+    @Query(value = "MERGE INTO monthly_aggregate m " +
+            "USING (SELECT month_key, transaction_type, category_id, " +
+            "CAST(:sign AS INT) * SUM(amount_krw) AS amount, CAST(:sign AS INT) * COUNT(*) AS cnt " +
+            "FROM (SELECT YEAR(transaction_date) * 100 + MONTH(transaction_date) AS month_key, transaction_type, " +
+            "COALESCE(CAST(:categoryId AS BIGINT), category_id) AS category_id, amount_krw FROM transaction " +
+            "WHERE id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY)))) r " +
+            "GROUP BY month_key, transaction_type, category_id) AS d " +
+            "ON m.month_key = d.month_key AND m.transaction_type = d.transaction_type AND m.category_id = d.category_id " +
+            "WHEN MATCHED THEN UPDATE SET total_amount = m.total_amount + d.amount, " +
+            "transaction_count = m.transaction_count + d.cnt " +
+            "WHEN NOT MATCHED THEN INSERT (month_key, transaction_type, category_id, total_amount, transaction_count) " +
+            "VALUES (d.month_key, d.transaction_type, d.category_id, d.amount, d.cnt)",
+            nativeQuery = true)
+    void applyDeltasOf(@Param("ids") Long[] ids, @Param("categoryId") Long categoryId, @Param("sign") int sign);
+
+    /** Drops a bucket once its last transaction has been removed. */
+    @Modifying
+    @Query("DELETE FROM MonthlyAggregate m WHERE m.monthKey = :monthKey AND m.transactionType = :type " +
+           "AND m.categoryId = :categoryId AND m.transactionCount <= 0")
+    void deleteIfEmpty(
+        @Param("monthKey") int monthKey,
+        @Param("type") TransactionType type,
+        @Param("categoryId") Long categoryId
+    );
+
+    /** Drops every bucket whose last transaction has been removed. */
+    @Modifying
+    @Query("DELETE FROM MonthlyAggregate m WHERE m.transactionCount <= 0")
+    void deleteAllEmpty();
+
+    /**
+     * Income and expense totals of one month in a single pass, using
+     * conditional aggregation instead of one grouped row per type.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.MonthTotals(" +
+           "COALESCE(SUM(CASE WHEN m.transactionType = com.cashlog.entity.TransactionType.INCOME " +
+           "THEN m.totalAmount END), 0), " +
+           "COALESCE(SUM(CASE WHEN m.transactionType = com.cashlog.entity.TransactionType.EXPENSE " +
+           "THEN m.totalAmount END), 0)) " +
+           "FROM MonthlyAggregate m WHERE m.monthKey = :monthKey")
+    MonthTotals summarizeMonth(@Param("monthKey") int monthKey);
+
+    /**
+     * Per-month income/expense totals for an inclusive month-key range.
+     * Returns rows of {@code [monthKey, transactionType, sumAmount]}.
+     */
+    @Query("SELECT m.monthKey, m.transactionType, SUM(m.totalAmount) FROM MonthlyAggregate m " +
+           "WHERE m.monthKey BETWEEN :fromKey AND :toKey " +
+           "GROUP BY m.monthKey, m.transactionType ORDER BY m.monthKey")
+    List<Object[]> aggregateMonthlyTotals(@Param("fromKey") int fromKey, @Param("toKey") int toKey);
+
+    /**
+     * Number of transactions per month for an inclusive month-key range,
+     * newest month first. Returns rows of {@code [monthKey, count]}.
+     */
+    @Query("SELECT m.monthKey, SUM(m.transactionCount) FROM MonthlyAggregate m " +
+           "WHERE m.monthKey BETWEEN :fromKey AND :toKey " +
+           "GROUP BY m.monthKey ORDER BY m.monthKey DESC")
+    List<Object[]> countByMonthDescending(@Param("fromKey") int fromKey, @Param("toKey") int toKey);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyAggregate")
+    void deleteAllBuckets();
+
+    /** Recomputes every bucket from the raw transaction rows. */
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_aggregate"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction")})
+    @Query(value = "INSERT INTO monthly_aggregate (month_key, transaction_type, category_id, total_amount, transaction_count) " +
+            "SELECT YEAR(transaction_date) * 100 + MONTH(transaction_date), transaction_type, category_id, " +
+            "SUM(amount_krw), COUNT(*) FROM transaction " +
+            "GROUP BY YEAR(transaction_date) * 100 + MONTH(transaction_date), transaction_type, category_id",
+            nativeQuery = true)
+    int insertAllFromTransactions();
+}
@@ -0,0 +1,88 @@
+package com.cashlog.repository;
+
+import com.cashlog.entity.MonthlyBalance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface MonthlyBalanceRepository extends JpaRepository<MonthlyBalance, Integer> {
+
+    /**
+     * Takes the checkpoint lock row for the rest of the caller's transaction.
+     * Every writer of the rollup or the checkpoints calls this first, so
+     * concurrent writers cannot interleave a new month's opening balance
+     * with another one's shift, or insert the same month twice.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_balance_lock"))
+    @Query(value = "SELECT id FROM monthly_balance_lock WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Integer lockCheckpoints();
+
+    /** The checkpoint of the latest month strictly before {@code monthKey}, if any. */
+    Optional<MonthlyBalance> findFirstByMonthKeyLessThanOrderByMonthKeyDesc(int monthKey);
+
+    /**
+     * Creates the checkpoint of {@code monthKey} if it does not exist yet,
+     * carrying over the balance of the latest earlier month.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_balance"))
+    @Query(value = "MERGE INTO monthly_balance b " +
+            "USING (SELECT CAST(:monthKey AS INT) AS month_key, " +
+            "COALESCE((SELECT p.cumulative_net FROM monthly_balance p WHERE p.month_key < :monthKey " +
+            "ORDER BY p.month_key DESC LIMIT 1), 0) AS opening) AS d " +
+            "ON b.month_key = d.month_key " +
+            "WHEN NOT MATCHED THEN INSERT (month_key, cumulative_net) VALUES (d.month_key, d.opening)",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("monthKey") int monthKey);
+
+    /** Adds {@code delta} to the checkpoint of {@code monthKey} and every later month. */
+    @Modifying
+    @Query("UPDATE MonthlyBalance b SET b.cumulativeNet = b.cumulativeNet + :delta WHERE b.monthKey >= :monthKey")
+    void shiftFrom(@Param("monthKey") int monthKey, @Param("delta") BigDecimal delta);
+
+    /**
+     * Set-based {@link #shiftFrom} for rows about to be deleted: takes the net
+     * of the given transaction rows out of the checkpoint of each row's month
+     * and of every later month, in one MERGE.
+     */
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_balance"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction")})
+    @Query(value = "MERGE INTO monthly_balance b " +
+            "USING (SELECT c.month_key, SUM(r.net) AS net FROM monthly_balance c " +
+            "JOIN (SELECT YEAR(transaction_date) * 100 + MONTH(transaction_date) AS month_key, " +
+            "SUM(CASE WHEN transaction_type = 'INCOME' THEN amount_krw ELSE -amount_krw END) AS net " +
+            "FROM transaction WHERE id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY))) " +
+            "GROUP BY YEAR(transaction_date) * 100 + MONTH(transaction_date)) r ON r.month_key <= c.month_key " +
+            "GROUP BY c.month_key) AS d " +
+            "ON b.month_key = d.month_key " +
+            "WHEN MATCHED THEN UPDATE SET cumulative_net = b.cumulative_net - d.net",
+            nativeQuery = true)
+    void subtractNetOf(@Param("ids") Long[] ids);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyBalance")
+    void deleteAllCheckpoints();
+
+    /** Recomputes every checkpoint from the monthly rollup. */
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_balance"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_aggregate")})
+    @Query(value = "INSERT INTO monthly_balance (month_key, cumulative_net) " +
+            "SELECT month_key, SUM(net) OVER (ORDER BY month_key) FROM (" +
+            "SELECT month_key, SUM(CASE WHEN transaction_type = 'INCOME' THEN total_amount ELSE -total_amount END) AS net " +
+            "FROM monthly_aggregate GROUP BY month_key) months",
+            nativeQuery = true)
+    int insertAllFromAggregates();
+}
@@ -1,14 +1,26 @@
 package com.cashlog.repository;
 
 import com.cashlog.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
-    
+
+    /** Served from the query cache until a tag is written. */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Tag> findAll();
+
     Optional<Tag> findByName(String name);
 
     boolean existsByName(String name);
@@ -16,4 +28,8 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByNameIgnoreCase(String name);
 
     boolean existsByNameIgnoreCase(String name);
+
+    /** The tags whose lower-cased name is one of {@code keys}. */
+    @Query("SELECT t FROM Tag t WHERE LOWER(t.name) IN :keys")
+    List<Tag> findAllByNameKeyIn(@Param("keys") Collection<String> keys);
 }
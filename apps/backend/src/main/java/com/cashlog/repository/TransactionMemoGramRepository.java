@@ -0,0 +1,43 @@
+package com.cashlog.repository;
+
+import com.cashlog.entity.TransactionMemoGram;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TransactionMemoGramRepository extends JpaRepository<TransactionMemoGram, TransactionMemoGram.Key> {
+
+    /**
+     * Inserts the postings {@code (grams[i], transactionIds[i])} in one
+     * statement, skipping those that already exist. Declares
+     * {@code transaction} as touched so that pending transaction rows are
+     * flushed first and the foreign key holds.
+     */
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_memo_gram"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction")})
+    @Query(value = "INSERT INTO transaction_memo_gram (gram, transaction_id) " +
+            "SELECT p.gram, p.transaction_id FROM UNNEST(:grams, :transactionIds) AS p (gram, transaction_id) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM transaction_memo_gram g " +
+            "WHERE g.gram = p.gram AND g.transaction_id = p.transaction_id)",
+            nativeQuery = true)
+    void insertAll(@Param("grams") String[] grams, @Param("transactionIds") Long[] transactionIds);
+
+    /** Up to {@code limit} of the ids indexed under {@code gram}: a bounded estimate of how common it is. */
+    @Query("SELECT g.transactionId FROM TransactionMemoGram g WHERE g.gram = :gram")
+    List<Long> findTransactionIds(@Param("gram") String gram, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM TransactionMemoGram g WHERE g.transactionId = :transactionId")
+    void deleteByTransactionId(@Param("transactionId") Long transactionId);
+}
@@ -2,20 +2,32 @@ package com.cashlog.repository;
 
 import com.cashlog.entity.Transaction;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.projection.BreakdownRow;
+import com.cashlog.repository.projection.DayTotals;
+import com.cashlog.repository.projection.ExportRow;
+import com.cashlog.repository.projection.PivotCell;
+import com.cashlog.repository.projection.RangeTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>,
+        TransactionRepositoryCustom {
     
     @EntityGraph(attributePaths = {"tags", "category"})
     List<Transaction> findAllByOrderByTransactionDateDesc();
@@ -28,17 +40,72 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
     
     @EntityGraph(attributePaths = {"tags", "category"})
     List<Transaction> findByTransactionType(TransactionType type);
-    
+
+    /** Second phase of the transaction list: the given rows with category and tags, in no particular order. */
     @EntityGraph(attributePaths = {"tags", "category"})
-    @Query("SELECT t FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type")
-    List<Transaction> findByDateRangeAndType(
+    List<Transaction> findAllByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT SUM(t.amountKrw) FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type")
+    BigDecimal sumAmountByDateRangeAndType(
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate,
         @Param("type") TransactionType type
     );
-    
-    @Query("SELECT SUM(t.amountKrw) FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type")
-    BigDecimal sumAmountByDateRangeAndType(
+
+    /**
+     * Per-category totals of one transaction type over a date range, grouped
+     * in the database. Categories without a matching transaction are omitted.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.BreakdownRow(c.id, c.name, c.color, SUM(t.amountKrw)) " +
+           "FROM Transaction t JOIN t.category c " +
+           "WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type " +
+           "GROUP BY c.id, c.name, c.color")
+    List<BreakdownRow> sumByCategory(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("type") TransactionType type
+    );
+
+    /**
+     * Per-tag totals of one transaction type over a date range, grouped over
+     * {@code transaction_tag}. A transaction with several tags contributes its
+     * full amount to each of them.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.BreakdownRow(g.id, g.name, g.color, SUM(t.amountKrw)) " +
+           "FROM Transaction t JOIN t.tags g " +
+           "WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type " +
+           "GROUP BY g.id, g.name, g.color")
+    List<BreakdownRow> sumByTag(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("type") TransactionType type
+    );
+
+    /**
+     * Per-month, per-category totals of one transaction type over a date
+     * range, grouped in the database. Empty cells are omitted.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.PivotCell(" +
+           "YEAR(t.transactionDate), MONTH(t.transactionDate), c.id, c.name, c.color, SUM(t.amountKrw)) " +
+           "FROM Transaction t JOIN t.category c " +
+           "WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type " +
+           "GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate), c.id, c.name, c.color")
+    List<PivotCell> sumByCategoryAndMonth(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("type") TransactionType type
+    );
+
+    /**
+     * Per-month, per-tag totals of one transaction type over a date range,
+     * grouped over {@code transaction_tag}. Empty cells are omitted.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.PivotCell(" +
+           "YEAR(t.transactionDate), MONTH(t.transactionDate), g.id, g.name, g.color, SUM(t.amountKrw)) " +
+           "FROM Transaction t JOIN t.tags g " +
+           "WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.transactionType = :type " +
+           "GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate), g.id, g.name, g.color")
+    List<PivotCell> sumByTagAndMonth(
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate,
         @Param("type") TransactionType type
@@ -67,6 +134,143 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
            "WHERE t.transactionDate < :date GROUP BY t.transactionType")
     List<Object[]> aggregateTotalsBefore(@Param("date") LocalDate date);
 
+    /**
+     * Monthly rollup buckets recomputed from the raw rows, used to verify the
+     * incrementally maintained {@code monthly_aggregate} table. Returns rows of
+     * {@code [year, month, transactionType, categoryId, sumAmountKrw, count]}.
+     */
+    @Query("SELECT YEAR(t.transactionDate), MONTH(t.transactionDate), t.transactionType, t.category.id, " +
+           "SUM(t.amountKrw), COUNT(t) FROM Transaction t " +
+           "GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate), t.transactionType, t.category.id")
+    List<Object[]> aggregateByMonthTypeAndCategory();
+
+    /**
+     * Per-day buckets that seed the daily aggregate index. Returns rows of
+     * {@code [transactionDate, transactionType, categoryId, sumAmountKrw, count]}.
+     */
+    @Query("SELECT t.transactionDate, t.transactionType, t.category.id, SUM(t.amountKrw), COUNT(t) " +
+           "FROM Transaction t GROUP BY t.transactionDate, t.transactionType, t.category.id")
+    List<Object[]> aggregateByDayTypeAndCategory();
+
+    /**
+     * Per-day buckets of the given rows only, as
+     * {@code [transactionDate, transactionType (name), categoryId, sumAmountKrw, count]}.
+     * The ids travel as one array parameter, so the statement is the same
+     * however many there are; the bulk statements below do likewise.
+     */
+    @Query(value = "SELECT transaction_date, transaction_type, category_id, SUM(amount_krw), COUNT(*) " +
+            "FROM transaction WHERE id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY))) " +
+            "GROUP BY transaction_date, transaction_type, category_id",
+            nativeQuery = true)
+    List<Object[]> aggregateByDayTypeAndCategory(@Param("ids") Long[] ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction"))
+    @Query(value = "UPDATE transaction SET category_id = :categoryId WHERE id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY)))",
+            nativeQuery = true)
+    int updateCategory(@Param("ids") Long[] ids, @Param("categoryId") Long categoryId);
+
+    /** Links every given row to every given tag, skipping the links that already exist. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_tag"))
+    @Query(value = "INSERT INTO transaction_tag (transaction_id, tag_id) " +
+            "SELECT t.id, g.id FROM UNNEST(CAST(:ids AS BIGINT ARRAY)) AS t (id) CROSS JOIN UNNEST(CAST(:tagIds AS BIGINT ARRAY)) AS g (id) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM transaction_tag l WHERE l.transaction_id = t.id AND l.tag_id = g.id)",
+            nativeQuery = true)
+    int insertTagLinks(@Param("ids") Long[] ids, @Param("tagIds") Long[] tagIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction_tag"))
+    @Query(value = "DELETE FROM transaction_tag WHERE transaction_id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY))) " +
+            "AND tag_id IN (SELECT * FROM UNNEST(CAST(:tagIds AS BIGINT ARRAY)))",
+            nativeQuery = true)
+    int deleteTagLinks(@Param("ids") Long[] ids, @Param("tagIds") Long[] tagIds);
+
+    /** Deletes the given rows; their tag links and memo postings go with them by cascade. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction"))
+    @Query(value = "DELETE FROM transaction WHERE id IN (SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY)))", nativeQuery = true)
+    int deleteAllByIds(@Param("ids") Long[] ids);
+
+    long countByTransactionDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Income and expense totals plus the row count of an inclusive date range,
+     * in one conditional-aggregation pass.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.RangeTotals(" +
+           "COALESCE(SUM(CASE WHEN t.transactionType = com.cashlog.entity.TransactionType.INCOME " +
+           "THEN t.amountKrw END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.transactionType = com.cashlog.entity.TransactionType.EXPENSE " +
+           "THEN t.amountKrw END), 0), " +
+           "COUNT(t)) " +
+           "FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate")
+    RangeTotals summarizeRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Per-day income and expense totals plus row counts of an inclusive date
+     * range, one row per day that has transactions, in date order.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.DayTotals(t.transactionDate, " +
+           "COALESCE(SUM(CASE WHEN t.transactionType = com.cashlog.entity.TransactionType.INCOME " +
+           "THEN t.amountKrw END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.transactionType = com.cashlog.entity.TransactionType.EXPENSE " +
+           "THEN t.amountKrw END), 0), " +
+           "COUNT(t)) " +
+           "FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY t.transactionDate ORDER BY t.transactionDate")
+    List<DayTotals> summarizeByDay(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Income and expense totals and row counts per time bucket, as
+     * {@code [bucketStart (java.sql.Date), income, expense, count]} rows in
+     * bucket order. Each row's date is truncated to its bucket in the
+     * database, so one {@code GROUP BY} serves every granularity.
+     * {@code unit} is a {@link com.cashlog.service.TrendGranularity} name.
+     */
+    @Query(value = "SELECT b.bucket, " +
+            "COALESCE(SUM(CASE WHEN b.transaction_type = 'INCOME' THEN b.amount_krw END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.transaction_type = 'EXPENSE' THEN b.amount_krw END), 0), " +
+            "COUNT(*) " +
+            "FROM (SELECT CASE CAST(:unit AS VARCHAR(10)) " +
+            "WHEN 'WEEK' THEN CAST(DATE_TRUNC(ISO_WEEK, t.transaction_date) AS DATE) " +
+            "WHEN 'MONTH' THEN CAST(DATE_TRUNC(MONTH, t.transaction_date) AS DATE) " +
+            "WHEN 'QUARTER' THEN CAST(DATE_TRUNC(QUARTER, t.transaction_date) AS DATE) " +
+            "WHEN 'YEAR' THEN CAST(DATE_TRUNC(YEAR, t.transaction_date) AS DATE) " +
+            "ELSE t.transaction_date END AS bucket, t.transaction_type, t.amount_krw " +
+            "FROM transaction t WHERE t.transaction_date BETWEEN :startDate AND :endDate) b " +
+            "GROUP BY b.bucket ORDER BY b.bucket",
+            nativeQuery = true)
+    List<Object[]> aggregateByBucket(
+            @Param("unit") String unit,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Every row's analytics columns, streamed so the columnar ledger can load
+     * without materializing entities. Returns rows of
+     * {@code [id, transactionDate, transactionType, categoryId, amountKrw]}.
+     */
+    @Query("SELECT t.id, t.transactionDate, t.transactionType, t.category.id, t.amountKrw FROM Transaction t")
+    Stream<Object[]> streamLedgerColumns();
+
+    /** Every {@code [transactionId, tagId]} pair of {@code transaction_tag}, streamed. */
+    @Query("SELECT t.id, g.id FROM Transaction t JOIN t.tags g")
+    Stream<Object[]> streamTagLinks();
+
+    /**
+     * The rows of a date range in export order (newest first), streamed as
+     * projections so an export never holds the range or its entities in
+     * memory. Each row's tag names are joined by a correlated subquery, so
+     * the stream stays one row per transaction without a grouping step.
+     */
+    @Query("SELECT new com.cashlog.repository.projection.ExportRow(t.transactionDate, t.transactionType, t.amountKrw, " +
+            "t.category.name, (SELECT LISTAGG(g.name, ', ') WITHIN GROUP (ORDER BY g.name) FROM t.tags g), t.memo) " +
+            "FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ExportRow> streamExportRows(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     /** Earliest recorded transaction date, or {@code null} when there is no data. */
     @Query("SELECT MIN(t.transactionDate) FROM Transaction t")
     LocalDate findEarliestTransactionDate();
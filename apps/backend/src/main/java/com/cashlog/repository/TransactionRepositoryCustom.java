@@ -0,0 +1,23 @@
+package com.cashlog.repository;
+
+import com.cashlog.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Id-only lookups for the first phase of the transaction list: page the
+ * matching ids without joining category or tags, then load exactly those
+ * rows with {@link TransactionRepository#findAllByIdIn}.
+ */
+public interface TransactionRepositoryCustom {
+
+    /** One page of matching ids in the pageable's order; counts only when the page does not reveal the total. */
+    Page<Long> findIds(Specification<Transaction> spec, Pageable pageable);
+
+    /** Up to {@code limit} matching ids in {@code sort} order. */
+    List<Long> findIds(Specification<Transaction> spec, Sort sort, int limit);
+}
@@ -0,0 +1,11 @@
+package com.cashlog.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * One grouped row of a category or tag breakdown query: the group's identity
+ * and display attributes plus the summed KRW amount, aggregated in the
+ * database rather than from loaded entities.
+ */
+public record BreakdownRow(Long id, String name, String color, BigDecimal amount) {
+}
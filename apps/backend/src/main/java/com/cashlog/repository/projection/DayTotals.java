@@ -0,0 +1,8 @@
+package com.cashlog.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One day's income and expense totals and row count. */
+public record DayTotals(LocalDate date, BigDecimal income, BigDecimal expense, Long transactionCount) {
+}
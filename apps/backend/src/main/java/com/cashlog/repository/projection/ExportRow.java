@@ -0,0 +1,11 @@
+package com.cashlog.repository.projection;
+
+import com.cashlog.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One exported transaction, with its tag names already joined as {@code "a, b"} (null when untagged). */
+public record ExportRow(
+        LocalDate date, TransactionType type, BigDecimal amountKrw, String category, String tags, String memo) {
+}
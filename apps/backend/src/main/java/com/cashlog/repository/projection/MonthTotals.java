@@ -0,0 +1,7 @@
+package com.cashlog.repository.projection;
+
+import java.math.BigDecimal;
+
+/** Income and expense totals of one period, read back as a single row. */
+public record MonthTotals(BigDecimal income, BigDecimal expense) {
+}
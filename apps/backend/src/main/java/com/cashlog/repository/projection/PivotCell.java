@@ -0,0 +1,10 @@
+package com.cashlog.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * One cell of a category- or tag-by-month pivot: the calendar month, the
+ * group's identity and display attributes, and the summed KRW amount.
+ */
+public record PivotCell(Integer year, Integer month, Long id, String name, String color, BigDecimal amount) {
+}
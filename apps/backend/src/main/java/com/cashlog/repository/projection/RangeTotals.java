@@ -0,0 +1,7 @@
+package com.cashlog.repository.projection;
+
+import java.math.BigDecimal;
+
+/** Income and expense totals and the row count of a date range, read back as a single row. */
+public record RangeTotals(BigDecimal income, BigDecimal expense, Long transactionCount) {
+}
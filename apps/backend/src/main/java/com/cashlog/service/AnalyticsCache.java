@@ -0,0 +1,213 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.PivotCubeDTO;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.CategoryChangedEvent;
+import com.cashlog.event.RollupRebuiltEvent;
+import com.cashlog.event.TagChangedEvent;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of {@link AnalyticsService} answers, keyed by query kind, date
+ * range and transaction type. Size, TTL and hit/miss counts are exported
+ * under the {@code analytics} cache name ({@code /actuator/metrics/cache.gets}).
+ *
+ * <p>Entries are evicted after commit, and only the ones a change can reach:
+ * <ul>
+ *   <li>a transaction edit evicts summaries, daily totals and breakdowns
+ *       whose range covers the row's old or new date, and every trend that
+ *       ends on or after it (its cumulative savings shift);</li>
+ *   <li>a bulk change evicts the same for each of its rows, but only the
+ *       breakdowns and pivots it can reach unless it deletes;</li>
+ *   <li>a category or tag rename/delete evicts only the breakdowns and
+ *       pivots listing that category or tag.</li>
+ * </ul>
+ *
+ * <p>A load that overlaps an invalidation is returned to its caller but not
+ * kept, so a value read before a commit can never outlive the eviction.
+ */
+@Slf4j
+@Component
+public class AnalyticsCache {
+
+    public enum Kind { SUMMARY, RANGE_SUMMARY, DAILY, TREND, BUCKET_TREND, CATEGORY_BREAKDOWN, TAG_BREAKDOWN, CATEGORY_PIVOT, TAG_PIVOT }
+
+    /**
+     * {@code startDate}/{@code endDate} are inclusive; a {@code null} bound
+     * means the query resolved it from the data (earliest/latest row).
+     * {@code type} is only set for breakdowns and {@code granularity} only
+     * for bucketed trends.
+     */
+    public record Key(Kind kind, LocalDate startDate, LocalDate endDate, TransactionType type,
+                      TrendGranularity granularity) {
+
+        private Key(Kind kind, LocalDate startDate, LocalDate endDate, TransactionType type) {
+            this(kind, startDate, endDate, type, null);
+        }
+
+        public static Key summary(LocalDate startDate, LocalDate endDate) {
+            return new Key(Kind.SUMMARY, startDate, endDate, null);
+        }
+
+        public static Key rangeSummary(LocalDate startDate, LocalDate endDate) {
+            return new Key(Kind.RANGE_SUMMARY, startDate, endDate, null);
+        }
+
+        public static Key daily(LocalDate startDate, LocalDate endDate) {
+            return new Key(Kind.DAILY, startDate, endDate, null);
+        }
+
+        public static Key trend(LocalDate startDate, LocalDate endDate) {
+            return new Key(Kind.TREND, startDate, endDate, null);
+        }
+
+        public static Key bucketTrend(LocalDate startDate, LocalDate endDate, TrendGranularity granularity) {
+            return new Key(Kind.BUCKET_TREND, startDate, endDate, null, granularity);
+        }
+
+        public static Key categoryBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+            return new Key(Kind.CATEGORY_BREAKDOWN, startDate, endDate, type);
+        }
+
+        public static Key tagBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+            return new Key(Kind.TAG_BREAKDOWN, startDate, endDate, type);
+        }
+
+        public static Key pivot(LocalDate startDate, LocalDate endDate, TransactionType type,
+                                PivotDimension dimension) {
+            return new Key(dimension == PivotDimension.CATEGORY ? Kind.CATEGORY_PIVOT : Kind.TAG_PIVOT,
+                    startDate, endDate, type);
+        }
+
+        boolean isAffectedBy(TransactionSnapshot row) {
+            return isAffectedBy(row.transactionDate(), row.transactionType());
+        }
+
+        boolean isAffectedBy(LocalDate date, TransactionType rowType) {
+            return switch (kind) {
+                case TREND, BUCKET_TREND -> endDate == null || !date.isAfter(endDate);
+                case SUMMARY, RANGE_SUMMARY, DAILY -> covers(date);
+                case CATEGORY_BREAKDOWN, TAG_BREAKDOWN, CATEGORY_PIVOT, TAG_PIVOT -> type == rowType && covers(date);
+            };
+        }
+
+        private boolean covers(LocalDate date) {
+            return (startDate == null || !date.isBefore(startDate))
+                    && (endDate == null || !date.isAfter(endDate));
+        }
+    }
+
+    private final Cache<Key, Object> cache;
+    /** Bumped before every eviction pass; a load only keeps its value if no pass started meanwhile. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AnalyticsCache(MeterRegistry meterRegistry,
+                          @Value("${app.analytics.cache.max-entries:2000}") long maxEntries,
+                          @Value("${app.analytics.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "analytics");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long startedAt = generation.get();
+        T value = loader.get();
+        cache.put(key, value);
+        if (generation.get() != startedAt) {
+            cache.invalidate(key);
+        }
+        return value;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        evictIf(key -> (event.before() != null && key.isAffectedBy(event.before()))
+                || (event.after() != null && key.isAffectedBy(event.after())));
+    }
+
+    /**
+     * A bulk change evicts as a single edit of each of its day buckets would,
+     * limited to the kinds it can reach: moving rows between categories or
+     * tags leaves every total as it was.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionsBulkChanged(TransactionsBulkChangedEvent event) {
+        Set<Kind> kinds = switch (event.change()) {
+            case CATEGORY_SET -> EnumSet.of(Kind.CATEGORY_BREAKDOWN, Kind.CATEGORY_PIVOT);
+            case TAGS_ADDED, TAGS_REMOVED -> EnumSet.of(Kind.TAG_BREAKDOWN, Kind.TAG_PIVOT);
+            case DELETED -> EnumSet.allOf(Kind.class);
+        };
+        evictIf(key -> kinds.contains(key.kind()) && event.before().stream()
+                .anyMatch(bucket -> key.isAffectedBy(bucket.date(), bucket.type())));
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evictBreakdownsListing(Kind.CATEGORY_BREAKDOWN, Kind.CATEGORY_PIVOT, event.categoryId());
+    }
+
+    @TransactionalEventListener
+    public void onTagChanged(TagChangedEvent event) {
+        evictBreakdownsListing(Kind.TAG_BREAKDOWN, Kind.TAG_PIVOT, event.tagId());
+    }
+
+    @TransactionalEventListener
+    public void onRollupRebuilt(RollupRebuiltEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictBreakdownsListing(Kind breakdown, Kind pivot, Long id) {
+        generation.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            Kind kind = entry.getKey().kind();
+            if (kind == breakdown) {
+                return ((List<BreakdownItemDTO>) entry.getValue()).stream()
+                        .anyMatch(item -> Objects.equals(item.getId(), id));
+            }
+            return kind == pivot && ((PivotCubeDTO) entry.getValue()).getRows().stream()
+                    .anyMatch(row -> Objects.equals(row.getId(), id));
+        });
+    }
+
+    private void evictIf(Predicate<Key> affected) {
+        generation.incrementAndGet();
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(affected);
+        log.debug("Evicted {} analytics cache entries", before - cache.asMap().size());
+    }
+}
@@ -1,58 +1,178 @@
 package com.cashlog.service;
 
 import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.DailyTotalsDTO;
 import com.cashlog.dto.response.MonthlySummaryDTO;
 import com.cashlog.dto.response.MonthlyTrendPointDTO;
-import com.cashlog.entity.Category;
-import com.cashlog.entity.Tag;
-import com.cashlog.entity.Transaction;
+import com.cashlog.dto.response.PivotCubeDTO;
+import com.cashlog.dto.response.PivotMemberDTO;
+import com.cashlog.dto.response.RangeSummaryDTO;
+import com.cashlog.dto.response.TrendBucketDTO;
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.entity.MonthlyBalance;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.MonthlyAggregateRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TagRepository;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.repository.projection.BreakdownRow;
+import com.cashlog.repository.projection.MonthTotals;
+import com.cashlog.repository.projection.PivotCell;
+import com.cashlog.repository.projection.RangeTotals;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Date;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+/**
+ * Answers are served from {@link AnalyticsCache} when possible. The class
+ * only joins an existing transaction instead of opening one, so a cache hit
+ * never checks out a connection; each query on a miss runs in the
+ * repository's own read-only transaction.
+ *
+ * <p>Inside {@link #readingDatabaseOnly} the cache, the daily aggregate
+ * index and the columnar ledger are all bypassed, so every answer comes from
+ * the surrounding transaction's view of the database.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
+@Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
 public class AnalyticsService {
 
     private final TransactionRepository transactionRepository;
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final ObjectProvider<ColumnarLedger> columnarLedgerProvider;
+    private final DailyAggregateIndex dailyAggregateIndex;
+    private final AnalyticsCache analyticsCache;
 
-    public MonthlySummaryDTO getMonthlySummary(Integer year, Integer month) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
+    private final ThreadLocal<Boolean> databaseOnly = ThreadLocal.withInitial(() -> false);
 
-        BigDecimal totalIncome = transactionRepository.sumAmountByDateRangeAndType(
-                startDate, endDate, TransactionType.INCOME);
-        if (totalIncome == null) totalIncome = BigDecimal.ZERO;
+    /**
+     * Runs {@code reads} on this thread with every in-memory source
+     * bypassed. The in-memory sources catch up with a commit only after it
+     * completes, so they cannot join a database snapshot.
+     */
+    public <T> T readingDatabaseOnly(Supplier<T> reads) {
+        boolean outer = databaseOnly.get();
+        databaseOnly.set(true);
+        try {
+            return reads.get();
+        } finally {
+            databaseOnly.set(outer);
+        }
+    }
+
+    /**
+     * Reads the month's income/expense totals straight from the monthly
+     * rollup, or from the columnar ledger when it is enabled.
+     */
+    public MonthlySummaryDTO getMonthlySummary(Integer year, Integer month) {
+        YearMonth period = YearMonth.of(year, month);
+        return cached(AnalyticsCache.Key.summary(period.atDay(1), period.atEndOfMonth()),
+                () -> computeMonthlySummary(period));
+    }
 
-        BigDecimal totalExpense = transactionRepository.sumAmountByDateRangeAndType(
-                startDate, endDate, TransactionType.EXPENSE);
-        if (totalExpense == null) totalExpense = BigDecimal.ZERO;
+    private MonthlySummaryDTO computeMonthlySummary(YearMonth period) {
+        BigDecimal totalIncome;
+        BigDecimal totalExpense;
+        ColumnarLedger ledger = columnarLedger();
+        if (ledger != null) {
+            long[] sums = ledger.sumByType(period.atDay(1), period.atEndOfMonth());
+            totalIncome = ColumnarLedger.toAmount(sums[0]);
+            totalExpense = ColumnarLedger.toAmount(sums[1]);
+        } else {
+            MonthTotals totals = monthlyAggregateRepository.summarizeMonth(MonthlyAggregate.monthKey(period));
+            totalIncome = totals.income();
+            totalExpense = totals.expense();
+        }
 
         BigDecimal netAmount = totalIncome.subtract(totalExpense);
 
         return MonthlySummaryDTO.builder()
-                .year(year)
-                .month(month)
+                .year(period.getYear())
+                .month(period.getMonthValue())
                 .totalIncome(totalIncome)
                 .totalExpense(totalExpense)
                 .netAmount(netAmount)
                 .build();
     }
 
+    /**
+     * Income/expense totals of an arbitrary inclusive date range (a pay
+     * period, a quarter, a fiscal year), answered from the daily aggregate
+     * index once it is loaded and by one grouped SQL query until then.
+     */
+    public RangeSummaryDTO getRangeSummary(LocalDate startDate, LocalDate endDate) {
+        return cached(AnalyticsCache.Key.rangeSummary(startDate, endDate),
+                () -> computeRangeSummary(startDate, endDate));
+    }
+
+    /**
+     * Per-day totals of a calendar month for the dashboard heatmap, from one
+     * grouped query. Days without transactions are omitted.
+     */
+    public List<DailyTotalsDTO> getDailyTotals(Integer year, Integer month) {
+        YearMonth period = YearMonth.of(year, month);
+        LocalDate start = period.atDay(1);
+        LocalDate end = period.atEndOfMonth();
+        return cached(AnalyticsCache.Key.daily(start, end),
+                () -> transactionRepository.summarizeByDay(start, end).stream()
+                        .map(day -> DailyTotalsDTO.builder()
+                                .date(day.date())
+                                .totalIncome(day.income())
+                                .totalExpense(day.expense())
+                                .netAmount(day.income().subtract(day.expense()))
+                                .transactionCount(day.transactionCount())
+                                .build())
+                        .toList());
+    }
+
+    private RangeSummaryDTO computeRangeSummary(LocalDate startDate, LocalDate endDate) {
+        BigDecimal totalIncome;
+        BigDecimal totalExpense;
+        long count;
+        if (dailyIndexReady()) {
+            long[] totals = dailyAggregateIndex.totals(startDate, endDate);
+            totalIncome = ColumnarLedger.toAmount(totals[0]);
+            totalExpense = ColumnarLedger.toAmount(totals[1]);
+            count = totals[2] + totals[3];
+        } else {
+            RangeTotals totals = transactionRepository.summarizeRange(startDate, endDate);
+            totalIncome = totals.income();
+            totalExpense = totals.expense();
+            count = totals.transactionCount();
+        }
+
+        return RangeSummaryDTO.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .totalIncome(totalIncome)
+                .totalExpense(totalExpense)
+                .netAmount(totalIncome.subtract(totalExpense))
+                .transactionCount(count)
+                .build();
+    }
+
     /**
      * Per-month income/expense/net totals plus the running savings balance,
      * for the trend chart.
@@ -62,27 +182,38 @@ public class AnalyticsService {
      * arguments returns the full history. Months with no transactions inside
      * the resolved range are emitted as zero rows so the chart keeps a
      * continuous, evenly-spaced x-axis.
+     *
+     * <p>Whole months are read from the monthly rollup (or the columnar ledger
+     * when enabled). Only a month that the range cuts in half is summed day
+     * by day, from the daily aggregate index or raw rows, so the cost stays
+     * bounded by the width of the range rather than the size of the ledger.
      */
     public List<MonthlyTrendPointDTO> getMonthlyTrend(LocalDate startDate, LocalDate endDate) {
+        return cached(AnalyticsCache.Key.trend(startDate, endDate),
+                () -> computeMonthlyTrend(startDate, endDate));
+    }
+
+    private List<MonthlyTrendPointDTO> computeMonthlyTrend(LocalDate startDate, LocalDate endDate) {
         LocalDate resolvedStart = startDate != null ? startDate : transactionRepository.findEarliestTransactionDate();
         LocalDate resolvedEnd = endDate != null ? endDate : transactionRepository.findLatestTransactionDate();
         if (resolvedStart == null || resolvedEnd == null || resolvedStart.isAfter(resolvedEnd)) {
             return List.of();
         }
 
-        Map<YearMonth, BigDecimal[]> totals = new LinkedHashMap<>();
-        for (Object[] row : transactionRepository.aggregateMonthlyTotals(resolvedStart, resolvedEnd)) {
-            YearMonth key = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
-            TransactionType type = (TransactionType) row[2];
-            BigDecimal sum = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
-            BigDecimal[] bucket = totals.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
-            int slot = type == TransactionType.INCOME ? 0 : 1;
-            bucket[slot] = bucket[slot].add(sum);
-        }
-
         // Savings accumulate from the very first record, not from the queried
         // range, so the level stays comparable when the range changes.
-        BigDecimal running = netAmountBefore(resolvedStart);
+        Map<YearMonth, BigDecimal[]> totals;
+        BigDecimal running;
+        ColumnarLedger ledger = columnarLedger();
+        if (ledger != null) {
+            totals = new HashMap<>();
+            ledger.monthlyTotals(resolvedStart, resolvedEnd).forEach((month, sums) -> totals.put(month,
+                    new BigDecimal[]{ColumnarLedger.toAmount(sums[0]), ColumnarLedger.toAmount(sums[1])}));
+            running = ColumnarLedger.toAmount(ledger.netBefore(resolvedStart));
+        } else {
+            totals = rollupMonthlyTotals(resolvedStart, resolvedEnd);
+            running = netAmountBefore(resolvedStart);
+        }
 
         List<MonthlyTrendPointDTO> points = new ArrayList<>();
         YearMonth cursor = YearMonth.from(resolvedStart);
@@ -103,39 +234,176 @@ public class AnalyticsService {
                     .build());
             cursor = cursor.plusMonths(1);
         }
-        return points;
+        return List.copyOf(points);
+    }
+
+    /**
+     * Income/expense/net totals per day, ISO week, month, quarter or year,
+     * with the same running savings balance and gap handling as
+     * {@link #getMonthlyTrend}. Buckets come from one truncating
+     * {@code GROUP BY} in date order, and empty buckets are filled in while
+     * walking that result, so long multi-year ranges stay cheap at coarse
+     * granularities.
+     *
+     * @param startDate optional, defaults to the earliest recorded transaction
+     * @param endDate   optional, defaults to the latest recorded transaction
+     */
+    public List<TrendBucketDTO> getTrend(LocalDate startDate, LocalDate endDate, TrendGranularity granularity) {
+        return cached(AnalyticsCache.Key.bucketTrend(startDate, endDate, granularity),
+                () -> computeTrend(startDate, endDate, granularity));
+    }
+
+    private List<TrendBucketDTO> computeTrend(LocalDate startDate, LocalDate endDate, TrendGranularity granularity) {
+        LocalDate resolvedStart = startDate != null ? startDate : transactionRepository.findEarliestTransactionDate();
+        LocalDate resolvedEnd = endDate != null ? endDate : transactionRepository.findLatestTransactionDate();
+        if (resolvedStart == null || resolvedEnd == null || resolvedStart.isAfter(resolvedEnd)) {
+            return List.of();
+        }
+
+        Iterator<Object[]> rows = transactionRepository
+                .aggregateByBucket(granularity.name(), resolvedStart, resolvedEnd).iterator();
+        Object[] row = rows.hasNext() ? rows.next() : null;
+        BigDecimal running = netAmountBefore(resolvedStart);
+        List<TrendBucketDTO> buckets = new ArrayList<>();
+        for (LocalDate bucket = granularity.truncate(resolvedStart); !bucket.isAfter(resolvedEnd);
+             bucket = granularity.next(bucket)) {
+            boolean hasTransactions = row != null && ((Date) row[0]).toLocalDate().equals(bucket);
+            BigDecimal income = hasTransactions ? (BigDecimal) row[1] : BigDecimal.ZERO;
+            BigDecimal expense = hasTransactions ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            BigDecimal net = income.subtract(expense);
+            running = running.add(net);
+            LocalDate last = granularity.next(bucket).minusDays(1);
+            buckets.add(TrendBucketDTO.builder()
+                    .period(granularity.label(bucket))
+                    .startDate(bucket.isBefore(resolvedStart) ? resolvedStart : bucket)
+                    .endDate(last.isAfter(resolvedEnd) ? resolvedEnd : last)
+                    .totalIncome(income)
+                    .totalExpense(expense)
+                    .netAmount(net)
+                    .cumulativeSavings(running)
+                    .hasTransactions(hasTransactions)
+                    .build());
+            if (hasTransactions) {
+                row = rows.hasNext() ? rows.next() : null;
+            }
+        }
+        return List.copyOf(buckets);
+    }
+
+    private Map<YearMonth, BigDecimal[]> rollupMonthlyTotals(LocalDate startDate, LocalDate endDate) {
+        Map<YearMonth, BigDecimal[]> totals = new HashMap<>();
+        YearMonth firstWhole = startDate.getDayOfMonth() == 1
+                ? YearMonth.from(startDate) : YearMonth.from(startDate).plusMonths(1);
+        YearMonth lastWhole = endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+                ? YearMonth.from(endDate) : YearMonth.from(endDate).minusMonths(1);
+        if (firstWhole.isAfter(lastWhole)) {
+            addPartialMonthTotals(totals, startDate, endDate);
+            return totals;
+        }
+        for (Object[] row : monthlyAggregateRepository.aggregateMonthlyTotals(
+                MonthlyAggregate.monthKey(firstWhole), MonthlyAggregate.monthKey(lastWhole))) {
+            addToBucket(totals, MonthlyAggregate.toYearMonth(((Number) row[0]).intValue()),
+                    (TransactionType) row[1], (BigDecimal) row[2]);
+        }
+        if (startDate.isBefore(firstWhole.atDay(1))) {
+            addPartialMonthTotals(totals, startDate, firstWhole.atDay(1).minusDays(1));
+        }
+        if (endDate.isAfter(lastWhole.atEndOfMonth())) {
+            addPartialMonthTotals(totals, lastWhole.plusMonths(1).atDay(1), endDate);
+        }
+        return totals;
     }
 
-    /** Net (income - expense) of everything recorded before {@code date}. */
+    /**
+     * Net (income - expense) of everything recorded before {@code date}: the
+     * running-balance checkpoint of the previous month, plus the days of
+     * {@code date}'s own month that fall before it. Neither part depends on
+     * how much history precedes the window.
+     */
     private BigDecimal netAmountBefore(LocalDate date) {
-        BigDecimal net = BigDecimal.ZERO;
-        for (Object[] row : transactionRepository.aggregateTotalsBefore(date)) {
-            TransactionType type = (TransactionType) row[0];
-            BigDecimal sum = row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO;
-            net = type == TransactionType.INCOME ? net.add(sum) : net.subtract(sum);
+        BigDecimal net = monthlyBalanceRepository
+                .findFirstByMonthKeyLessThanOrderByMonthKeyDesc(MonthlyAggregate.monthKey(date))
+                .map(MonthlyBalance::getCumulativeNet)
+                .orElse(BigDecimal.ZERO);
+        if (date.getDayOfMonth() > 1) {
+            Map<YearMonth, BigDecimal[]> partial = new HashMap<>();
+            addPartialMonthTotals(partial, date.withDayOfMonth(1), date.minusDays(1));
+            for (BigDecimal[] bucket : partial.values()) {
+                net = net.add(bucket[0]).subtract(bucket[1]);
+            }
         }
         return net;
     }
 
+    /** Adds the per-month totals of a range that does not cover whole months. */
+    private void addPartialMonthTotals(Map<YearMonth, BigDecimal[]> totals, LocalDate startDate, LocalDate endDate) {
+        if (!dailyIndexReady()) {
+            addRawMonthlyTotals(totals, startDate, endDate);
+            return;
+        }
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            LocalDate from = startDate.isAfter(month.atDay(1)) ? startDate : month.atDay(1);
+            LocalDate to = endDate.isBefore(month.atEndOfMonth()) ? endDate : month.atEndOfMonth();
+            long[] sums = dailyAggregateIndex.totals(from, to);
+            if (sums[2] > 0) {
+                addToBucket(totals, month, TransactionType.INCOME, ColumnarLedger.toAmount(sums[0]));
+            }
+            if (sums[3] > 0) {
+                addToBucket(totals, month, TransactionType.EXPENSE, ColumnarLedger.toAmount(sums[1]));
+            }
+        }
+    }
+
+    private void addRawMonthlyTotals(Map<YearMonth, BigDecimal[]> totals, LocalDate startDate, LocalDate endDate) {
+        for (Object[] row : transactionRepository.aggregateMonthlyTotals(startDate, endDate)) {
+            addToBucket(totals, YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()),
+                    (TransactionType) row[2], (BigDecimal) row[3]);
+        }
+    }
+
+    private static void addToBucket(Map<YearMonth, BigDecimal[]> totals, YearMonth month,
+                                    TransactionType type, BigDecimal sum) {
+        BigDecimal[] bucket = totals.computeIfAbsent(month, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        int slot = type == TransactionType.INCOME ? 0 : 1;
+        bucket[slot] = bucket[slot].add(sum != null ? sum : BigDecimal.ZERO);
+    }
+
     /**
      * Server-side category breakdown for a given month/type, replacing the
      * client-side aggregation that used to require the full transaction list.
      */
     public List<BreakdownItemDTO> getCategoryBreakdown(Integer year, Integer month, TransactionType type) {
-        List<Transaction> transactions = transactionsForMonth(year, month, type);
+        YearMonth period = YearMonth.of(year, month);
+        return getCategoryBreakdown(period.atDay(1), period.atEndOfMonth(), type);
+    }
+
+    /**
+     * Category breakdown over an arbitrary inclusive date range: one range
+     * sum per category from the daily aggregate index, or grouped in the
+     * database until the index is loaded.
+     */
+    public List<BreakdownItemDTO> getCategoryBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        return cached(AnalyticsCache.Key.categoryBreakdown(startDate, endDate, type),
+                () -> computeCategoryBreakdown(startDate, endDate, type));
+    }
 
-        Map<Long, BreakdownAccumulator> grouped = new LinkedHashMap<>();
-        BigDecimal total = BigDecimal.ZERO;
-        for (Transaction tx : transactions) {
-            Category category = tx.getCategory();
-            Long key = category != null ? category.getId() : -1L;
-            String name = category != null ? category.getName() : "Unknown";
-            String color = category != null ? category.getColor() : "#6b7280";
-            grouped.computeIfAbsent(key, k -> new BreakdownAccumulator(key, name, color))
-                    .add(tx.getAmountKrw());
-            total = total.add(tx.getAmountKrw());
+    private List<BreakdownItemDTO> computeCategoryBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        ColumnarLedger ledger = columnarLedger();
+        Map<Long, Long> sums = dailyIndexReady()
+                ? dailyAggregateIndex.sumByCategory(startDate, endDate, type)
+                : ledger != null ? ledger.sumByCategory(startDate, endDate, type) : null;
+        List<BreakdownRow> rows;
+        if (sums != null) {
+            rows = categoryRepository.findAll().stream()
+                    .filter(c -> sums.containsKey(c.getId()))
+                    .map(c -> new BreakdownRow(c.getId(), c.getName(), c.getColor(),
+                            ColumnarLedger.toAmount(sums.get(c.getId()))))
+                    .toList();
+        } else {
+            rows = transactionRepository.sumByCategory(startDate, endDate, type);
         }
-        return toBreakdownList(grouped.values(), total);
+        BigDecimal total = rows.stream().map(BreakdownRow::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return toBreakdownList(rows, total);
     }
 
     /**
@@ -144,57 +412,140 @@ public class AnalyticsService {
      * monthly total rather than a mutually-exclusive partition of it.
      */
     public List<BreakdownItemDTO> getTagBreakdown(Integer year, Integer month, TransactionType type) {
-        List<Transaction> transactions = transactionsForMonth(year, month, type);
-
-        Map<Long, BreakdownAccumulator> grouped = new LinkedHashMap<>();
-        BigDecimal total = BigDecimal.ZERO;
-        for (Transaction tx : transactions) {
-            total = total.add(tx.getAmountKrw());
-            for (Tag tag : tx.getTags()) {
-                grouped.computeIfAbsent(tag.getId(), k -> new BreakdownAccumulator(tag.getId(), tag.getName(), tag.getColor()))
-                        .add(tx.getAmountKrw());
+        YearMonth period = YearMonth.of(year, month);
+        return getTagBreakdown(period.atDay(1), period.atEndOfMonth(), type);
+    }
+
+    /** Tag breakdown over an arbitrary inclusive date range, grouped in the database. */
+    public List<BreakdownItemDTO> getTagBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        return cached(AnalyticsCache.Key.tagBreakdown(startDate, endDate, type),
+                () -> computeTagBreakdown(startDate, endDate, type));
+    }
+
+    private List<BreakdownItemDTO> computeTagBreakdown(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        ColumnarLedger ledger = columnarLedger();
+        if (ledger != null) {
+            Map<Long, Long> sums = ledger.sumByTag(startDate, endDate, type);
+            if (sums.isEmpty()) {
+                return List.of();
             }
+            List<BreakdownRow> rows = tagRepository.findAll().stream()
+                    .filter(t -> sums.containsKey(t.getId()))
+                    .map(t -> new BreakdownRow(t.getId(), t.getName(), t.getColor(),
+                            ColumnarLedger.toAmount(sums.get(t.getId()))))
+                    .toList();
+            long total = ledger.sumByType(startDate, endDate)[type == TransactionType.INCOME ? 0 : 1];
+            return toBreakdownList(rows, ColumnarLedger.toAmount(total));
         }
-        return toBreakdownList(grouped.values(), total);
-    }
 
-    private List<Transaction> transactionsForMonth(Integer year, Integer month, TransactionType type) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        return transactionRepository.findByDateRangeAndType(startDate, endDate, type);
+        List<BreakdownRow> rows = transactionRepository.sumByTag(startDate, endDate, type);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        BigDecimal total;
+        if (dailyIndexReady()) {
+            long[] sums = dailyAggregateIndex.totals(startDate, endDate);
+            total = ColumnarLedger.toAmount(sums[type == TransactionType.INCOME ? 0 : 1]);
+        } else {
+            total = transactionRepository.sumAmountByDateRangeAndType(startDate, endDate, type);
+        }
+        return toBreakdownList(rows, total != null ? total : BigDecimal.ZERO);
     }
 
-    private List<BreakdownItemDTO> toBreakdownList(Collection<BreakdownAccumulator> accumulators, BigDecimal total) {
-        return accumulators.stream()
-                .sorted((a, b) -> b.amount.compareTo(a.amount))
-                .map(acc -> BreakdownItemDTO.builder()
-                        .id(acc.id)
-                        .name(acc.name)
-                        .color(acc.color)
-                        .amount(acc.amount)
-                        .percentage(total.compareTo(BigDecimal.ZERO) == 0
-                                ? 0.0
-                                : acc.amount.multiply(BigDecimal.valueOf(100))
-                                        .divide(total, 2, RoundingMode.HALF_UP)
-                                        .doubleValue())
-                        .build())
-                .collect(Collectors.toList());
+    /**
+     * Category- or tag-by-month matrix of one transaction type with row and
+     * column totals, built from a single grouped query. Columns are every
+     * calendar month the range touches; partial edge months only count the
+     * days inside the range.
+     */
+    public PivotCubeDTO getPivot(LocalDate startDate, LocalDate endDate, TransactionType type, PivotDimension dimension) {
+        return cached(AnalyticsCache.Key.pivot(startDate, endDate, type, dimension),
+                () -> computePivot(startDate, endDate, type, dimension));
     }
 
-    private static class BreakdownAccumulator {
-        final Long id;
-        final String name;
-        final String color;
-        BigDecimal amount = BigDecimal.ZERO;
+    private PivotCubeDTO computePivot(LocalDate startDate, LocalDate endDate, TransactionType type,
+                                      PivotDimension dimension) {
+        List<PivotCell> cells = dimension == PivotDimension.CATEGORY
+                ? transactionRepository.sumByCategoryAndMonth(startDate, endDate, type)
+                : transactionRepository.sumByTagAndMonth(startDate, endDate, type);
 
-        BreakdownAccumulator(Long id, String name, String color) {
-            this.id = id;
-            this.name = name;
-            this.color = color;
+        YearMonth first = YearMonth.from(startDate);
+        int columns = (int) first.until(YearMonth.from(endDate), ChronoUnit.MONTHS) + 1;
+        Map<Long, PivotMemberDTO> members = new HashMap<>();
+        Map<Long, BigDecimal[]> rows = new HashMap<>();
+        for (PivotCell cell : cells) {
+            members.computeIfAbsent(cell.id(), id -> PivotMemberDTO.builder()
+                    .id(id).name(cell.name()).color(cell.color()).build());
+            BigDecimal[] row = rows.computeIfAbsent(cell.id(), id -> {
+                BigDecimal[] zeros = new BigDecimal[columns];
+                Arrays.fill(zeros, BigDecimal.ZERO);
+                return zeros;
+            });
+            row[(int) first.until(YearMonth.of(cell.year(), cell.month()), ChronoUnit.MONTHS)] = cell.amount();
+        }
+
+        Map<Long, BigDecimal> rowTotals = new HashMap<>();
+        rows.forEach((id, row) -> rowTotals.put(id, Arrays.stream(row).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        List<Long> order = rows.keySet().stream()
+                .sorted((a, b) -> rowTotals.get(b).compareTo(rowTotals.get(a)))
+                .toList();
+
+        List<BigDecimal> amounts = new ArrayList<>(order.size() * columns);
+        BigDecimal[] columnTotals = new BigDecimal[columns];
+        Arrays.fill(columnTotals, BigDecimal.ZERO);
+        for (Long id : order) {
+            BigDecimal[] row = rows.get(id);
+            for (int c = 0; c < columns; c++) {
+                amounts.add(row[c]);
+                columnTotals[c] = columnTotals[c].add(row[c]);
+            }
         }
 
-        void add(BigDecimal value) {
-            amount = amount.add(value);
+        return PivotCubeDTO.builder()
+                .dimension(dimension.name())
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .months(IntStream.range(0, columns).mapToObj(c -> first.plusMonths(c).toString()).toList())
+                .rows(order.stream().map(members::get).toList())
+                .amounts(List.copyOf(amounts))
+                .rowTotals(order.stream().map(rowTotals::get).toList())
+                .columnTotals(List.of(columnTotals))
+                .grandTotal(Arrays.stream(columnTotals).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .build();
+    }
+
+    private <T> T cached(AnalyticsCache.Key key, Supplier<T> loader) {
+        return databaseOnly.get() ? loader.get() : analyticsCache.get(key, loader);
+    }
+
+    private boolean dailyIndexReady() {
+        return !databaseOnly.get() && dailyAggregateIndex.isReady();
+    }
+
+    /** The columnar ledger when it is enabled and loaded, otherwise null (use the JPA path). */
+    private ColumnarLedger columnarLedger() {
+        if (databaseOnly.get()) {
+            return null;
         }
+        ColumnarLedger ledger = columnarLedgerProvider.getIfAvailable();
+        return ledger != null && ledger.isReady() ? ledger : null;
+    }
+
+    private List<BreakdownItemDTO> toBreakdownList(List<BreakdownRow> rows, BigDecimal total) {
+        return rows.stream()
+                .sorted((a, b) -> b.amount().compareTo(a.amount()))
+                .map(row -> BreakdownItemDTO.builder()
+                        .id(row.id())
+                        .name(row.name())
+                        .color(row.color())
+                        .amount(row.amount())
+                        .percentage(total.compareTo(BigDecimal.ZERO) == 0
+                                ? 0.0
+                                : row.amount().multiply(BigDecimal.valueOf(100))
+                                        .divide(total, 2, RoundingMode.HALF_UP)
+                                        .doubleValue())
+                        .build())
+                .toList();
     }
 }
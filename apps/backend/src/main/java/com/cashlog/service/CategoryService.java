@@ -3,10 +3,12 @@ package com.cashlog.service;
 import com.cashlog.dto.request.CreateCategoryRequest;
 import com.cashlog.dto.response.CategoryDTO;
 import com.cashlog.entity.Category;
+import com.cashlog.event.CategoryChangedEvent;
 import com.cashlog.exception.DuplicateResourceException;
 import com.cashlog.exception.ResourceNotFoundException;
 import com.cashlog.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<CategoryDTO> getAllCategories() {
         return categoryRepository.findAll().stream()
@@ -61,6 +64,7 @@ public class CategoryService {
         category.setColor(request.getColor());
         
         Category updated = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
         return toDTO(updated);
     }
     
@@ -70,6 +74,7 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category not found: " + id);
         }
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
     
     private CategoryDTO toDTO(Category category) {
@@ -0,0 +1,588 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import com.cashlog.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory, column-oriented copy of the ledger that answers the
+ * analytics queries by scanning primitive arrays instead of going through
+ * Hibernate. Enabled with {@code app.analytics.columnar.enabled=true}; while
+ * it is disabled or still loading, {@link AnalyticsService} uses the JPA path.
+ *
+ * <p>Each row is stored as a {@code long} id, a {@code long} amount in minor
+ * units (KRW x 100), an {@code int} epoch day, an {@code int} category id,
+ * one bit in the expense bitset and one bit in each of its tags' bitmaps.
+ *
+ * <p>Rows {@code [0, sortedSize)} are kept sorted by day together with
+ * running income/expense prefix sums, so a date-range total is two binary
+ * searches. Writes append to an unsorted tail and retire replaced rows with a
+ * tombstone; both are corrected for at query time and folded back into the
+ * sorted section once they grow past {@link #compactionThreshold()}.
+ *
+ * <p>Changes are applied from {@link TransactionChangedEvent}s, and bulk
+ * changes, after commit. Applying a change is an upsert/remove or an in-place
+ * edit by id, so replaying one that the initial load already saw is harmless.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.analytics.columnar.enabled", havingValue = "true")
+public class ColumnarLedger {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final int DAY_KEY_OFFSET = 1 << 30;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY];
+    private BitSet expense = new BitSet();
+    private BitSet dead = new BitSet();
+    private Map<Long, BitSet> tagRows = new HashMap<>();
+    private LongIntMap rowById = new LongIntMap(INITIAL_CAPACITY);
+    private int size;
+
+    private int sortedSize;
+    /** {@code prefixIncome[i]} is the income of sorted rows {@code [0, i)}, dead or alive. */
+    private long[] prefixIncome = new long[1];
+    private long[] prefixExpense = new long[1];
+    /** Tombstoned rows inside the sorted section, subtracted from prefix-sum answers. */
+    private int[] deadSorted = new int[16];
+    private int deadSortedCount;
+
+    public ColumnarLedger(TransactionRepository transactionRepository, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        if (transactionManager != null) {
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+        } else {
+            this.readOnlyTransaction = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = transactionRepository.streamLedgerColumns()) {
+                    rows.forEach(row -> append(
+                            (Long) row[0],
+                            (LocalDate) row[1],
+                            (TransactionType) row[2],
+                            (Long) row[3],
+                            (BigDecimal) row[4],
+                            Set.of()));
+                }
+                try (Stream<Object[]> links = transactionRepository.streamTagLinks()) {
+                    links.forEach(link -> {
+                        int row = rowById.get((Long) link[0]);
+                        if (row >= 0) {
+                            tagRows.computeIfAbsent((Long) link[1], k -> new BitSet()).set(row);
+                        }
+                    });
+                }
+            });
+            compact();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Columnar ledger loaded {} rows in {} ms (~{} KB of column data)",
+                size, (System.nanoTime() - started) / 1_000_000, estimatedBytes() / 1024);
+    }
+
+    // Runs ahead of AnalyticsCache's eviction so a reload after it sees the change.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (event.after() != null) {
+            upsert(event.after());
+        } else if (event.before() != null) {
+            remove(event.before().id());
+        }
+    }
+
+    /** Applies a bulk change by id under one lock; rows already gone are skipped. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionsBulkChanged(TransactionsBulkChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.ids()) {
+                if (event.change() == TransactionsBulkChangedEvent.Change.DELETED) {
+                    kill(id);
+                    continue;
+                }
+                int row = rowById.get(id);
+                if (row < 0) {
+                    continue;
+                }
+                switch (event.change()) {
+                    case CATEGORY_SET -> categories[row] = Math.toIntExact(event.categoryId());
+                    case TAGS_ADDED -> event.tagIds().forEach(tagId ->
+                            tagRows.computeIfAbsent(tagId, k -> new BitSet()).set(row));
+                    case TAGS_REMOVED -> event.tagIds().forEach(tagId -> {
+                        BitSet rows = tagRows.get(tagId);
+                        if (rows != null) {
+                            rows.clear(row);
+                        }
+                    });
+                    default -> {
+                    }
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void upsert(TransactionSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            kill(snapshot.id());
+            append(snapshot.id(), snapshot.transactionDate(), snapshot.transactionType(),
+                    snapshot.categoryId(), snapshot.amountKrw(), snapshot.tagIds());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            kill(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Minor-unit totals over an inclusive date range, as {@code [income, expense]}. */
+    public long[] sumByType(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            int from = (int) startDate.toEpochDay();
+            int to = (int) endDate.toEpochDay();
+            long[] totals = new long[2];
+            accumulateRange(from, to, totals);
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Minor-unit net (income - expense) of every row dated before {@code date}. */
+    public long netBefore(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            long[] totals = new long[2];
+            accumulateRange(Integer.MIN_VALUE + 1, (int) date.toEpochDay() - 1, totals);
+            return totals[0] - totals[1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Per-month {@code [income, expense, rowCount]} for every month of the
+     * range that holds at least one row, in month order.
+     */
+    public Map<YearMonth, long[]> monthlyTotals(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, long[]> result = new LinkedHashMap<>();
+            YearMonth month = YearMonth.from(startDate);
+            YearMonth last = YearMonth.from(endDate);
+            while (!month.isAfter(last)) {
+                LocalDate from = month.atDay(1).isBefore(startDate) ? startDate : month.atDay(1);
+                LocalDate to = month.atEndOfMonth().isAfter(endDate) ? endDate : month.atEndOfMonth();
+                long[] bucket = new long[3];
+                accumulateRange((int) from.toEpochDay(), (int) to.toEpochDay(), bucket);
+                if (bucket[2] > 0) {
+                    result.put(month, bucket);
+                }
+                month = month.plusMonths(1);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Minor-unit totals per category id for one type over an inclusive date range. */
+    public Map<Long, Long> sumByCategory(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        lock.readLock().lock();
+        try {
+            int from = (int) startDate.toEpochDay();
+            int to = (int) endDate.toEpochDay();
+            boolean wantExpense = type == TransactionType.EXPENSE;
+            Map<Long, Long> totals = new HashMap<>();
+            int lo = lowerBound(from);
+            int hi = lowerBound(to + 1);
+            for (int row = lo; row < hi; row++) {
+                if (!dead.get(row) && expense.get(row) == wantExpense) {
+                    totals.merge((long) categories[row], amounts[row], Long::sum);
+                }
+            }
+            for (int row = sortedSize; row < size; row++) {
+                if (!dead.get(row) && expense.get(row) == wantExpense && days[row] >= from && days[row] <= to) {
+                    totals.merge((long) categories[row], amounts[row], Long::sum);
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Minor-unit totals per tag id for one type over an inclusive date range. */
+    public Map<Long, Long> sumByTag(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        lock.readLock().lock();
+        try {
+            int from = (int) startDate.toEpochDay();
+            int to = (int) endDate.toEpochDay();
+            boolean wantExpense = type == TransactionType.EXPENSE;
+            int lo = lowerBound(from);
+            int hi = lowerBound(to + 1);
+            Map<Long, Long> totals = new HashMap<>();
+            for (Map.Entry<Long, BitSet> entry : tagRows.entrySet()) {
+                BitSet rows = entry.getValue();
+                long sum = 0;
+                boolean any = false;
+                for (int row = rows.nextSetBit(lo); row >= 0 && row < hi; row = rows.nextSetBit(row + 1)) {
+                    if (!dead.get(row) && expense.get(row) == wantExpense) {
+                        sum += amounts[row];
+                        any = true;
+                    }
+                }
+                for (int row = rows.nextSetBit(sortedSize); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+                    if (!dead.get(row) && expense.get(row) == wantExpense && days[row] >= from && days[row] <= to) {
+                        sum += amounts[row];
+                        any = true;
+                    }
+                }
+                if (any) {
+                    totals.put(entry.getKey(), sum);
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    /** Adds {@code [income, expense, liveRowCount]} of the inclusive epoch-day range into {@code totals}. */
+    private void accumulateRange(int from, int to, long[] totals) {
+        int lo = lowerBound(from);
+        int hi = lowerBound(to + 1);
+        totals[0] += prefixIncome[hi] - prefixIncome[lo];
+        totals[1] += prefixExpense[hi] - prefixExpense[lo];
+        long count = hi - lo;
+        for (int i = 0; i < deadSortedCount; i++) {
+            int row = deadSorted[i];
+            if (row >= lo && row < hi) {
+                totals[expense.get(row) ? 1 : 0] -= amounts[row];
+                count--;
+            }
+        }
+        for (int row = sortedSize; row < size; row++) {
+            if (!dead.get(row) && days[row] >= from && days[row] <= to) {
+                totals[expense.get(row) ? 1 : 0] += amounts[row];
+                count++;
+            }
+        }
+        if (totals.length > 2) {
+            totals[2] += count;
+        }
+    }
+
+    /** First sorted row whose day is {@code >= day}. */
+    private int lowerBound(int day) {
+        int lo = 0;
+        int hi = sortedSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void append(Long id, LocalDate date, TransactionType type, Long categoryId,
+                        BigDecimal amountKrw, Set<Long> tagIds) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        ids[row] = id;
+        // Rounded like the DECIMAL(15,2) column, so answers match the SQL path.
+        amounts[row] = amountKrw.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        days[row] = (int) date.toEpochDay();
+        categories[row] = Math.toIntExact(categoryId);
+        expense.set(row, type == TransactionType.EXPENSE);
+        for (Long tagId : tagIds) {
+            tagRows.computeIfAbsent(tagId, k -> new BitSet()).set(row);
+        }
+        rowById.put(id, row);
+    }
+
+    private void kill(Long id) {
+        int row = rowById.remove(id);
+        if (row < 0) {
+            return;
+        }
+        dead.set(row);
+        if (row < sortedSize) {
+            if (deadSortedCount == deadSorted.length) {
+                deadSorted = Arrays.copyOf(deadSorted, deadSortedCount * 2);
+            }
+            deadSorted[deadSortedCount++] = row;
+        }
+    }
+
+    private int compactionThreshold() {
+        return Math.max(MIN_COMPACTION_THRESHOLD, size / 64);
+    }
+
+    private void compactIfNeeded() {
+        if ((size - sortedSize) + deadSortedCount > compactionThreshold()) {
+            compact();
+        }
+    }
+
+    /** Drops dead rows and re-sorts everything by day, rebuilding the prefix sums and tag bitmaps. */
+    private void compact() {
+        long[] order = new long[size];
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (!dead.get(row)) {
+                order[live++] = ((long) (days[row] + DAY_KEY_OFFSET) << 32) | row;
+            }
+        }
+        Arrays.sort(order, 0, live);
+
+        int capacity = Math.max(INITIAL_CAPACITY, live + live / 4);
+        long[] newIds = new long[capacity];
+        long[] newAmounts = new long[capacity];
+        int[] newDays = new int[capacity];
+        int[] newCategories = new int[capacity];
+        BitSet newExpense = new BitSet(live);
+        int[] remap = new int[size];
+        Arrays.fill(remap, -1);
+        LongIntMap newRowById = new LongIntMap(capacity);
+        long[] newPrefixIncome = new long[live + 1];
+        long[] newPrefixExpense = new long[live + 1];
+
+        for (int i = 0; i < live; i++) {
+            int old = (int) order[i];
+            remap[old] = i;
+            newIds[i] = ids[old];
+            newAmounts[i] = amounts[old];
+            newDays[i] = days[old];
+            newCategories[i] = categories[old];
+            boolean isExpense = expense.get(old);
+            newExpense.set(i, isExpense);
+            newRowById.put(ids[old], i);
+            newPrefixIncome[i + 1] = newPrefixIncome[i] + (isExpense ? 0 : amounts[old]);
+            newPrefixExpense[i + 1] = newPrefixExpense[i] + (isExpense ? amounts[old] : 0);
+        }
+
+        Map<Long, BitSet> newTagRows = new HashMap<>();
+        for (Map.Entry<Long, BitSet> entry : tagRows.entrySet()) {
+            BitSet remapped = new BitSet();
+            BitSet rows = entry.getValue();
+            for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+                if (remap[row] >= 0) {
+                    remapped.set(remap[row]);
+                }
+            }
+            if (!remapped.isEmpty()) {
+                newTagRows.put(entry.getKey(), remapped);
+            }
+        }
+
+        ids = newIds;
+        amounts = newAmounts;
+        days = newDays;
+        categories = newCategories;
+        expense = newExpense;
+        dead = new BitSet();
+        tagRows = newTagRows;
+        rowById = newRowById;
+        size = live;
+        sortedSize = live;
+        prefixIncome = newPrefixIncome;
+        prefixExpense = newPrefixExpense;
+        deadSortedCount = 0;
+    }
+
+    private void clear() {
+        ids = new long[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        days = new int[INITIAL_CAPACITY];
+        categories = new int[INITIAL_CAPACITY];
+        expense = new BitSet();
+        dead = new BitSet();
+        tagRows = new HashMap<>();
+        rowById = new LongIntMap(INITIAL_CAPACITY);
+        size = 0;
+        sortedSize = 0;
+        prefixIncome = new long[1];
+        prefixExpense = new long[1];
+        deadSortedCount = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        days = Arrays.copyOf(days, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+    }
+
+    private long estimatedBytes() {
+        long perRow = Long.BYTES * 4L + Integer.BYTES * 2L;
+        return ids.length * perRow + rowById.capacity() * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    /** Open-addressing {@code long -> int} map, so the id index costs no boxing per row. */
+    static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private int[] values;
+        private int count;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                count++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        /** Removes {@code key} and returns its value, or -1 when absent. */
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int removed = values[slot];
+            keys[slot] = EMPTY;
+            count--;
+            // Re-insert the rest of the probe run so lookups never stop early.
+            for (int next = (slot + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                long movedKey = keys[next];
+                int movedValue = values[next];
+                keys[next] = EMPTY;
+                count--;
+                put(movedKey, movedValue);
+            }
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.RollupRebuiltEvent;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import com.cashlog.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-day aggregate of the ledger that answers income/expense
+ * totals and category breakdowns for any inclusive date range with no table
+ * scan.
+ *
+ * <p>For every (type, category) pair, and for each type overall, the amount
+ * (in minor units, KRW x 100) and row count of each day are held in blocks of
+ * {@link #BLOCK_DAYS} epoch days, each a pair of Fenwick trees plus its
+ * totals. Only blocks holding rows exist, so a stray date decades away costs
+ * one block rather than every day in between. A range query reads the two
+ * partial end blocks in {@code O(log BLOCK_DAYS)} and the totals of the
+ * blocks between them.
+ *
+ * <p>Loaded from one grouped query at startup, then kept current by applying
+ * each committed {@link TransactionChangedEvent}, or bulk change, as a delta. Deltas are not
+ * idempotent, so a load only takes effect if {@link LedgerVersion} shows that
+ * no write committed while it read; otherwise it reads again. Until then
+ * {@link #isReady()} is false and callers use SQL.
+ */
+@Slf4j
+@Component
+public class DailyAggregateIndex {
+
+    static final int BLOCK_DAYS = 512;
+    private static final int MAX_LOAD_ATTEMPTS = 5;
+    private static final long WRITE_SETTLE_NANOS = 1_000_000;
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerVersion ledgerVersion;
+    private final ExecutorService analyticsExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    private final Series[] byType = new Series[TransactionType.values().length];
+    /** Keyed by {@link #seriesKey}. */
+    private final Map<Long, Series> byCategory = new HashMap<>();
+
+    public DailyAggregateIndex(TransactionRepository transactionRepository, LedgerVersion ledgerVersion,
+                               ExecutorService analyticsExecutor, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.ledgerVersion = ledgerVersion;
+        this.analyticsExecutor = analyticsExecutor;
+        if (transactionManager != null) {
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+        } else {
+            this.readOnlyTransaction = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+            long version = ledgerVersion.stableVersion();
+            if (version < 0) {
+                LockSupport.parkNanos(WRITE_SETTLE_NANOS);
+                continue;
+            }
+            List<Object[]> rows = readOnlyTransaction.execute(status ->
+                    transactionRepository.aggregateByDayTypeAndCategory());
+            lock.writeLock().lock();
+            try {
+                if (ledgerVersion.unchangedSince(version)) {
+                    loadRows(rows);
+                    log.info("Daily aggregate index loaded {} day buckets in {} ms",
+                            rows.size(), (System.nanoTime() - started) / 1_000_000);
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.warn("Daily aggregate index not loaded: the ledger kept changing; range queries stay on SQL");
+    }
+
+    /**
+     * A rebuild means rows may have been written behind the events' back, so
+     * reload. It runs off the committing thread because that write only
+     * counts as finished once this listener has returned.
+     */
+    @TransactionalEventListener
+    public void onRollupRebuilt(RollupRebuiltEvent event) {
+        analyticsExecutor.execute(this::load);
+    }
+
+    // Runs ahead of AnalyticsCache's eviction so a reload after it sees the change.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            if (event.before() != null) {
+                apply(event.before(), -1);
+            }
+            if (event.after() != null) {
+                apply(event.after(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a bulk change per day bucket: a deletion takes the buckets out,
+     * a new category moves them to its series. Tags are not indexed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionsBulkChanged(TransactionsBulkChangedEvent event) {
+        TransactionsBulkChangedEvent.Change change = event.change();
+        if (change != TransactionsBulkChangedEvent.Change.DELETED
+                && change != TransactionsBulkChangedEvent.Change.CATEGORY_SET) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            for (TransactionsBulkChangedEvent.DayBucket bucket : event.before()) {
+                apply(bucket.date(), bucket.type(), bucket.categoryId(), bucket.amountKrw(), bucket.count(), -1);
+                if (change == TransactionsBulkChangedEvent.Change.CATEGORY_SET) {
+                    apply(bucket.date(), bucket.type(), event.categoryId(), bucket.amountKrw(), bucket.count(), 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with {@code [date, type, categoryId, sumAmount, count]}
+     * day buckets and marks it ready. Caller holds the write lock.
+     */
+    void loadRows(List<Object[]> rows) {
+        byCategory.clear();
+        for (TransactionType type : TransactionType.values()) {
+            byType[type.ordinal()] = new Series();
+        }
+
+        for (Object[] row : rows) {
+            long day = ((LocalDate) row[0]).toEpochDay();
+            TransactionType type = (TransactionType) row[1];
+            long amount = toMinorUnits((BigDecimal) row[3]);
+            long count = ((Number) row[4]).longValue();
+            byType[type.ordinal()].addPoint(day, amount, count);
+            series(type, (Long) row[2]).addPoint(day, amount, count);
+        }
+        byCategory.values().forEach(Series::buildTree);
+        for (Series series : byType) {
+            series.buildTree();
+        }
+        ready = true;
+    }
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) one row. Caller holds the write lock. */
+    void apply(TransactionSnapshot row, int sign) {
+        apply(row.transactionDate(), row.transactionType(), row.categoryId(), row.amountKrw(), 1, sign);
+    }
+
+    /** Adds or removes {@code count} rows of one day totalling {@code amountKrw}. Caller holds the write lock. */
+    private void apply(LocalDate date, TransactionType type, Long categoryId, BigDecimal amountKrw, long count, int sign) {
+        long day = date.toEpochDay();
+        long amount = sign * toMinorUnits(amountKrw);
+        byType[type.ordinal()].add(day, amount, sign * count);
+        series(type, categoryId).add(day, amount, sign * count);
+    }
+
+    /** Minor-unit totals and row counts of an inclusive date range, as {@code [income, expense, incomeCount, expenseCount]}. */
+    public long[] totals(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            long from = startDate.toEpochDay();
+            long to = endDate.toEpochDay();
+            long[] income = byType[TransactionType.INCOME.ordinal()].sum(from, to);
+            long[] expense = byType[TransactionType.EXPENSE.ordinal()].sum(from, to);
+            return new long[]{income[0], expense[0], income[1], expense[1]};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Minor-unit total per category id of one type over an inclusive date range; categories with no rows are omitted. */
+    public Map<Long, Long> sumByCategory(LocalDate startDate, LocalDate endDate, TransactionType type) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Long> sums = new HashMap<>();
+            long from = startDate.toEpochDay();
+            long to = endDate.toEpochDay();
+            byCategory.forEach((key, series) -> {
+                if (typeOf(key) == type) {
+                    long[] sum = series.sum(from, to);
+                    if (sum[1] > 0) {
+                        sums.put(categoryOf(key), sum[0]);
+                    }
+                }
+            });
+            return sums;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Series series(TransactionType type, Long categoryId) {
+        return byCategory.computeIfAbsent(seriesKey(type, categoryId), k -> new Series());
+    }
+
+    private static long seriesKey(TransactionType type, Long categoryId) {
+        return (categoryId << 1) | type.ordinal();
+    }
+
+    private static TransactionType typeOf(long seriesKey) {
+        return TransactionType.values()[(int) (seriesKey & 1)];
+    }
+
+    private static long categoryOf(long seriesKey) {
+        return seriesKey >>> 1;
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /** One series' blocks, keyed by {@code floorDiv(epochDay, BLOCK_DAYS)}. */
+    private static final class Series {
+        private final TreeMap<Long, Block> blocks = new TreeMap<>();
+
+        /** Sets a raw per-day value; call {@link #buildTree()} once all are set. */
+        void addPoint(long day, long amount, long count) {
+            blocks.computeIfAbsent(Math.floorDiv(day, BLOCK_DAYS), k -> new Block())
+                    .addPoint(slot(day), amount, count);
+        }
+
+        void buildTree() {
+            blocks.values().forEach(Block::buildTree);
+        }
+
+        void add(long day, long amount, long count) {
+            long key = Math.floorDiv(day, BLOCK_DAYS);
+            Block block = blocks.computeIfAbsent(key, k -> new Block());
+            block.add(slot(day), amount, count);
+            // No rows left means every day of it is zero again.
+            if (block.totalCount == 0) {
+                blocks.remove(key);
+            }
+        }
+
+        /** {@code [amount, count]} of the inclusive epoch-day range. */
+        long[] sum(long fromDay, long toDay) {
+            long[] sum = new long[2];
+            if (fromDay > toDay) {
+                return sum;
+            }
+            long fromKey = Math.floorDiv(fromDay, BLOCK_DAYS);
+            long toKey = Math.floorDiv(toDay, BLOCK_DAYS);
+            for (Map.Entry<Long, Block> entry : blocks.subMap(fromKey, true, toKey, true).entrySet()) {
+                Block block = entry.getValue();
+                int from = entry.getKey() == fromKey ? slot(fromDay) : 1;
+                int to = entry.getKey() == toKey ? slot(toDay) : BLOCK_DAYS;
+                if (from == 1 && to == BLOCK_DAYS) {
+                    sum[0] += block.totalAmount;
+                    sum[1] += block.totalCount;
+                } else {
+                    sum[0] += block.amount(from, to);
+                    sum[1] += block.count(from, to);
+                }
+            }
+            return sum;
+        }
+
+        private static int slot(long day) {
+            return (int) Math.floorMod(day, BLOCK_DAYS) + 1;
+        }
+    }
+
+    /** Amount and count Fenwick trees over one block of days, 1-based, with their totals. */
+    private static final class Block {
+        private final long[] amounts = new long[BLOCK_DAYS + 1];
+        private final long[] counts = new long[BLOCK_DAYS + 1];
+        private long totalAmount;
+        private long totalCount;
+
+        void addPoint(int slot, long amount, long count) {
+            amounts[slot] += amount;
+            counts[slot] += count;
+            totalAmount += amount;
+            totalCount += count;
+        }
+
+        /** Turns raw per-day values into Fenwick trees in linear time. */
+        void buildTree() {
+            for (int i = 1; i < amounts.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < amounts.length) {
+                    amounts[parent] += amounts[i];
+                    counts[parent] += counts[i];
+                }
+            }
+        }
+
+        void add(int slot, long amount, long count) {
+            for (int i = slot; i < amounts.length; i += i & -i) {
+                amounts[i] += amount;
+                counts[i] += count;
+            }
+            totalAmount += amount;
+            totalCount += count;
+        }
+
+        long amount(int from, int to) {
+            return prefix(amounts, to) - prefix(amounts, from - 1);
+        }
+
+        long count(int from, int to) {
+            return prefix(counts, to) - prefix(counts, from - 1);
+        }
+
+        private static long prefix(long[] tree, int slot) {
+            long sum = 0;
+            for (int i = slot; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
+}
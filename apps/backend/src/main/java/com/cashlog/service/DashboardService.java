@@ -0,0 +1,119 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.DashboardDTO;
+import com.cashlog.dto.response.MonthlySummaryDTO;
+import com.cashlog.dto.response.MonthlyTrendPointDTO;
+import com.cashlog.entity.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the dashboard in one call. The six analytics queries run
+ * concurrently on virtual threads, each on its own pooled connection.
+ *
+ * <p>Separate connections cannot share a database snapshot, so consistency
+ * is checked optimistically: if {@link LedgerVersion} shows a write committed
+ * while the queries ran, they are run again. After {@link #MAX_ATTEMPTS}
+ * collisions the dashboard is read sequentially inside one repeatable-read
+ * transaction instead, from SQL only: the analytics cache, the daily
+ * aggregate index and the columnar ledger are updated after a commit rather
+ * than inside the snapshot, so they are bypassed for that read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    static final int MAX_ATTEMPTS = 3;
+    private static final long WRITE_SETTLE_NANOS = 1_000_000;
+
+    private final AnalyticsService analyticsService;
+    private final LedgerVersion ledgerVersion;
+    private final ExecutorService analyticsExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * @param trendStartDate optional, as for {@link AnalyticsService#getMonthlyTrend}
+     * @param trendEndDate   optional, as for {@link AnalyticsService#getMonthlyTrend}
+     */
+    public DashboardDTO getDashboard(Integer year, Integer month, LocalDate trendStartDate, LocalDate trendEndDate) {
+        YearMonth period = YearMonth.of(year, month);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long version = ledgerVersion.stableVersion();
+            if (version < 0) {
+                // A commit is in flight; it completes within moments.
+                LockSupport.parkNanos(WRITE_SETTLE_NANOS);
+                continue;
+            }
+            DashboardDTO dashboard = load(period, trendStartDate, trendEndDate, true);
+            if (ledgerVersion.unchangedSince(version)) {
+                return dashboard;
+            }
+        }
+
+        log.debug("Ledger changed during {} dashboard attempts; reading it from SQL in one transaction", MAX_ATTEMPTS);
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return snapshot.execute(status -> analyticsService.readingDatabaseOnly(
+                () -> load(period, trendStartDate, trendEndDate, false)));
+    }
+
+    private DashboardDTO load(YearMonth period, LocalDate trendStartDate, LocalDate trendEndDate, boolean concurrent) {
+        LocalDate start = period.atDay(1);
+        LocalDate end = period.atEndOfMonth();
+        CompletableFuture<MonthlySummaryDTO> summary = submit(concurrent,
+                () -> analyticsService.getMonthlySummary(period.getYear(), period.getMonthValue()));
+        CompletableFuture<List<BreakdownItemDTO>> expenseByCategory = submit(concurrent,
+                () -> analyticsService.getCategoryBreakdown(start, end, TransactionType.EXPENSE));
+        CompletableFuture<List<BreakdownItemDTO>> incomeByCategory = submit(concurrent,
+                () -> analyticsService.getCategoryBreakdown(start, end, TransactionType.INCOME));
+        CompletableFuture<List<BreakdownItemDTO>> expenseByTag = submit(concurrent,
+                () -> analyticsService.getTagBreakdown(start, end, TransactionType.EXPENSE));
+        CompletableFuture<List<BreakdownItemDTO>> incomeByTag = submit(concurrent,
+                () -> analyticsService.getTagBreakdown(start, end, TransactionType.INCOME));
+        CompletableFuture<List<MonthlyTrendPointDTO>> trend = submit(concurrent,
+                () -> analyticsService.getMonthlyTrend(trendStartDate, trendEndDate));
+
+        return DashboardDTO.builder()
+                .summary(await(summary))
+                .expenseByCategory(await(expenseByCategory))
+                .incomeByCategory(await(incomeByCategory))
+                .expenseByTag(await(expenseByTag))
+                .incomeByTag(await(incomeByTag))
+                .trend(await(trend))
+                .build();
+    }
+
+    private <T> CompletableFuture<T> submit(boolean concurrent, Supplier<T> query) {
+        return concurrent
+                ? CompletableFuture.supplyAsync(query, analyticsExecutor)
+                : CompletableFuture.completedFuture(query.get());
+    }
+
+    /** Joins a sub-query, rethrowing its own exception so the usual error mapping applies. */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
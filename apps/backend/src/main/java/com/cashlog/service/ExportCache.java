@@ -0,0 +1,311 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.event.CategoryChangedEvent;
+import com.cashlog.event.TagChangedEvent;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Rendered exports kept as files under {@code app.export.cache.dir}, so a
+ * range whose rows have not changed is served by reading a file instead of
+ * querying and rendering it again. Entries are kept in least-recently-used
+ * order and the oldest are deleted once their files add up to more than
+ * {@code app.export.cache.max-size}. Each file's ETag is the SHA-256 of its
+ * bytes.
+ *
+ * <p>An entry is keyed by format, range and the range's data version: the
+ * sum of a per-month counter, bumped after each commit that changes a row of
+ * that month (its old and new date, for an update), plus a counter bumped
+ * when a category or tag is renamed or deleted. The counters only go up, so
+ * the sum changes whenever anything the range shows does. The entries a
+ * commit can reach are deleted at once; the version also keeps a render
+ * that overlapped a commit from being stored.
+ *
+ * <p>Counters start at zero on each start, so the files of an earlier run
+ * are deleted at startup.
+ */
+@Slf4j
+@Component
+public class ExportCache {
+
+    private static final String FILE_PREFIX = "export-";
+
+    record Key(ExportFormat format, LocalDate startDate, LocalDate endDate, long version) {
+
+        boolean covers(int monthKey) {
+            return MonthlyAggregate.monthKey(startDate) <= monthKey && monthKey <= MonthlyAggregate.monthKey(endDate);
+        }
+    }
+
+    private record Entry(Path file, String etag, long size) {
+    }
+
+    /**
+     * A cached export, opened for reading; it stays readable after its
+     * entry is evicted, until it is closed.
+     */
+    public record Hit(FileChannel channel, String etag, long size) implements Closeable {
+
+        public void transferTo(OutputStream out) throws IOException {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (long sent = 0; sent < size; ) {
+                sent += channel.transferTo(sent, size - sent, target);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<Integer, Long> monthVersions = new ConcurrentHashMap<>();
+    private final AtomicLong namesVersion = new AtomicLong();
+
+    /** Guarded by {@code this}, as is {@link #totalBytes}. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ExportCache(@Value("${app.export.cache.dir:./data/export-cache}") Path directory,
+                       @Value("${app.export.cache.max-size:512MB}") DataSize maxSize) {
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+                for (Path file : leftovers) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare export cache directory " + directory, e);
+        }
+    }
+
+    /** The cached export of the range as it is now, if there is one. */
+    public Optional<Hit> lookup(ExportFormat format, LocalDate startDate, LocalDate endDate) throws IOException {
+        Key key = key(format, startDate, endDate);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Hit(FileChannel.open(entry.file(), StandardOpenOption.READ),
+                        entry.etag(), entry.size()));
+            } catch (NoSuchFileException e) {
+                log.warn("Export cache file {} is gone", entry.file());
+                remove(key);
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Renders the range into {@code out} and, at the same time, into a file
+     * that is kept for the next request unless a commit changed the range
+     * meanwhile. Nothing is kept if the render fails or the client goes
+     * away before the end.
+     */
+    public void write(ExportFormat format, LocalDate startDate, LocalDate endDate, OutputStream out,
+                      Renderer renderer) throws IOException {
+        Key key = key(format, startDate, endDate);
+        Path file = Files.createTempFile(directory, FILE_PREFIX, "." + format.extension());
+        boolean kept = false;
+        try {
+            MessageDigest sha256 = sha256();
+            try (OutputStream copy = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file)),
+                    sha256)) {
+                renderer.write(new TeeOutputStream(out, copy));
+            }
+            if (key(format, startDate, endDate).version() != key.version()) {
+                log.debug("Not caching {} export {}..{}: changed while rendering", format, startDate, endDate);
+                return;
+            }
+            kept = put(key, new Entry(file, HexFormat.of().formatHex(sha256.digest()), Files.size(file)));
+        } finally {
+            if (!kept) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Set<Integer> months = new HashSet<>();
+        for (TransactionSnapshot row : new TransactionSnapshot[] {event.before(), event.after()}) {
+            if (row != null) {
+                months.add(MonthlyAggregate.monthKey(row.transactionDate()));
+            }
+        }
+        bump(months);
+    }
+
+    @TransactionalEventListener
+    public void onTransactionsBulkChanged(TransactionsBulkChangedEvent event) {
+        Set<Integer> months = new HashSet<>();
+        event.before().forEach(bucket -> months.add(MonthlyAggregate.monthKey(bucket.date())));
+        bump(months);
+    }
+
+    /** Category and tag names appear in every export. */
+    @TransactionalEventListener(classes = {CategoryChangedEvent.class, TagChangedEvent.class})
+    public void onNamesChanged() {
+        namesVersion.incrementAndGet();
+        evictIf(key -> true);
+    }
+
+    private void bump(Set<Integer> months) {
+        months.forEach(month -> monthVersions.merge(month, 1L, Long::sum));
+        evictIf(key -> months.stream().anyMatch(key::covers));
+    }
+
+    private Key key(ExportFormat format, LocalDate startDate, LocalDate endDate) {
+        int from = MonthlyAggregate.monthKey(startDate);
+        int to = MonthlyAggregate.monthKey(endDate);
+        long version = namesVersion.get();
+        for (Map.Entry<Integer, Long> month : monthVersions.entrySet()) {
+            if (from <= month.getKey() && month.getKey() <= to) {
+                version += month.getValue();
+            }
+        }
+        return new Key(format, startDate, endDate, version);
+    }
+
+    private synchronized boolean put(Key key, Entry entry) {
+        if (entry.size() > maxBytes) {
+            return false;
+        }
+        remove(key);
+        entries.put(key, entry);
+        totalBytes += entry.size();
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            delete(evicted);
+        }
+        return true;
+    }
+
+    private synchronized void evictIf(Predicate<Key> affected) {
+        int before = entries.size();
+        entries.entrySet().removeIf(entry -> {
+            if (!affected.test(entry.getKey())) {
+                return false;
+            }
+            delete(entry.getValue());
+            return true;
+        });
+        if (entries.size() < before) {
+            log.debug("Evicted {} export cache entries", before - entries.size());
+        }
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            delete(entry);
+        }
+    }
+
+    /** Caller holds the lock. */
+    private void delete(Entry entry) {
+        totalBytes -= entry.size();
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException e) {
+            log.warn("Could not delete export cache file {}", entry.file(), e);
+        }
+    }
+
+    /** Size of the cached files, in bytes. */
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Writes to the response and the cache file; closing it only flushes, since the caller owns both. */
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final OutputStream copy;
+
+        private TeeOutputStream(OutputStream out, OutputStream copy) {
+            this.out = out;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copy.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.ExportJobDTO;
+import com.cashlog.exception.ResourceNotFoundException;
+import com.cashlog.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs exports in the background, so a large range is rendered once no
+ * matter how long the client takes to come back for it. A job writes its
+ * file under {@code app.export.jobs.dir} on {@code exportJobExecutor}, whose
+ * queue is bounded: a job that does not fit is refused with
+ * {@link RejectedExecutionException}. A request for the same format and
+ * range as a queued or running job gets that job back instead of a new one.
+ * A range held by the {@link ExportCache} is copied from it, and a rendered
+ * one is added to it.
+ *
+ * <p>Jobs live in memory. Finished ones are dropped, with their files,
+ * {@code app.export.jobs.retention} after they finish; the sweep runs on
+ * each call rather than on a timer, and files left over from an earlier run
+ * are deleted at startup.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private static final String FILE_PREFIX = "export-";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private record Key(ExportFormat format, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Instant createdAt = Instant.now();
+        private final LongAdder rowsWritten = new LongAdder();
+        private final Key key;
+        private final Path file;
+        private volatile State state = State.QUEUED;
+        private volatile Long totalRows;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private Job(Key key, Path directory) {
+            this.key = key;
+            this.file = directory.resolve(FILE_PREFIX + id + "." + key.format().extension());
+        }
+    }
+
+    /** A finished job's file, and what it holds. */
+    public record Result(Path file, ExportFormat format, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final ExportService exportService;
+    private final PdfExportService pdfExportService;
+    private final ExportCache exportCache;
+    private final TransactionRepository transactionRepository;
+    private final ExecutorService exportJobExecutor;
+    private final Path directory;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Key, Job> activeJobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(ExportService exportService,
+                            PdfExportService pdfExportService,
+                            ExportCache exportCache,
+                            TransactionRepository transactionRepository,
+                            ExecutorService exportJobExecutor,
+                            @Value("${app.export.jobs.dir:./data/exports}") Path directory,
+                            @Value("${app.export.jobs.retention:1h}") Duration retention) {
+        this.exportService = exportService;
+        this.pdfExportService = pdfExportService;
+        this.exportCache = exportCache;
+        this.transactionRepository = transactionRepository;
+        this.exportJobExecutor = exportJobExecutor;
+        this.directory = directory;
+        this.retention = retention;
+        try {
+            Files.createDirectories(directory);
+            // No job survives a restart, so neither does its file.
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+                for (Path file : leftovers) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare export directory " + directory, e);
+        }
+    }
+
+    /**
+     * Queues an export of the range, or returns the queued or running job
+     * that already exports it.
+     *
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public ExportJobDTO submit(ExportFormat format, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        purgeExpired();
+        Job job = activeJobs.compute(new Key(format, startDate, endDate), (key, active) -> {
+            if (active != null) {
+                return active;
+            }
+            Job created = new Job(key, directory);
+            jobs.put(created.id, created);
+            try {
+                exportJobExecutor.execute(() -> run(created));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(created.id);
+                throw e;
+            }
+            return created;
+        });
+        return toDTO(job);
+    }
+
+    public ExportJobDTO getJob(String id) {
+        return toDTO(findJob(id));
+    }
+
+    /**
+     * The file of a finished job.
+     *
+     * @throws IllegalStateException when the job has not finished successfully
+     */
+    public Result getResult(String id) {
+        Job job = findJob(id);
+        if (job.state != State.DONE) {
+            throw new IllegalStateException("Export job " + id + " is " + job.state);
+        }
+        return new Result(job.file, job.key.format(), job.key.startDate(), job.key.endDate());
+    }
+
+    private Job findJob(String id) {
+        purgeExpired();
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export job not found with id: " + id);
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        job.state = State.RUNNING;
+        Key key = job.key;
+        Path partial = job.file.resolveSibling(job.file.getFileName() + PARTIAL_SUFFIX);
+        long started = System.nanoTime();
+        State outcome;
+        try {
+            job.totalRows = transactionRepository.countByTransactionDateBetween(key.startDate(), key.endDate());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                Optional<ExportCache.Hit> cached = exportCache.lookup(key.format(), key.startDate(), key.endDate());
+                if (cached.isPresent()) {
+                    try (ExportCache.Hit hit = cached.get()) {
+                        hit.transferTo(out);
+                    }
+                    job.rowsWritten.add(job.totalRows);
+                } else {
+                    exportCache.write(key.format(), key.startDate(), key.endDate(), out,
+                            target -> render(key, target, job.rowsWritten));
+                }
+            }
+            // Downloads only ever see a complete file.
+            Files.move(partial, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(job.file);
+            outcome = State.DONE;
+            log.info("Export job {} ({} {}..{}) wrote {} rows, {} bytes in {} ms", job.id, key.format(),
+                    key.startDate(), key.endDate(), job.rowsWritten.sum(), job.sizeBytes,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Export job {} ({} {}..{}) failed", job.id, key.format(), key.startDate(), key.endDate(), e);
+            job.error = e.getMessage();
+            outcome = State.FAILED;
+            deleteQuietly(partial);
+        }
+        job.finishedAt = Instant.now();
+        job.state = outcome;
+        activeJobs.remove(key, job);
+    }
+
+    private void render(Key key, OutputStream out, LongAdder rowsWritten) throws IOException {
+        switch (key.format()) {
+            case CSV -> exportService.writeCsv(key.startDate(), key.endDate(), out, rowsWritten);
+            case XLSX -> exportService.writeExcel(key.startDate(), key.endDate(), out, rowsWritten);
+            case PDF -> pdfExportService.writePdf(key.startDate(), key.endDate(), out, rowsWritten);
+        }
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            Instant finishedAt = job.finishedAt;
+            if (finishedAt == null || !finishedAt.isBefore(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private static ExportJobDTO toDTO(Job job) {
+        return ExportJobDTO.builder()
+                .id(job.id)
+                .format(job.key.format())
+                .startDate(job.key.startDate())
+                .endDate(job.key.endDate())
+                .state(job.state)
+                .rowsWritten(job.rowsWritten.sum())
+                .totalRows(job.totalRows)
+                .sizeBytes(job.sizeBytes)
+                .error(job.error)
+                .createdAt(job.createdAt)
+                .finishedAt(job.finishedAt)
+                .build();
+    }
+}
@@ -1,78 +1,132 @@
 package com.cashlog.service;
 
-import com.cashlog.entity.Transaction;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.repository.projection.ExportRow;
 import com.opencsv.CSVWriter;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ExportService {
     
+    /** Rows an XLSX export keeps in memory; older rows are already on disk. */
+    static final int EXCEL_ROW_WINDOW = 100;
+    private static final String[] EXPORT_HEADER = {"Date", "Type", "Amount (KRW)", "Tags", "Memo"};
+    
     private final TransactionRepository transactionRepository;
     
-    public String exportToCsv(LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        
-        StringWriter writer = new StringWriter();
-        try (CSVWriter csvWriter = new CSVWriter(writer)) {
-            String[] header = {"Date", "Type", "Amount (KRW)", "Tags", "Memo"};
-            csvWriter.writeNext(header);
-            
-            for (Transaction t : transactions) {
-                String[] row = {
-                    t.getTransactionDate().toString(),
-                    t.getTransactionType().toString(),
-                    t.getAmountKrw().toString(),
-                    t.getTags().stream().map(tag -> tag.getName()).collect(java.util.stream.Collectors.joining(", ")),
-                    t.getMemo() != null ? t.getMemo() : ""
-                };
-                csvWriter.writeNext(row);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export CSV", e);
+    /**
+     * Writes the range as CSV to {@code out} while it is read from the
+     * database: rows arrive as a stream of projections and leave through a
+     * small buffer, so memory use does not depend on the size of the range.
+     * Must be called from the thread that writes the response, since the
+     * stream needs this method's transaction until the last row.
+     */
+    public void writeCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        writeCsv(startDate, endDate, out, new LongAdder());
+    }
+    
+    /** {@link #writeCsv} that counts each row written into {@code rowsWritten}. */
+    public void writeCsv(LocalDate startDate, LocalDate endDate, OutputStream out, LongAdder rowsWritten)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(EXPORT_HEADER);
+        try (Stream<ExportRow> rows = transactionRepository.streamExportRows(startDate, endDate)) {
+            rows.forEach(row -> {
+                csvWriter.writeNext(new String[] {
+                    row.date().toString(),
+                    row.type().toString(),
+                    row.amountKrw().toString(),
+                    row.tags() != null ? row.tags() : "",
+                    row.memo() != null ? row.memo() : ""
+                });
+                rowsWritten.increment();
+            });
         }
-        
-        return writer.toString();
+        // Flush rather than close: the response stream belongs to the caller.
+        csvWriter.flush();
     }
     
-    public byte[] exportToExcel(LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Transactions");
-            
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Date", "Type", "Amount (KRW)", "Tags", "Memo"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-            }
-            
-            int rowNum = 1;
-            for (Transaction t : transactions) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(t.getTransactionDate().toString());
-                row.createCell(1).setCellValue(t.getTransactionType().toString());
-                row.createCell(2).setCellValue(t.getAmountKrw().doubleValue());
-                row.createCell(3).setCellValue(t.getTags().stream().map(tag -> tag.getName()).collect(java.util.stream.Collectors.joining(", ")));
-                row.createCell(4).setCellValue(t.getMemo() != null ? t.getMemo() : "");
+    /**
+     * Writes the range as an XLSX workbook to {@code out}. Rows are read as a
+     * stream and written through a {@link SXSSFWorkbook} that keeps only the
+     * last {@link #EXCEL_ROW_WINDOW} rows in memory and flushes older ones to
+     * a compressed temp file, which is deleted once the workbook is written.
+     * Dates and amounts are real date and number cells. A range longer than
+     * one sheet can hold continues on further sheets. Same threading
+     * requirement as {@link #writeCsv}.
+     */
+    public void writeExcel(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        writeExcel(startDate, endDate, out, new LongAdder());
+    }
+    
+    /** {@link #writeExcel} that counts each row written into {@code rowsWritten}. */
+    public void writeExcel(LocalDate startDate, LocalDate endDate, OutputStream out, LongAdder rowsWritten)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, EXCEL_ROW_WINDOW, true);
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+            CellStyle amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+            try (Stream<ExportRow> rows = transactionRepository.streamExportRows(startDate, endDate)) {
+                Iterator<ExportRow> it = rows.iterator();
+                Sheet sheet = newExcelSheet(workbook);
+                while (it.hasNext()) {
+                    if (sheet.getLastRowNum() + 1 == maxRows) {
+                        sheet = newExcelSheet(workbook);
+                    }
+                    ExportRow t = it.next();
+                    Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+                    Cell date = row.createCell(0);
+                    date.setCellValue(t.date());
+                    date.setCellStyle(dateStyle);
+                    row.createCell(1).setCellValue(t.type().toString());
+                    Cell amount = row.createCell(2);
+                    amount.setCellValue(t.amountKrw().doubleValue());
+                    amount.setCellStyle(amountStyle);
+                    row.createCell(3).setCellValue(t.tags() != null ? t.tags() : "");
+                    row.createCell(4).setCellValue(t.memo() != null ? t.memo() : "");
+                    rowsWritten.increment();
+                }
             }
-            
             workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export Excel", e);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static Sheet newExcelSheet(SXSSFWorkbook workbook) {
+        int number = workbook.getNumberOfSheets();
+        Sheet sheet = workbook.createSheet(number == 0 ? "Transactions" : "Transactions (" + (number + 1) + ")");
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < EXPORT_HEADER.length; i++) {
+            header.createCell(i).setCellValue(EXPORT_HEADER[i]);
         }
+        return sheet;
     }
 }
@@ -0,0 +1,155 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Where each field sits in the rows of an imported file, read from its
+ * header row, and the conversion of one row into a
+ * {@link CreateTransactionRequest}. Headers are matched case-insensitively
+ * against English and Korean names, including the export's
+ * {@code "Amount (KRW)"}; other columns are ignored. Immutable, so the
+ * import workers share one instance.
+ */
+class ImportColumns {
+
+    enum Field {
+        DATE(true, "date", "transaction date", "날짜", "거래일"),
+        TYPE(true, "type", "transaction type", "구분", "유형"),
+        AMOUNT(true, "amount", "amount (krw)", "original amount", "금액"),
+        CURRENCY(false, "currency", "통화"),
+        CONVERSION_RATE(false, "conversion rate", "rate", "환율"),
+        CATEGORY(true, "category", "카테고리", "분류"),
+        TAGS(false, "tags", "태그"),
+        MEMO(false, "memo", "메모", "내용");
+
+        private final boolean required;
+        private final Set<String> headers;
+
+        Field(boolean required, String... headers) {
+            this.required = required;
+            this.headers = Set.of(headers);
+        }
+    }
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("uuuu-M-d");
+
+    private final Map<Field, Integer> positions;
+    private final Map<String, Long> categoryIds;
+
+    private ImportColumns(Map<Field, Integer> positions, Map<String, Long> categoryIds) {
+        this.positions = positions;
+        this.categoryIds = categoryIds;
+    }
+
+    /**
+     * @param header      the first row of the file
+     * @param categoryIds category ids by lower-cased name
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    static ImportColumns of(String[] header, Map<String, Long> categoryIds) {
+        Map<Field, Integer> positions = new EnumMap<>(Field.class);
+        for (int i = header.length - 1; i >= 0; i--) {
+            String name = header[i] == null ? "" : header[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            for (Field field : Field.values()) {
+                if (field.headers.contains(name)) {
+                    positions.put(field, i);
+                }
+            }
+        }
+        String missing = Arrays.stream(Field.values())
+                .filter(field -> field.required && !positions.containsKey(field))
+                .map(field -> field.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", "));
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing required columns: " + missing);
+        }
+        return new ImportColumns(positions, categoryIds);
+    }
+
+    /**
+     * The request for one data row. Bean validation is left to the caller;
+     * this only rejects what cannot be parsed or looked up.
+     *
+     * @throws IllegalArgumentException naming the offending field
+     */
+    CreateTransactionRequest toRequest(String[] row) {
+        String category = get(row, Field.CATEGORY);
+        Long categoryId = category == null ? null : categoryIds.get(category.toLowerCase(Locale.ROOT));
+        if (category != null && categoryId == null) {
+            throw new IllegalArgumentException("Category not found: " + category);
+        }
+        String currency = get(row, Field.CURRENCY);
+        String tags = get(row, Field.TAGS);
+        return CreateTransactionRequest.builder()
+                .transactionDate(date(get(row, Field.DATE)))
+                .transactionType(type(get(row, Field.TYPE)))
+                .originalAmount(decimal(Field.AMOUNT, get(row, Field.AMOUNT)))
+                .originalCurrency(currency == null ? "KRW" : currency.toUpperCase(Locale.ROOT))
+                .conversionRate(decimal(Field.CONVERSION_RATE, get(row, Field.CONVERSION_RATE)))
+                .categoryId(categoryId)
+                .memo(get(row, Field.MEMO))
+                .tagNames(tags == null ? null : Arrays.stream(tags.split(","))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+
+    /** The trimmed cell of {@code field}, or null if it is absent or blank. */
+    private String get(String[] row, Field field) {
+        Integer position = positions.get(field);
+        if (position == null || position >= row.length || row[position] == null) {
+            return null;
+        }
+        String value = row[position].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** ISO dates, also written with single digits or with '.' or '/' separators as bank statements do. */
+    private static LocalDate date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.replace('.', '-').replace('/', '-'), DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date: not a date: " + value);
+        }
+    }
+
+    private static TransactionType type(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toUpperCase(Locale.ROOT)) {
+            case "INCOME", "수입" -> TransactionType.INCOME;
+            case "EXPENSE", "지출" -> TransactionType.EXPENSE;
+            default -> throw new IllegalArgumentException("type: must be INCOME or EXPENSE: " + value);
+        };
+    }
+
+    /** A plain decimal; thousands separators are dropped. */
+    private static BigDecimal decimal(Field field, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field.name().toLowerCase(Locale.ROOT) + ": not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchItemResultDTO;
+import com.cashlog.dto.response.BatchResultDTO;
+import com.cashlog.dto.response.ImportErrorDTO;
+import com.cashlog.dto.response.ImportResultDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.repository.CategoryRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Service;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Imports transactions from a CSV or XLSX file (see {@link ImportColumns} for
+ * the columns) as a pipeline: one thread streams rows off the file in
+ * chunks, workers parse and validate the chunks, and the calling thread
+ * creates each chunk through {@link TransactionService#createTransactions},
+ * one database transaction per chunk. The queues between the stages are
+ * bounded, so however large the file, only a fixed number of chunks is in
+ * memory at a time.
+ *
+ * <p>Not transactional itself: committing chunk by chunk is what keeps the
+ * persistence context small, and rows committed before a failure stay.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+
+    /** Rows handed to a worker and created together. */
+    static final int CHUNK_SIZE = 1_000;
+    /** Rejections listed in the report; the counts go on past it. */
+    static final int MAX_REPORTED_ERRORS = 1_000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private final TransactionService transactionService;
+    private final CategoryRepository categoryRepository;
+    private final Validator validator;
+    private final ExecutorService importExecutor;
+
+    /**
+     * @param filename picks the format by its {@code .csv} or {@code .xlsx} extension
+     * @throws IllegalArgumentException for any other extension, or when the
+     *                                  header row is missing or lacks a required column
+     */
+    public ImportResultDTO importFile(String filename, InputStream content) throws IOException {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new Pipeline().run(sink -> readCsv(content, sink));
+        }
+        if (name.endsWith(".xlsx")) {
+            // A zip is indexed at its end, so POI needs random access to read
+            // one entry at a time; from a stream it would inflate them all.
+            Path copy = Files.createTempFile("cashlog-import-", ".xlsx");
+            try {
+                Files.copy(content, copy, StandardCopyOption.REPLACE_EXISTING);
+                return new Pipeline().run(sink -> readXlsx(copy, sink));
+            } finally {
+                Files.deleteIfExists(copy);
+            }
+        }
+        throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+    }
+
+    private static void readCsv(InputStream content, RowSink sink) throws Exception {
+        // Without verifyReader(false) a failed read looks like the end of the file.
+        try (CSVReader csv = new CSVReaderBuilder(new InputStreamReader(content, StandardCharsets.UTF_8))
+                .withVerifyReader(false)
+                .build()) {
+            long line = 1;
+            String[] cells;
+            while ((cells = csv.readNext()) != null) {
+                sink.accept(line, cells);
+                line = csv.getLinesRead() + 1;
+            }
+        }
+    }
+
+    /**
+     * Reads the first sheet with the SAX event API, never building the
+     * workbook in memory; its shared strings go to temp files as well.
+     */
+    private static void readXlsx(Path file, RowSink sink) throws Exception {
+        OPCPackage workbook = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(workbook);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (TempFileSharedStrings strings = new TempFileSharedStrings(workbook)) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                        strings, new SheetRows(sink), new CellFormatter(), false));
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } finally {
+            workbook.revert();
+        }
+    }
+
+    /** A file read row by row into a {@link RowSink}. */
+    @FunctionalInterface
+    private interface RowSource {
+        void read(RowSink sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        /** @param line the 1-based line (CSV) or row (XLSX) the cells start on */
+        void accept(long line, String[] cells) throws InterruptedException;
+    }
+
+    /** Consecutive data rows; a worker fills in a request or an error for each. */
+    private static final class Chunk {
+
+        static final Chunk END = new Chunk();
+
+        final long[] lines = new long[CHUNK_SIZE];
+        final String[][] rows = new String[CHUNK_SIZE][];
+        final CreateTransactionRequest[] requests = new CreateTransactionRequest[CHUNK_SIZE];
+        final String[] errors = new String[CHUNK_SIZE];
+        int size;
+
+        void add(long line, String[] row) {
+            lines[size] = line;
+            rows[size++] = row;
+        }
+    }
+
+    /** The state of one import, shared by its reader, workers and writer. */
+    private class Pipeline {
+
+        private final BlockingQueue<Chunk> read = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final CompletableFuture<ImportColumns> columns = new CompletableFuture<>();
+        private final Map<String, Long> categoryIds = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(c -> c.getName().toLowerCase(Locale.ROOT), Category::getId, (a, b) -> a));
+        private volatile ImportErrorDTO readError;
+
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long rows;
+        private long created;
+        private long rejected;
+
+        ImportResultDTO run(RowSource source) {
+            long start = System.nanoTime();
+            List<Future<?>> tasks = new ArrayList<>();
+            try {
+                tasks.add(importExecutor.submit(() -> read(source)));
+                ImportColumns header = header();
+                List<Future<?>> workers = new ArrayList<>();
+                for (int i = 0; i < WORKERS; i++) {
+                    workers.add(importExecutor.submit(() -> parse(header)));
+                }
+                tasks.addAll(workers);
+                write();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Import failed", e.getCause());
+            } finally {
+                tasks.forEach(task -> task.cancel(true));
+            }
+
+            if (readError != null) {
+                errors.add(readError);
+            }
+            errors.sort(Comparator.comparingLong(ImportErrorDTO::getLine));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Imported {} of {} rows in {} ms", created, rows, elapsedMillis);
+            return ImportResultDTO.builder()
+                    .rows(rows)
+                    .created(created)
+                    .rejected(rejected)
+                    .complete(readError == null)
+                    .elapsedMillis(elapsedMillis)
+                    .errors(errors)
+                    .build();
+        }
+
+        private ImportColumns header() throws InterruptedException {
+            try {
+                return columns.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException invalid) {
+                    throw invalid;
+                }
+                throw new IllegalArgumentException("Could not read the file: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        /**
+         * Reader: the first non-blank row is the header, the rest go to the
+         * workers in chunks. A failure past the header ends the import early
+         * with what was read so far.
+         */
+        private Void read(RowSource source) throws InterruptedException {
+            Chunker chunker = new Chunker();
+            try {
+                source.read(chunker);
+            } catch (InterruptedException | CancellationException e) {
+                return null;
+            } catch (Exception e) {
+                if (columns.completeExceptionally(e)) {
+                    return null;
+                }
+                log.warn("Import stopped after line {}", chunker.line, e);
+                readError = ImportErrorDTO.builder()
+                        .line(chunker.line + 1)
+                        .error("Could not read the file: " + e.getMessage())
+                        .build();
+            }
+            if (columns.completeExceptionally(new IllegalArgumentException("The file has no header row"))) {
+                return null;
+            }
+            chunker.finish();
+            return null;
+        }
+
+        /** Worker: parses and validates chunks until the reader is done. */
+        private Void parse(ImportColumns header) throws InterruptedException {
+            try {
+                for (Chunk chunk = read.take(); chunk != Chunk.END; chunk = read.take()) {
+                    for (int i = 0; i < chunk.size; i++) {
+                        try {
+                            CreateTransactionRequest request = header.toRequest(chunk.rows[i]);
+                            Set<ConstraintViolation<CreateTransactionRequest>> violations = validator.validate(request);
+                            if (violations.isEmpty()) {
+                                chunk.requests[i] = request;
+                            } else {
+                                chunk.errors[i] = TransactionService.describe(violations);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            chunk.errors[i] = e.getMessage();
+                        }
+                        chunk.rows[i] = null;
+                    }
+                    parsed.put(chunk);
+                }
+                // Leave the end marker for the other workers.
+                read.put(Chunk.END);
+            } finally {
+                parsed.put(Chunk.END);
+            }
+            return null;
+        }
+
+        /** Writer: creates the valid rows of each parsed chunk in one batch. */
+        private void write() throws InterruptedException {
+            long nextProgress = PROGRESS_INTERVAL;
+            for (int ended = 0; ended < WORKERS; ) {
+                Chunk chunk = parsed.take();
+                if (chunk == Chunk.END) {
+                    ended++;
+                    continue;
+                }
+                List<CreateTransactionRequest> requests = new ArrayList<>(chunk.size);
+                List<Long> lines = new ArrayList<>(chunk.size);
+                for (int i = 0; i < chunk.size; i++) {
+                    if (chunk.requests[i] != null) {
+                        requests.add(chunk.requests[i]);
+                        lines.add(chunk.lines[i]);
+                    } else {
+                        reject(chunk.lines[i], chunk.errors[i]);
+                    }
+                }
+                if (!requests.isEmpty()) {
+                    BatchResultDTO result = transactionService.createTransactions(requests);
+                    created += result.getCreated();
+                    for (BatchItemResultDTO item : result.getResults()) {
+                        if (item.getStatus() == BatchItemResultDTO.Status.REJECTED) {
+                            reject(lines.get(item.getIndex()), item.getError());
+                        }
+                    }
+                }
+                rows += chunk.size;
+                if (rows >= nextProgress) {
+                    log.info("Import progress: {} rows read, {} created, {} rejected", rows, created, rejected);
+                    nextProgress += PROGRESS_INTERVAL;
+                }
+            }
+        }
+
+        private void reject(long line, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ImportErrorDTO.builder().line(line).error(error).build());
+            }
+        }
+
+        /** Cuts the rows read into chunks for the workers. */
+        private class Chunker implements RowSink {
+
+            private Chunk chunk = new Chunk();
+            private long line;
+
+            @Override
+            public void accept(long line, String[] cells) throws InterruptedException {
+                this.line = line;
+                if (Arrays.stream(cells).allMatch(cell -> cell == null || cell.isBlank())) {
+                    return;
+                }
+                if (!columns.isDone()) {
+                    columns.complete(ImportColumns.of(cells, categoryIds));
+                    return;
+                }
+                chunk.add(line, cells);
+                if (chunk.size == CHUNK_SIZE) {
+                    read.put(chunk);
+                    chunk = new Chunk();
+                }
+            }
+
+            void finish() throws InterruptedException {
+                if (chunk.size > 0) {
+                    read.put(chunk);
+                }
+                read.put(Chunk.END);
+            }
+        }
+    }
+
+    /** Collects the cells of each sheet row, leaving gaps for the cells the file omits. */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowSink sink;
+        private final List<String> cells = new ArrayList<>();
+
+        SheetRows(RowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String reference, String value, XSSFComment comment) {
+            int column = reference == null ? cells.size() : new CellReference(reference).getCol();
+            while (cells.size() < column) {
+                cells.add(null);
+            }
+            cells.add(value);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            try {
+                sink.accept(rowNum + 1L, cells.toArray(String[]::new));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+    }
+
+    /**
+     * Formats date cells as ISO dates and other numbers in full, whatever
+     * their display format, so "12,000" or "3/1/24" on screen reach
+     * {@link ImportColumns} as "12000" and "2024-03-01". Not thread-safe; one
+     * per import.
+     */
+    private static final class CellFormatter extends DataFormatter {
+
+        CellFormatter() {
+            super(Locale.ROOT);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return NumberToTextConverter.toText(value);
+        }
+    }
+}
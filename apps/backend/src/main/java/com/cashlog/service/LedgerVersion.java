@@ -0,0 +1,67 @@
+package com.cashlog.service;
+
+import com.cashlog.event.CategoryChangedEvent;
+import com.cashlog.event.RollupRebuiltEvent;
+import com.cashlog.event.TagChangedEvent;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts writes to anything analytics reads, so a reader that fans out over
+ * several connections can tell whether they all saw the same committed state.
+ *
+ * <p>A write is counted as begun just before its transaction commits and as
+ * finished once it has completed, which is after the after-commit listeners
+ * that refresh the cache and the columnar ledger. A write that rolls back
+ * before committing is not counted at all. A reader takes
+ * {@link #stableVersion()} before its queries and checks
+ * {@link #unchangedSince(long)} afterwards; if no write began in between,
+ * every query saw the same data.
+ */
+@Component
+public class LedgerVersion {
+
+    private final AtomicLong begun = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+
+    @EventListener(classes = {
+            TransactionChangedEvent.class, TransactionsBulkChangedEvent.class, CategoryChangedEvent.class,
+            TagChangedEvent.class, RollupRebuiltEvent.class})
+    public void onWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                begun.incrementAndGet();
+                counted = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (counted) {
+                    finished.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /** The current version, or -1 while a write is between commit and completion. */
+    public long stableVersion() {
+        long done = finished.get();
+        return begun.get() == done ? done : -1;
+    }
+
+    public boolean unchangedSince(long version) {
+        return version >= 0 && begun.get() == version;
+    }
+}
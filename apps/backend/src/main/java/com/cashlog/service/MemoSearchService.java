@@ -0,0 +1,138 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionMemoGramRepository;
+import com.cashlog.specification.MemoGrams;
+import com.cashlog.specification.TransactionSpecifications;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Maintains the memo search index ({@code transaction_memo_gram}, see
+ * {@link MemoGrams}) and turns a {@code q} filter into a
+ * {@link Specification}. Writers call {@link #index}/{@link #reindex} (or
+ * {@link #indexAll} for a batch) from inside their own transaction, so the
+ * postings commit or roll back with the memo they describe.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemoSearchService {
+
+    static final int MAX_QUERY_WORDS = 10;
+    /** Postings sent per insert statement. */
+    private static final int INSERT_CHUNK = 10_000;
+    /** Postings read per gram when looking for a word's rarest gram. */
+    private static final int FREQUENCY_PROBE = 500;
+
+    private final TransactionMemoGramRepository memoGramRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void index(Transaction transaction) {
+        indexAll(List.of(transaction));
+    }
+
+    /** Same as calling {@link #index} for each row, in as few statements as the postings allow. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void indexAll(Collection<Transaction> transactions) {
+        Postings postings = new Postings();
+        transactions.forEach(transaction -> postings.add(transaction.getId(), transaction.getMemo()));
+        postings.flush();
+    }
+
+    /** Replaces the postings of a row whose memo has changed. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reindex(Transaction transaction) {
+        memoGramRepository.deleteByTransactionId(transaction.getId());
+        index(transaction);
+    }
+
+    /**
+     * The {@code q} filter: transactions mentioning every word of {@code q},
+     * each in their memo or in the name of their category or of one of their
+     * tags. Null when {@code q} has no words, i.e. no filter.
+     */
+    public Specification<Transaction> matching(String q) {
+        List<String> words = MemoGrams.words(q);
+        if (words.isEmpty()) {
+            return null;
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            throw new IllegalArgumentException("q must not have more than " + MAX_QUERY_WORDS + " words");
+        }
+        List<Category> categories = categoryRepository.findAll();
+        List<Tag> tags = tagRepository.findAll();
+        return Specification.allOf(words.stream()
+                .map(word -> TransactionSpecifications.mentions(word, rarestGram(word),
+                        idsNaming(categories, Category::getId, Category::getName, word),
+                        idsNaming(tags, Tag::getId, Tag::getName, word)))
+                .toList());
+    }
+
+    /**
+     * The gram of {@code word} with the fewest postings, counting at most
+     * {@link #FREQUENCY_PROBE} of each; null for a single character. Rows are
+     * looked up by this gram alone, so a word made of common grams around one
+     * rare one only ever reads the rare one's postings.
+     */
+    private String rarestGram(String word) {
+        String rarest = null;
+        int fewest = Integer.MAX_VALUE;
+        for (String gram : MemoGrams.query(word)) {
+            int postings = memoGramRepository.findTransactionIds(gram, Limit.of(FREQUENCY_PROBE)).size();
+            if (postings < fewest) {
+                rarest = gram;
+                fewest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    private static <T> List<Long> idsNaming(List<T> items, Function<T, Long> id, Function<T, String> name, String word) {
+        return items.stream()
+                .filter(item -> name.apply(item).toLowerCase(Locale.ROOT).contains(word))
+                .map(id)
+                .toList();
+    }
+
+    /** Postings collected for {@link TransactionMemoGramRepository#insertAll}, sent in chunks. */
+    private class Postings {
+
+        private final List<String> grams = new ArrayList<>();
+        private final List<Long> transactionIds = new ArrayList<>();
+
+        void add(Long transactionId, String memo) {
+            for (String gram : MemoGrams.index(memo)) {
+                grams.add(gram);
+                transactionIds.add(transactionId);
+                if (grams.size() == INSERT_CHUNK) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (!grams.isEmpty()) {
+                memoGramRepository.insertAll(grams.toArray(String[]::new), transactionIds.toArray(Long[]::new));
+                grams.clear();
+                transactionIds.clear();
+            }
+        }
+    }
+}
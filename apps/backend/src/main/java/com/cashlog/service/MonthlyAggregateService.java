@@ -0,0 +1,243 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.RollupDriftDTO;
+import com.cashlog.dto.response.RollupVerificationDTO;
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.entity.MonthlyBalance;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.RollupRebuiltEvent;
+import com.cashlog.repository.MonthlyAggregateRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maintains the {@code monthly_aggregate} rollup and the
+ * {@code monthly_balance} running-balance checkpoints. Writers call
+ * {@link #add}/{@link #subtract} (or {@link #addAll} for a batch) from inside
+ * their own transaction, so both commit or roll back together with the ledger
+ * row they describe. Each of them first takes the checkpoint lock, which is
+ * held until that transaction ends: a checkpoint's opening balance and the
+ * shifts of later months are only correct when no other writer moves them
+ * in between.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MonthlyAggregateService {
+
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtract(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    /**
+     * Same as calling {@link #add} for each row, but sums the rows per bucket
+     * and per month first, so a batch costs one statement per touched bucket
+     * and two per touched month instead of four per row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Collection<Transaction> transactions) {
+        Map<MonthlyAggregate.Key, BigDecimal> amounts = new HashMap<>();
+        Map<MonthlyAggregate.Key, Long> counts = new HashMap<>();
+        SortedMap<Integer, BigDecimal> netByMonth = new TreeMap<>();
+        monthlyBalanceRepository.lockCheckpoints();
+        for (Transaction transaction : transactions) {
+            int monthKey = MonthlyAggregate.monthKey(transaction.getTransactionDate());
+            TransactionType type = transaction.getTransactionType();
+            BigDecimal amount = transaction.getAmountKrw();
+            MonthlyAggregate.Key key = new MonthlyAggregate.Key(monthKey, type, transaction.getCategory().getId());
+            amounts.merge(key, amount, BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+            netByMonth.merge(monthKey, type == TransactionType.INCOME ? amount : amount.negate(), BigDecimal::add);
+        }
+
+        amounts.forEach((key, amount) -> monthlyAggregateRepository.applyDelta(key.getMonthKey(),
+                key.getTransactionType().name(), key.getCategoryId(), amount, counts.get(key)));
+        // Oldest month first, so each new checkpoint opens from a balance
+        // that already includes the earlier months of the batch.
+        netByMonth.forEach((monthKey, net) -> {
+            monthlyBalanceRepository.insertIfAbsent(monthKey);
+            monthlyBalanceRepository.shiftFrom(monthKey, net);
+        });
+    }
+
+    /**
+     * Set-based {@link #subtract} for the rows {@code ids}, called before they
+     * are deleted: one grouped statement for the rollup and one for the
+     * balance checkpoints, whatever the number of rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtractAll(Long[] ids) {
+        monthlyBalanceRepository.lockCheckpoints();
+        monthlyAggregateRepository.applyDeltasOf(ids, null, -1);
+        monthlyAggregateRepository.deleteAllEmpty();
+        monthlyBalanceRepository.subtractNetOf(ids);
+    }
+
+    /**
+     * Moves the rows {@code ids} from their buckets to those of
+     * {@code categoryId}; called before their category is changed. Their
+     * months' net is unchanged, so the checkpoints are left alone, but the
+     * lock is still taken: it also orders the writers of monthly_aggregate.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recategorizeAll(Long[] ids, Long categoryId) {
+        monthlyBalanceRepository.lockCheckpoints();
+        monthlyAggregateRepository.applyDeltasOf(ids, null, -1);
+        monthlyAggregateRepository.applyDeltasOf(ids, categoryId, 1);
+        monthlyAggregateRepository.deleteAllEmpty();
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        int monthKey = MonthlyAggregate.monthKey(transaction.getTransactionDate());
+        TransactionType type = transaction.getTransactionType();
+        Long categoryId = transaction.getCategory().getId();
+        BigDecimal amount = sign > 0 ? transaction.getAmountKrw() : transaction.getAmountKrw().negate();
+
+        monthlyBalanceRepository.lockCheckpoints();
+        monthlyAggregateRepository.applyDelta(monthKey, type.name(), categoryId, amount, sign);
+        if (sign < 0) {
+            monthlyAggregateRepository.deleteIfEmpty(monthKey, type, categoryId);
+        }
+
+        monthlyBalanceRepository.insertIfAbsent(monthKey);
+        monthlyBalanceRepository.shiftFrom(monthKey, type == TransactionType.INCOME ? amount : amount.negate());
+    }
+
+    /**
+     * Recomputes every bucket and balance checkpoint from the raw rows and
+     * reports the ones that drifted.
+     */
+    public RollupVerificationDTO verify() {
+        Map<MonthlyAggregate.Key, MonthlyAggregate> expected = new HashMap<>();
+        for (Object[] row : transactionRepository.aggregateByMonthTypeAndCategory()) {
+            int monthKey = ((Number) row[0]).intValue() * 100 + ((Number) row[1]).intValue();
+            MonthlyAggregate bucket = MonthlyAggregate.builder()
+                    .monthKey(monthKey)
+                    .transactionType((TransactionType) row[2])
+                    .categoryId((Long) row[3])
+                    .totalAmount((BigDecimal) row[4])
+                    .transactionCount(((Number) row[5]).longValue())
+                    .build();
+            expected.put(keyOf(bucket), bucket);
+        }
+
+        Map<MonthlyAggregate.Key, MonthlyAggregate> actual = new HashMap<>();
+        for (MonthlyAggregate bucket : monthlyAggregateRepository.findAll()) {
+            actual.put(keyOf(bucket), bucket);
+        }
+
+        Set<MonthlyAggregate.Key> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<RollupDriftDTO> drift = new ArrayList<>();
+        for (MonthlyAggregate.Key key : keys) {
+            MonthlyAggregate want = expected.get(key);
+            MonthlyAggregate have = actual.get(key);
+            BigDecimal wantAmount = want != null ? want.getTotalAmount() : BigDecimal.ZERO;
+            BigDecimal haveAmount = have != null ? have.getTotalAmount() : BigDecimal.ZERO;
+            long wantCount = want != null ? want.getTransactionCount() : 0L;
+            long haveCount = have != null ? have.getTransactionCount() : 0L;
+            if (wantAmount.compareTo(haveAmount) != 0 || wantCount != haveCount) {
+                drift.add(RollupDriftDTO.builder()
+                        .month(MonthlyAggregate.toYearMonth(key.getMonthKey()).toString())
+                        .transactionType(key.getTransactionType())
+                        .categoryId(key.getCategoryId())
+                        .expectedAmount(wantAmount)
+                        .actualAmount(haveAmount)
+                        .expectedCount(wantCount)
+                        .actualCount(haveCount)
+                        .build());
+            }
+        }
+        drift.sort((a, b) -> a.getMonth().compareTo(b.getMonth()));
+
+        // Each checkpoint must hold the running net up to its month; a month
+        // with rows must have one.
+        SortedMap<Integer, BigDecimal> netByMonth = new TreeMap<>();
+        for (MonthlyAggregate bucket : expected.values()) {
+            BigDecimal amount = bucket.getTotalAmount();
+            netByMonth.merge(bucket.getMonthKey(),
+                    bucket.getTransactionType() == TransactionType.INCOME ? amount : amount.negate(), BigDecimal::add);
+        }
+        SortedMap<Integer, BigDecimal> checkpoints = new TreeMap<>();
+        for (MonthlyBalance checkpoint : monthlyBalanceRepository.findAll()) {
+            checkpoints.put(checkpoint.getMonthKey(), checkpoint.getCumulativeNet());
+        }
+        SortedSet<Integer> months = new TreeSet<>(netByMonth.keySet());
+        months.addAll(checkpoints.keySet());
+        int driftedCheckpoints = 0;
+        BigDecimal runningNet = BigDecimal.ZERO;
+        for (int monthKey : months) {
+            runningNet = runningNet.add(netByMonth.getOrDefault(monthKey, BigDecimal.ZERO));
+            BigDecimal have = checkpoints.get(monthKey);
+            if (have == null || have.compareTo(runningNet) != 0) {
+                driftedCheckpoints++;
+            }
+        }
+
+        return RollupVerificationDTO.builder()
+                .bucketsChecked(keys.size())
+                .driftedBuckets(drift.size())
+                .checkpointsChecked(months.size())
+                .driftedCheckpoints(driftedCheckpoints)
+                .rebuilt(false)
+                .drift(drift)
+                .build();
+    }
+
+    /**
+     * Throws away the rollup and the balance checkpoints and recomputes them
+     * from the raw rows. Returns the rollup drift that existed before the
+     * rebuild.
+     */
+    @Transactional
+    public RollupVerificationDTO rebuild() {
+        monthlyBalanceRepository.lockCheckpoints();
+        RollupVerificationDTO report = verify();
+        monthlyAggregateRepository.deleteAllBuckets();
+        int buckets = monthlyAggregateRepository.insertAllFromTransactions();
+        monthlyBalanceRepository.deleteAllCheckpoints();
+        monthlyBalanceRepository.insertAllFromAggregates();
+        log.info("Rebuilt monthly rollup: {} buckets, {} had drifted, {} balance checkpoints had drifted",
+                buckets, report.getDriftedBuckets(), report.getDriftedCheckpoints());
+        eventPublisher.publishEvent(new RollupRebuiltEvent());
+        report.setRebuilt(true);
+        return report;
+    }
+
+    private static MonthlyAggregate.Key keyOf(MonthlyAggregate bucket) {
+        return new MonthlyAggregate.Key(bucket.getMonthKey(), bucket.getTransactionType(), bucket.getCategoryId());
+    }
+}
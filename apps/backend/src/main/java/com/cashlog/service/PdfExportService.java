@@ -1,64 +1,364 @@
 package com.cashlog.service;
 
-import com.cashlog.entity.Transaction;
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.MonthlyAggregateRepository;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.repository.projection.ExportRow;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
-import lombok.RequiredArgsConstructor;
+import com.itextpdf.layout.properties.UnitValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
 
+/**
+ * Renders the transaction report PDF straight into the caller's stream. The
+ * row table is an iText large table, flushed every {@link #FLUSH_ROWS} rows,
+ * so finished rows are laid out, written and dropped instead of being held
+ * until the table is complete. A flush lays out all rows added since the
+ * last one together, which costs more than linearly in their number, so
+ * short batches are faster as well as smaller. Per-category subtotals are
+ * summed while the rows are written and close the report.
+ *
+ * <p>A range of more than {@code partRows} transactions (counted from the
+ * monthly rollup) is split at month boundaries into parts of about that
+ * size. The parts are rendered in parallel on {@code pdfExportExecutor}
+ * into temp files and, once all are done, merged in order, each part's
+ * pages being written out as soon as it is merged.
+ *
+ * <p>Not transactional itself: each part streams its rows in its own
+ * read-only transaction, on whichever thread renders it. As in
+ * {@link DashboardService}, {@link LedgerVersion} tells whether a write
+ * committed while they ran; if so the parts are discarded before anything
+ * is written and rendered again, and after {@link #MAX_ATTEMPTS} collisions
+ * the report is rendered as one document from a single statement instead.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class PdfExportService {
-    
+
+    static final int FLUSH_ROWS = 25;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long WRITE_SETTLE_NANOS = 1_000_000;
+    private static final float[] COLUMN_WIDTHS = {2, 2, 2, 2, 3};
+
     private final TransactionRepository transactionRepository;
-    
-    public byte[] exportToPdf(LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(out);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-            
-            document.add(new Paragraph("Transaction Report")
-                    .setFontSize(20)
-                    .setBold());
-            document.add(new Paragraph("Period: " + startDate + " to " + endDate)
-                    .setFontSize(12));
-            document.add(new Paragraph("\n"));
-            
-            float[] columnWidths = {2, 2, 2, 2, 3};
-            Table table = new Table(columnWidths);
-            table.addHeaderCell("Date");
-            table.addHeaderCell("Type");
-            table.addHeaderCell("Amount (KRW)");
-            table.addHeaderCell("Tags");
-            table.addHeaderCell("Memo");
-            
-            for (Transaction t : transactions) {
-                table.addCell(t.getTransactionDate().toString());
-                table.addCell(t.getTransactionType().toString());
-                table.addCell(t.getAmountKrw().toString());
-                table.addCell(t.getTags().stream().map(tag -> tag.getName()).collect(java.util.stream.Collectors.joining(", ")));
-                table.addCell(t.getMemo() != null ? t.getMemo() : "");
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final ExecutorService pdfExportExecutor;
+    private final LedgerVersion ledgerVersion;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int partRows;
+
+    public PdfExportService(TransactionRepository transactionRepository,
+                            MonthlyAggregateRepository monthlyAggregateRepository,
+                            ExecutorService pdfExportExecutor,
+                            LedgerVersion ledgerVersion,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.export.pdf.part-rows:20000}") int partRows) {
+        this.transactionRepository = transactionRepository;
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+        this.pdfExportExecutor = pdfExportExecutor;
+        this.ledgerVersion = ledgerVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.partRows = partRows;
+    }
+
+    /** A slice of the report's range; parts are ordered newest first, like the rows. */
+    record Part(LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record RenderedPart(Path file, Subtotals subtotals) {
+    }
+
+    public void writePdf(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        writePdf(startDate, endDate, out, new LongAdder());
+    }
+
+    /**
+     * {@link #writePdf} that counts each row laid out into {@code rowsWritten};
+     * the parts of a large report count into it concurrently.
+     */
+    public void writePdf(LocalDate startDate, LocalDate endDate, OutputStream out, LongAdder rowsWritten)
+            throws IOException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long version = ledgerVersion.stableVersion();
+            if (version < 0) {
+                // A commit is in flight; it completes within moments.
+                LockSupport.parkNanos(WRITE_SETTLE_NANOS);
+                continue;
+            }
+            List<Part> parts = planParts(startDate, endDate);
+            if (parts.size() == 1) {
+                writeDocument(new Part(startDate, endDate), out, rowsWritten);
+                return;
+            }
+            if (writeParts(parts, startDate, endDate, out, rowsWritten, version)) {
+                return;
+            }
+        }
+
+        log.debug("Ledger changed during {} PDF export attempts; rendering {}..{} in one pass",
+                MAX_ATTEMPTS, startDate, endDate);
+        writeDocument(new Part(startDate, endDate), out, rowsWritten);
+    }
+
+    /** The report as one document, its rows read by a single statement. */
+    private void writeDocument(Part part, OutputStream out, LongAdder rowsWritten) {
+        Subtotals subtotals = new Subtotals();
+        try (Document document = new Document(new PdfDocument(writerKeepingOpen(out)))) {
+            addTitle(document, part.startDate(), part.endDate());
+            addRows(document, part, subtotals, rowsWritten::increment);
+            addSubtotals(document, subtotals);
+        }
+    }
+
+    /**
+     * Renders {@code parts} in parallel and merges them into {@code out}, or
+     * writes nothing and returns false if the ledger moved past
+     * {@code version} while they were read.
+     */
+    private boolean writeParts(List<Part> parts, LocalDate startDate, LocalDate endDate, OutputStream out,
+                               LongAdder rowsWritten, long version) throws IOException {
+        long started = System.nanoTime();
+        LongAdder counted = new LongAdder();
+        Runnable onRow = () -> {
+            rowsWritten.increment();
+            counted.increment();
+        };
+        List<Future<RenderedPart>> tasks = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            boolean first = i == 0;
+            tasks.add(pdfExportExecutor.submit(() -> render(part, first ? startDate : null, endDate, onRow)));
+        }
+        try {
+            List<RenderedPart> rendered = new ArrayList<>();
+            for (Future<RenderedPart> task : tasks) {
+                rendered.add(task.get());
+            }
+            if (!ledgerVersion.unchangedSince(version)) {
+                rowsWritten.add(-counted.sum());
+                return false;
+            }
+
+            try (PdfDocument merged = new PdfDocument(writerKeepingOpen(out))) {
+                PdfMerger merger = new PdfMerger(merged);
+                Subtotals subtotals = new Subtotals();
+                for (RenderedPart part : rendered) {
+                    try (PdfDocument source = new PdfDocument(new PdfReader(part.file().toFile()))) {
+                        append(merger, merged, source);
+                    } finally {
+                        Files.deleteIfExists(part.file());
+                    }
+                    subtotals.addAll(part.subtotals());
+                }
+
+                ByteArrayOutputStream summary = new ByteArrayOutputStream();
+                try (Document document = new Document(new PdfDocument(new PdfWriter(summary)))) {
+                    addSubtotals(document, subtotals);
+                }
+                try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(summary.toByteArray())))) {
+                    append(merger, merged, source);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PDF export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("PDF export failed", e.getCause());
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+            for (Future<RenderedPart> task : tasks) {
+                if (task.state() == Future.State.SUCCESS) {
+                    Files.deleteIfExists(task.resultNow().file());
+                }
+            }
+        }
+        log.info("Rendered PDF export {}..{} in {} parts in {} ms", startDate, endDate, parts.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Splits the range at month boundaries into parts of at least
+     * {@code partRows} transactions each, the oldest part taking the rest.
+     */
+    List<Part> planParts(LocalDate startDate, LocalDate endDate) {
+        List<Part> parts = new ArrayList<>();
+        LocalDate partEnd = endDate;
+        long rows = 0;
+        for (Object[] month : monthlyAggregateRepository.countByMonthDescending(
+                MonthlyAggregate.monthKey(startDate), MonthlyAggregate.monthKey(endDate))) {
+            rows += ((Number) month[1]).longValue();
+            LocalDate monthStart = MonthlyAggregate.toYearMonth(((Number) month[0]).intValue()).atDay(1);
+            if (rows >= partRows && monthStart.isAfter(startDate)) {
+                parts.add(new Part(monthStart, partEnd));
+                partEnd = monthStart.minusDays(1);
+                rows = 0;
             }
-            
-            document.add(table);
-            document.close();
-            
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export PDF", e);
+        }
+        if (rows > 0 || parts.isEmpty()) {
+            parts.add(new Part(startDate, partEnd));
+        } else {
+            // The months left over hold no rows; the last part absorbs them.
+            parts.set(parts.size() - 1, new Part(startDate, parts.get(parts.size() - 1).endDate()));
+        }
+        return parts;
+    }
+
+    /** Renders one part into a temp file; {@code titleStart} is set for the part that opens the report. */
+    private RenderedPart render(Part part, LocalDate titleStart, LocalDate titleEnd, Runnable onRow)
+            throws IOException {
+        Path file = Files.createTempFile("cashlog-report-", ".pdf");
+        Subtotals subtotals = new Subtotals();
+        try (Document document = new Document(new PdfDocument(new PdfWriter(Files.newOutputStream(file))))) {
+            if (titleStart != null) {
+                addTitle(document, titleStart, titleEnd);
+            }
+            addRows(document, part, subtotals, onRow);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new RenderedPart(file, subtotals);
+    }
+
+    private static void append(PdfMerger merger, PdfDocument merged, PdfDocument source) {
+        int firstPage = merged.getNumberOfPages() + 1;
+        merger.merge(source, 1, source.getNumberOfPages());
+        for (int page = firstPage; page <= merged.getNumberOfPages(); page++) {
+            merged.getPage(page).flush(true);
+        }
+    }
+
+    private static PdfWriter writerKeepingOpen(OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        // The response stream belongs to the caller.
+        writer.setCloseStream(false);
+        return writer;
+    }
+
+    private static void addTitle(Document document, LocalDate startDate, LocalDate endDate) {
+        document.add(new Paragraph("Transaction Report")
+                .setFontSize(20)
+                .setBold());
+        document.add(new Paragraph("Period: " + startDate + " to " + endDate)
+                .setFontSize(12));
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addRows(Document document, Part part, Subtotals subtotals, Runnable onRow) {
+        Table table = new Table(UnitValue.createPercentArray(COLUMN_WIDTHS), true).useAllAvailableWidth();
+        table.addHeaderCell("Date");
+        table.addHeaderCell("Type");
+        table.addHeaderCell("Amount (KRW)");
+        table.addHeaderCell("Tags");
+        table.addHeaderCell("Memo");
+        document.add(table);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ExportRow> rows = transactionRepository.streamExportRows(part.startDate(), part.endDate())) {
+                Iterator<ExportRow> it = rows.iterator();
+                for (int written = 1; it.hasNext(); written++) {
+                    ExportRow row = it.next();
+                    table.addCell(row.date().toString());
+                    table.addCell(row.type().toString());
+                    table.addCell(row.amountKrw().toString());
+                    table.addCell(row.tags() != null ? row.tags() : "");
+                    table.addCell(row.memo() != null ? row.memo() : "");
+                    subtotals.add(row);
+                    onRow.run();
+                    if (written % FLUSH_ROWS == 0) {
+                        table.flush();
+                    }
+                }
+            }
+        });
+        table.complete();
+    }
+
+    private static void addSubtotals(Document document, Subtotals subtotals) {
+        document.add(new Paragraph("Subtotals by category")
+                .setFontSize(14)
+                .setBold());
+        Table table = new Table(UnitValue.createPercentArray(new float[] {4, 2, 2, 3})).useAllAvailableWidth();
+        table.addHeaderCell("Category");
+        table.addHeaderCell("Type");
+        table.addHeaderCell("Count");
+        table.addHeaderCell("Amount (KRW)");
+        for (Map.Entry<Subtotals.Key, Subtotals.Sum> entry : subtotals.sorted()) {
+            table.addCell(entry.getKey().category());
+            table.addCell(entry.getKey().type().toString());
+            table.addCell(String.valueOf(entry.getValue().count));
+            table.addCell(entry.getValue().amount.toString());
+        }
+        document.add(table);
+    }
+
+    /** Amount and row count per category and type, summed as the rows go by. */
+    static final class Subtotals {
+
+        record Key(String category, TransactionType type) {
+        }
+
+        static final class Sum {
+            private BigDecimal amount = BigDecimal.ZERO;
+            private long count;
+        }
+
+        private final Map<Key, Sum> sums = new HashMap<>();
+
+        void add(ExportRow row) {
+            Sum sum = sums.computeIfAbsent(new Key(row.category(), row.type()), k -> new Sum());
+            sum.amount = sum.amount.add(row.amountKrw());
+            sum.count++;
+        }
+
+        void addAll(Subtotals other) {
+            other.sums.forEach((key, part) -> {
+                Sum sum = sums.computeIfAbsent(key, k -> new Sum());
+                sum.amount = sum.amount.add(part.amount);
+                sum.count += part.count;
+            });
+        }
+
+        /** Income first, then expenses; the largest categories first within each. */
+        List<Map.Entry<Key, Sum>> sorted() {
+            return sums.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Key, Sum>, TransactionType>comparing(e -> e.getKey().type(),
+                                    Comparator.comparing(type -> type == TransactionType.INCOME ? 0 : 1))
+                            .thenComparing(e -> e.getValue().amount, Comparator.reverseOrder()))
+                    .toList();
         }
     }
 }
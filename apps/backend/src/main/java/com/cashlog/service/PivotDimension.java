@@ -0,0 +1,8 @@
+package com.cashlog.service;
+
+/** Row dimension of {@link AnalyticsService#getPivot}. */
+public enum PivotDimension {
+    CATEGORY,
+    /** A transaction with several tags counts in each of their rows. */
+    TAG
+}
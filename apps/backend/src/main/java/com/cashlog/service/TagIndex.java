@@ -0,0 +1,260 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Tag;
+import com.cashlog.event.TagChangedEvent;
+import com.cashlog.repository.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interning index of tag names: maps a case-normalized name to its tag id so
+ * that resolving the tags of a transaction costs no query once a name has
+ * been seen. Loaded from the tag table at startup.
+ *
+ * <p>A miss looks the name up and, if it is new, creates the tag holding one
+ * of {@link #STRIPES} locks chosen by the normalized name. Misses are only
+ * resolved inside the caller's transaction and the tag is created in it, so
+ * a caller that fails later leaves no tag behind; the stripe is held until
+ * the transaction ends and the id is published only after it commits.
+ * Concurrent requests introducing the same tag therefore create it once even
+ * when they spell it in different cases, and no caller can link to a tag
+ * that another caller's rollback takes away. Stripes are taken in index order and given up after
+ * {@link #LOCK_TIMEOUT}, so two transactions resolving several new tags
+ * cannot wait on each other forever. {@link TagService} takes the same
+ * stripe before it creates or renames a tag, and the tag table keeps names
+ * unique in any case as a last resort.
+ *
+ * <p>Renames and deletes arrive as {@link TagChangedEvent}s after commit and
+ * drop the tag's entry; the next use of its current name re-reads it.
+ */
+@Slf4j
+@Component
+public class TagIndex {
+
+    static final int STRIPES = 64;
+    static final Duration LOCK_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] PALETTE = {
+        "#3B82F6", "#10B981", "#F59E0B", "#EF4444", "#8B5CF6", "#EC4899",
+        "#14B8A6", "#F97316", "#06B6D4", "#84CC16", "#F43F5E", "#A855F7",
+        "#22D3EE", "#FCD34D", "#FB923C", "#4ADE80", "#818CF8", "#F472B6",
+        "#2DD4BF", "#FDE047", "#FB7185", "#C084FC", "#38BDF8", "#BEF264"
+    };
+
+    private final TagRepository tagRepository;
+    private final ConcurrentMap<String, Long> idsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> keysById = new ConcurrentHashMap<>();
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    public TagIndex(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Tag> tags = tagRepository.findAll();
+        // An entry dropped here by a concurrent resolve is only a later miss.
+        idsByKey.clear();
+        keysById.clear();
+        tags.forEach(tag -> register(tag.getId(), key(tag.getName())));
+        log.info("Tag index loaded {} tags", tags.size());
+    }
+
+    /**
+     * The id of the tag named {@code name} (trimmed, any case), creating the
+     * tag if it does not exist yet. Free when the name is already indexed.
+     */
+    public Long resolve(String name) {
+        return resolveAll(List.of(name)).get(key(name));
+    }
+
+    /**
+     * The ids of the tags named {@code names}, keyed by {@link #key}, creating
+     * the ones that do not exist yet under the spelling seen first, in the
+     * current transaction. Blank names are skipped.
+     *
+     * @throws IllegalStateException when a name is not indexed and no
+     *         transaction is active
+     * @throws CannotAcquireLockException when another transaction holds the
+     *         lock of a new name for longer than {@link #LOCK_TIMEOUT}
+     */
+    public Map<String, Long> resolveAll(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        Map<String, String> missing = new TreeMap<>(Comparator.comparingInt(TagIndex::stripeOf)
+                .thenComparing(Comparator.naturalOrder()));
+        for (String name : names) {
+            String trimmed = name == null ? "" : name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String key = key(trimmed);
+            Long id = idsByKey.get(key);
+            if (id != null) {
+                ids.put(key, id);
+            } else if (!ids.containsKey(key)) {
+                missing.putIfAbsent(key, trimmed);
+            }
+        }
+        if (!missing.isEmpty() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("New tags can only be created inside a transaction");
+        }
+        missing.forEach((key, trimmed) -> ids.put(key, create(key, trimmed)));
+        return ids;
+    }
+
+    /**
+     * The ids of those of the tags named {@code names} that exist, keyed by
+     * {@link #key}; unlike {@link #resolveAll} it never creates a tag. Names
+     * the index does not hold are looked up together in one query.
+     */
+    public Map<String, Long> lookupAll(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            String trimmed = name == null ? "" : name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String key = key(trimmed);
+            Long id = idsByKey.get(key);
+            if (id != null) {
+                ids.put(key, id);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            tagRepository.findAllByNameKeyIn(missing).forEach(tag -> ids.put(key(tag.getName()), tag.getId()));
+        }
+        return ids;
+    }
+
+    /**
+     * Holds the lock of {@code name}'s stripe until the current transaction
+     * ends, for {@link TagService} to create or rename a tag to that name
+     * without racing a resolve of it in another case.
+     *
+     * @throws CannotAcquireLockException as {@link #resolveAll}
+     */
+    public void lock(String name) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A tag name can only be locked inside a transaction");
+        }
+        String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        Lock lock = acquire(key(trimmed), trimmed);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private Long create(String key, String trimmed) {
+        Lock lock = acquire(key, trimmed);
+        Long[] created = new Long[1];
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (created[0] != null) {
+                    register(created[0], key);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        Long id = idsByKey.get(key);
+        if (id != null) {
+            return id;
+        }
+        Tag tag = findOrCreate(trimmed);
+        created[0] = tag.getId();
+        return tag.getId();
+    }
+
+    private Lock acquire(String key, String trimmed) {
+        Lock lock = stripes[stripeOf(key)];
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for the lock of tag '" + trimmed + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the lock of tag '" + trimmed + "'", e);
+        }
+        return lock;
+    }
+
+    private Tag findOrCreate(String trimmed) {
+        return tagRepository.findByNameIgnoreCase(trimmed)
+                .orElseGet(() -> tagRepository.saveAndFlush(Tag.builder()
+                        .name(trimmed)
+                        .color(colorFor(trimmed))
+                        .build()));
+    }
+
+    @TransactionalEventListener
+    public void onTagChanged(TagChangedEvent event) {
+        String key = keysById.remove(event.tagId());
+        if (key != null) {
+            idsByKey.remove(key, event.tagId());
+        }
+    }
+
+    /** Number of indexed names. */
+    int size() {
+        return idsByKey.size();
+    }
+
+    private void register(Long id, String key) {
+        idsByKey.put(key, id);
+        keysById.put(id, key);
+    }
+
+    private static int stripeOf(String key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Deterministically maps a tag name to a color in the palette so the same
+     * tag name always gets the same color, instead of a random one on every
+     * (re)creation.
+     */
+    static String colorFor(String name) {
+        return PALETTE[Math.floorMod(name.toLowerCase().hashCode(), PALETTE.length)];
+    }
+}
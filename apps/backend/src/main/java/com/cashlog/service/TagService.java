@@ -3,9 +3,11 @@ package com.cashlog.service;
 import com.cashlog.dto.request.CreateTagRequest;
 import com.cashlog.dto.response.TagDTO;
 import com.cashlog.entity.Tag;
+import com.cashlog.event.TagChangedEvent;
 import com.cashlog.exception.ResourceNotFoundException;
 import com.cashlog.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,10 +20,14 @@ import java.util.stream.Collectors;
 public class TagService {
     
     private final TagRepository tagRepository;
+    private final TagIndex tagIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public TagDTO createTag(CreateTagRequest request) {
         String name = normalize(request.getName());
+        // Serializes with TagIndex creating the same name in another case.
+        tagIndex.lock(name);
         if (tagRepository.existsByNameIgnoreCase(name)) {
             throw new IllegalArgumentException("Tag already exists: " + name);
         }
@@ -47,6 +53,7 @@ public class TagService {
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found: " + id));
 
         String name = normalize(request.getName());
+        tagIndex.lock(name);
         tagRepository.findByNameIgnoreCase(name)
                 .filter(existing -> !existing.getId().equals(id))
                 .ifPresent(existing -> {
@@ -57,6 +64,7 @@ public class TagService {
         tag.setColor(request.getColor());
 
         Tag updated = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(id));
         return toDTO(updated);
     }
     
@@ -66,6 +74,7 @@ public class TagService {
             throw new ResourceNotFoundException("Tag not found: " + id);
         }
         tagRepository.deleteById(id);
+        eventPublisher.publishEvent(new TagChangedEvent(id));
     }
     
     private String normalize(String name) {
@@ -0,0 +1,195 @@
+package com.cashlog.service;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The shared strings of a workbook kept in temp files instead of the heap.
+ * POI's {@code ReadOnlySharedStringsTable} holds every string in a list, and
+ * an export-sized sheet whose memos are all distinct has about as many
+ * strings as rows. Here {@code sharedStrings.xml} is streamed once into a
+ * file of UTF-8 bytes and a file of their offsets, and each lookup reads one
+ * string back. Like the POI table, phonetic runs are left out and rich text
+ * is flattened to its characters.
+ *
+ * <p>Lookups are positional reads, so the sheet parser may use it from any
+ * thread; {@link #close()} deletes the files.
+ */
+final class TempFileSharedStrings extends DefaultHandler implements SharedStrings, Closeable {
+
+    private static final String NS = XSSFRelation.NS_SPREADSHEETML;
+
+    private final Path data;
+    private final Path offsets;
+    private FileChannel dataChannel;
+    private FileChannel offsetChannel;
+
+    /** Set while parsing only. */
+    private DataOutputStream dataOut;
+    private DataOutputStream offsetOut;
+    private final StringBuilder characters = new StringBuilder();
+    private boolean tIsOpen;
+    private boolean inRPh;
+    private long written;
+
+    private int count;
+    private int uniqueCount;
+
+    TempFileSharedStrings(OPCPackage workbook) throws IOException {
+        data = Files.createTempFile("cashlog-import-sst-", ".bin");
+        offsets = Files.createTempFile("cashlog-import-sst-", ".idx");
+        try {
+            List<PackagePart> parts = workbook.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            try (DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(data)));
+                 DataOutputStream offsetOut = new DataOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(offsets)))) {
+                this.dataOut = dataOut;
+                this.offsetOut = offsetOut;
+                offsetOut.writeLong(0);
+                if (!parts.isEmpty()) {
+                    try (InputStream in = parts.get(0).getInputStream()) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(this);
+                        parser.parse(new InputSource(in));
+                    }
+                }
+            } finally {
+                this.dataOut = null;
+                this.offsetOut = null;
+            }
+            dataChannel = FileChannel.open(data, StandardOpenOption.READ);
+            offsetChannel = FileChannel.open(offsets, StandardOpenOption.READ);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new IOException("Cannot read the shared strings", e);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        try {
+            ByteBuffer bounds = ByteBuffer.allocate(2 * Long.BYTES);
+            readFully(offsetChannel, bounds, (long) idx * Long.BYTES);
+            long start = bounds.getLong(0);
+            ByteBuffer string = ByteBuffer.allocate(Math.toIntExact(bounds.getLong(Long.BYTES) - start));
+            readFully(dataChannel, string, start);
+            return new XSSFRichTextString(new String(string.array(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read shared string " + idx, e);
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (dataChannel != null) {
+                dataChannel.close();
+            }
+            if (offsetChannel != null) {
+                offsetChannel.close();
+            }
+        } finally {
+            Files.deleteIfExists(data);
+            Files.deleteIfExists(offsets);
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if (uri != null && !uri.equals(NS)) {
+            return;
+        }
+        switch (localName) {
+            case "sst" -> {
+                count = intAttribute(attributes, "count");
+                uniqueCount = intAttribute(attributes, "uniqueCount");
+            }
+            case "si" -> characters.setLength(0);
+            case "t" -> tIsOpen = true;
+            case "rPh" -> inRPh = true;
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if (uri != null && !uri.equals(NS)) {
+            return;
+        }
+        switch (localName) {
+            case "si" -> append(characters.toString());
+            case "t" -> tIsOpen = false;
+            case "rPh" -> inRPh = false;
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (tIsOpen && !inRPh) {
+            characters.append(ch, start, length);
+        }
+    }
+
+    private void append(String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        try {
+            dataOut.write(bytes);
+            written += bytes.length;
+            offsetOut.writeLong(written);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int intAttribute(Attributes attributes, String name) {
+        String value = attributes.getValue(name);
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Shared strings file ends early");
+            }
+        }
+    }
+}
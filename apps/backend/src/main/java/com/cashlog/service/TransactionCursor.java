@@ -0,0 +1,61 @@
+package com.cashlog.service;
+
+import com.cashlog.specification.TransactionOrder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in one of the {@link TransactionOrder}s of the transaction list:
+ * the last row a client has seen, keyed by the column the list is ordered by
+ * ({@code transactionDate} or {@code amountKrw}, the other being null) and
+ * its id. Sent to clients as an opaque URL-safe token so the encoding can
+ * change without breaking them.
+ */
+public record TransactionCursor(LocalDate transactionDate, BigDecimal amountKrw, Long id) {
+
+    private static final String AMOUNT_PREFIX = "A|";
+
+    /** A position in {@link TransactionOrder#DATE} order. */
+    public TransactionCursor(LocalDate transactionDate, Long id) {
+        this(transactionDate, null, id);
+    }
+
+    /** A position in {@link TransactionOrder#AMOUNT} order. */
+    public static TransactionCursor ofAmount(BigDecimal amountKrw, Long id) {
+        return new TransactionCursor(null, amountKrw, id);
+    }
+
+    public TransactionOrder order() {
+        return amountKrw != null ? TransactionOrder.AMOUNT : TransactionOrder.DATE;
+    }
+
+    public String encode() {
+        // Date positions keep their original "date|id" form, so tokens handed
+        // out before the amount order existed still decode.
+        String raw = amountKrw != null
+                ? AMOUNT_PREFIX + amountKrw.toPlainString() + "|" + id
+                : transactionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException if the token was not produced by {@link #encode()} */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.startsWith(AMOUNT_PREFIX)) {
+                int separator = raw.lastIndexOf('|');
+                return ofAmount(new BigDecimal(raw.substring(AMOUNT_PREFIX.length(), separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            }
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                    LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -1,29 +1,51 @@
 package com.cashlog.service;
 
+import com.cashlog.dto.request.BulkTransactionRequest;
 import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchItemResultDTO;
+import com.cashlog.dto.response.BatchResultDTO;
+import com.cashlog.dto.response.BulkResultDTO;
+import com.cashlog.dto.response.CursorPageResponseDTO;
 import com.cashlog.dto.response.TransactionDTO;
 import com.cashlog.entity.Category;
 import com.cashlog.entity.Tag;
 import com.cashlog.entity.Transaction;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
 import com.cashlog.exception.ResourceNotFoundException;
 import com.cashlog.mapper.TransactionMapper;
 import com.cashlog.repository.CategoryRepository;
 import com.cashlog.repository.TagRepository;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.specification.TagMatch;
+import com.cashlog.specification.TransactionOrder;
 import com.cashlog.specification.TransactionSpecifications;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,17 +57,31 @@ public class TransactionService {
     private final TagRepository tagRepository;
     private final CategoryRepository categoryRepository;
     private final TransactionMapper transactionMapper;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TagIndex tagIndex;
+    private final MemoSearchService memoSearchService;
+
+    static final int MAX_SCROLL_SIZE = 200;
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final int MAX_BULK_ROWS = 50_000;
+    private static final Sort DATE_ORDER = Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id"));
+    private static final Sort AMOUNT_ORDER = Sort.by(Sort.Order.desc("amountKrw"), Sort.Order.desc("id"));
+    // The same order once a type filter pins transactionType; leading with it
+    // lets the planner read (transaction_type, amount_krw, id) already sorted.
+    private static final Sort TYPE_AMOUNT_ORDER = Sort.by(Sort.Order.asc("transactionType")).and(AMOUNT_ORDER);
     
     @Transactional
     public TransactionDTO createTransaction(CreateTransactionRequest request) {
         BigDecimal amountKrw = calculateAmountKrw(request.getOriginalAmount(), 
                 request.getOriginalCurrency(), request.getConversionRate());
-        
-        Set<Tag> tags = resolveTags(request.getTagNames());
 
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + request.getCategoryId()));
 
+        Set<Tag> tags = resolveTags(request.getTagNames());
+
         Transaction transaction = Transaction.builder()
                 .transactionDate(request.getTransactionDate())
                 .transactionType(request.getTransactionType())
@@ -59,9 +95,121 @@ public class TransactionService {
                 .build();
         
         Transaction saved = transactionRepository.save(transaction);
+        monthlyAggregateService.add(saved);
+        memoSearchService.index(saved);
+        eventPublisher.publishEvent(TransactionChangedEvent.created(TransactionSnapshot.of(saved)));
         return transactionMapper.toDTO(saved);
     }
     
+    /**
+     * Creates many transactions in one database transaction. Categories are
+     * loaded and tags resolved once for the whole batch, the rows are
+     * inserted in JDBC batches, and the rollup is updated once per touched
+     * bucket. Items that fail validation, name an unknown category or lack a
+     * conversion rate are rejected individually; the rest are created. Tags
+     * are resolved after validation, so only accepted items create new ones.
+     */
+    @Transactional
+    public BatchResultDTO createTransactions(List<CreateTransactionRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " transactions");
+        }
+        Map<Long, Category> categories = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[requests.size()];
+        List<Integer> accepted = new ArrayList<>();
+        List<CreateTransactionRequest> acceptedRequests = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTransactionRequest request = requests.get(i);
+            String error = validate(request, categories);
+            if (error == null) {
+                try {
+                    Transaction transaction = Transaction.builder()
+                            .transactionDate(request.getTransactionDate())
+                            .transactionType(request.getTransactionType())
+                            .originalAmount(request.getOriginalAmount())
+                            .originalCurrency(request.getOriginalCurrency())
+                            .conversionRate(request.getConversionRate())
+                            .amountKrw(calculateAmountKrw(request.getOriginalAmount(),
+                                    request.getOriginalCurrency(), request.getConversionRate()))
+                            .category(categories.get(request.getCategoryId()))
+                            .memo(request.getMemo())
+                            .build();
+                    transactions.add(transaction);
+                    accepted.add(i);
+                    acceptedRequests.add(request);
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+            results[i] = BatchItemResultDTO.builder()
+                    .index(i)
+                    .status(BatchItemResultDTO.Status.REJECTED)
+                    .error(error)
+                    .build();
+        }
+
+        Map<String, Tag> tagsByKey = resolveTagsOnce(acceptedRequests);
+        for (int j = 0; j < transactions.size(); j++) {
+            Set<String> tagNames = acceptedRequests.get(j).getTagNames();
+            if (tagNames != null) {
+                Set<Tag> tags = transactions.get(j).getTags();
+                tagNames.stream()
+                        .filter(Objects::nonNull)
+                        .map(TagIndex::key)
+                        .filter(key -> !key.isEmpty())
+                        .forEach(key -> tags.add(tagsByKey.get(key)));
+            }
+        }
+
+        // The rollup statements go first: run after the inserts are queued,
+        // each one would flush and dirty-check the whole batch again.
+        monthlyAggregateService.addAll(transactions);
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        memoSearchService.indexAll(saved);
+        for (int j = 0; j < saved.size(); j++) {
+            Transaction transaction = saved.get(j);
+            eventPublisher.publishEvent(TransactionChangedEvent.created(TransactionSnapshot.of(transaction)));
+            results[accepted.get(j)] = BatchItemResultDTO.builder()
+                    .index(accepted.get(j))
+                    .status(BatchItemResultDTO.Status.CREATED)
+                    .id(transaction.getId())
+                    .build();
+        }
+
+        return BatchResultDTO.builder()
+                .created(saved.size())
+                .rejected(requests.size() - saved.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /** The bean-validation and category errors of one batch item, or null if it is fine. */
+    private String validate(CreateTransactionRequest request, Map<Long, Category> categories) {
+        if (request == null) {
+            return "Transaction is required";
+        }
+        Set<ConstraintViolation<CreateTransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return describe(violations);
+        }
+        if (!categories.containsKey(request.getCategoryId())) {
+            return "Category not found: " + request.getCategoryId();
+        }
+        return null;
+    }
+
+    /** Bean-validation errors as one message, the way batch items report them. */
+    static String describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
     public TransactionDTO getTransaction(Long id) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + id));
@@ -83,6 +231,14 @@ public class TransactionService {
     /**
      * DB-level filtered + paginated lookup, replacing the old approach of pulling
      * a (possibly date-ranged) list into memory and filtering it with streams.
+     * The page's ids are selected first and the rows then loaded with their
+     * category and tags in one query, so a page costs the same number of
+     * statements whatever its size.
+     *
+     * @param minAmount lowest KRW amount to include, or null for no lower bound
+     * @param maxAmount highest KRW amount to include, or null for no upper bound
+     * @param q words that must each appear in the memo, category name or a tag
+     *          name of every row (see {@link MemoSearchService#matching}); null for no text filter
      */
     public Page<TransactionDTO> getTransactions(
             LocalDate startDate,
@@ -90,24 +246,129 @@ public class TransactionService {
             TransactionType type,
             List<Long> categoryIds,
             List<Long> tagIds,
+            TagMatch tagMatch,
+            BigDecimal minAmount,
+            BigDecimal maxAmount,
+            String q,
             Pageable pageable) {
-        Specification<Transaction> spec = TransactionSpecifications.withFilters(startDate, endDate, type, categoryIds, tagIds);
-        return transactionRepository.findAll(spec, pageable).map(transactionMapper::toDTO);
+        Specification<Transaction> spec = amountFilters(startDate, endDate, type, categoryIds, tagIds, tagMatch,
+                minAmount, maxAmount).and(memoSearchService.matching(q));
+        Page<Long> ids = transactionRepository.findIds(spec, pageable);
+        return new PageImpl<>(loadInOrder(ids.getContent()), pageable, ids.getTotalElements());
     }
     
+    /**
+     * Keyset-paginated lookup in {@code transactionDate DESC, id DESC} order,
+     * or {@code amountKrw DESC, id DESC} for {@link TransactionOrder#AMOUNT}.
+     * Each page seeks past the cursor on the {@code (transaction_date, id)}
+     * or {@code (amount_krw, id)} index and reads one id more than requested
+     * to learn whether another page follows, so deep pages cost the same as
+     * the first and no count query runs unless {@code includeTotal} is set.
+     *
+     * @param minAmount as in {@link #getTransactions}
+     * @param maxAmount as in {@link #getTransactions}
+     * @param q      as in {@link #getTransactions}
+     * @param order  null for {@link TransactionOrder#DATE}
+     * @param cursor the previous page's {@code nextCursor}, or null for the first
+     *               page; it must come from a list in the same order
+     */
+    public CursorPageResponseDTO<TransactionDTO> scrollTransactions(
+            LocalDate startDate,
+            LocalDate endDate,
+            TransactionType type,
+            List<Long> categoryIds,
+            List<Long> tagIds,
+            TagMatch tagMatch,
+            BigDecimal minAmount,
+            BigDecimal maxAmount,
+            String q,
+            TransactionOrder order,
+            String cursor,
+            int size,
+            boolean includeTotal) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        boolean byAmount = order == TransactionOrder.AMOUNT;
+        Specification<Transaction> filters = amountFilters(startDate, endDate, type, categoryIds, tagIds, tagMatch,
+                minAmount, maxAmount).and(memoSearchService.matching(q));
+        Specification<Transaction> seek = filters;
+        if (cursor != null) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            if (position.order() != (byAmount ? TransactionOrder.AMOUNT : TransactionOrder.DATE)) {
+                throw new IllegalArgumentException("Cursor belongs to a list in " + position.order() + " order");
+            }
+            seek = filters.and(byAmount
+                    ? TransactionSpecifications.isAfterInAmountDescendingOrder(position.amountKrw(), position.id())
+                    : TransactionSpecifications.isAfterInDescendingOrder(position.transactionDate(), position.id()));
+        }
+
+        Sort sort = !byAmount ? DATE_ORDER : type != null ? TYPE_AMOUNT_ORDER : AMOUNT_ORDER;
+        List<Long> ids = transactionRepository.findIds(seek, sort, size + 1);
+        boolean hasMore = ids.size() > size;
+        List<TransactionDTO> page = loadInOrder(hasMore ? ids.subList(0, size) : ids);
+        TransactionDTO last = page.isEmpty() ? null : page.get(page.size() - 1);
+        TransactionCursor next = !hasMore ? null : byAmount
+                ? TransactionCursor.ofAmount(last.getAmountKrw(), last.getId())
+                : new TransactionCursor(last.getTransactionDate(), last.getId());
+
+        return CursorPageResponseDTO.<TransactionDTO>builder()
+                .content(page)
+                .size(size)
+                .nextCursor(next != null ? next.encode() : null)
+                .totalElements(includeTotal ? transactionRepository.count(filters) : null)
+                .build();
+    }
+
+    /** {@link TransactionSpecifications#withFilters}, refusing an amount range whose ends are swapped. */
+    private static Specification<Transaction> amountFilters(
+            LocalDate startDate,
+            LocalDate endDate,
+            TransactionType type,
+            List<Long> categoryIds,
+            List<Long> tagIds,
+            TagMatch tagMatch,
+            BigDecimal minAmount,
+            BigDecimal maxAmount) {
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        return TransactionSpecifications.withFilters(
+                startDate, endDate, type, categoryIds, tagIds, tagMatch, minAmount, maxAmount);
+    }
+
+    /**
+     * Loads the given rows with category and tags in one query and maps them
+     * in the given order. Joining them while paging instead would make the
+     * database page over the joined rows rather than over transactions.
+     */
+    private List<TransactionDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Transaction> byId = transactionRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        return ids.stream().map(byId::get).map(transactionMapper::toDTO).toList();
+    }
+
     @Transactional
     public TransactionDTO updateTransaction(Long id, CreateTransactionRequest request) {
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + id));
-        
         BigDecimal amountKrw = calculateAmountKrw(request.getOriginalAmount(), 
                 request.getOriginalCurrency(), request.getConversionRate());
-        
-        Set<Tag> tags = resolveTags(request.getTagNames());
+
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + id));
 
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + request.getCategoryId()));
 
+        Set<Tag> tags = resolveTags(request.getTagNames());
+
+        // Take the row out of its old rollup bucket before any field changes.
+        TransactionSnapshot before = TransactionSnapshot.of(transaction);
+        String memoBefore = transaction.getMemo();
+        monthlyAggregateService.subtract(transaction);
+
         transaction.setTransactionDate(request.getTransactionDate());
         transaction.setTransactionType(request.getTransactionType());
         transaction.setOriginalAmount(request.getOriginalAmount());
@@ -119,62 +380,205 @@ public class TransactionService {
         transaction.setTags(tags);
         
         Transaction updated = transactionRepository.save(transaction);
+        monthlyAggregateService.add(updated);
+        if (!Objects.equals(memoBefore, updated.getMemo())) {
+            memoSearchService.reindex(updated);
+        }
+        eventPublisher.publishEvent(TransactionChangedEvent.updated(before, TransactionSnapshot.of(updated)));
         return transactionMapper.toDTO(updated);
     }
 
     @Transactional
     public void deleteTransaction(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Transaction not found: " + id);
-        }
-        transactionRepository.deleteById(id);
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + id));
+        monthlyAggregateService.subtract(transaction);
+        eventPublisher.publishEvent(TransactionChangedEvent.deleted(TransactionSnapshot.of(transaction)));
+        transactionRepository.delete(transaction);
     }
     
+    /**
+     * Applies one change to every transaction matching the request's filters
+     * without loading any of them. The ids of the rows the change would
+     * actually alter are selected once; the change itself, the rollup and
+     * the derived in-memory data are then each adjusted in bulk over that id
+     * set, with a few set-based statements and a single
+     * {@link TransactionsBulkChangedEvent} in place of the per-row events.
+     * The id set is held in memory throughout, so a change matching more
+     * than {@link #MAX_BULK_ROWS} rows is refused before anything changes.
+     */
+    @Transactional
+    public BulkResultDTO bulkUpdate(BulkTransactionRequest request) {
+        Specification<Transaction> spec = bulkFilters(request);
+        List<Long> tagIds = List.of();
+        switch (request.getAction()) {
+            case SET_CATEGORY -> {
+                if (request.getCategoryId() == null) {
+                    throw new IllegalArgumentException("categoryId is required to set the category");
+                }
+                if (!categoryRepository.existsById(request.getCategoryId())) {
+                    throw new ResourceNotFoundException("Category not found: " + request.getCategoryId());
+                }
+                spec = spec.and(Specification.not(TransactionSpecifications.hasCategoryIn(List.of(request.getCategoryId()))));
+            }
+            case ADD_TAGS -> {
+                // Rows can only carry all the tags already when none is new;
+                // new ones are created once some row is known to need them.
+                List<String> names = bulkTagNames(request);
+                Map<String, Long> existing = tagIndex.lookupAll(names);
+                if (existing.size() == names.stream().map(TagIndex::key).distinct().count()) {
+                    spec = spec.and(Specification.not(TransactionSpecifications.hasAllTags(
+                            List.copyOf(Set.copyOf(existing.values())))));
+                }
+            }
+            case REMOVE_TAGS -> {
+                tagIds = List.copyOf(Set.copyOf(tagIndex.lookupAll(bulkTagNames(request)).values()));
+                if (tagIds.isEmpty()) {
+                    return BulkResultDTO.builder().affected(0).build();
+                }
+                spec = spec.and(TransactionSpecifications.hasTagIn(tagIds));
+            }
+            case DELETE -> {
+            }
+        }
+
+        List<Long> matched = transactionRepository.findIds(spec, Sort.unsorted(), MAX_BULK_ROWS + 1);
+        if (matched.isEmpty()) {
+            return BulkResultDTO.builder().affected(0).build();
+        }
+        if (matched.size() > MAX_BULK_ROWS) {
+            throw new IllegalArgumentException("A bulk change must not match more than " + MAX_BULK_ROWS
+                    + " transactions; narrow the filters");
+        }
+        if (request.getAction() == BulkTransactionRequest.Action.ADD_TAGS) {
+            tagIds = List.copyOf(Set.copyOf(tagIndex.resolveAll(bulkTagNames(request)).values()));
+        }
+        Long[] ids = matched.toArray(Long[]::new);
+        List<TransactionsBulkChangedEvent.DayBucket> before = dayBuckets(ids);
+        Long[] tags = tagIds.toArray(Long[]::new);
+        TransactionsBulkChangedEvent event = switch (request.getAction()) {
+            case SET_CATEGORY -> {
+                monthlyAggregateService.recategorizeAll(ids, request.getCategoryId());
+                transactionRepository.updateCategory(ids, request.getCategoryId());
+                yield TransactionsBulkChangedEvent.categorySet(matched, before, request.getCategoryId());
+            }
+            case ADD_TAGS -> {
+                transactionRepository.insertTagLinks(ids, tags);
+                yield TransactionsBulkChangedEvent.tagsAdded(matched, before, Set.copyOf(tagIds));
+            }
+            case REMOVE_TAGS -> {
+                transactionRepository.deleteTagLinks(ids, tags);
+                yield TransactionsBulkChangedEvent.tagsRemoved(matched, before, Set.copyOf(tagIds));
+            }
+            case DELETE -> {
+                monthlyAggregateService.subtractAll(ids);
+                transactionRepository.deleteAllByIds(ids);
+                yield TransactionsBulkChangedEvent.deleted(matched, before);
+            }
+        };
+        eventPublisher.publishEvent(event);
+        return BulkResultDTO.builder().affected(ids.length).build();
+    }
+
+    /**
+     * The request's filters as one specification. An empty filter set is
+     * refused rather than read as "everything"; a date range only counts
+     * with both ends, as in the transaction list.
+     */
+    private Specification<Transaction> bulkFilters(BulkTransactionRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean filtered = hasIds
+                || (request.getStartDate() != null && request.getEndDate() != null)
+                || request.getType() != null
+                || request.getMinAmount() != null
+                || request.getMaxAmount() != null
+                || (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty())
+                || (request.getTagIds() != null && !request.getTagIds().isEmpty())
+                || (request.getQ() != null && !request.getQ().isBlank());
+        if (!filtered) {
+            throw new IllegalArgumentException("A bulk change needs at least one filter");
+        }
+        return amountFilters(request.getStartDate(), request.getEndDate(), request.getType(),
+                        request.getCategoryIds(), request.getTagIds(), request.getTagMatch(),
+                        request.getMinAmount(), request.getMaxAmount())
+                .and(hasIds ? TransactionSpecifications.hasIdIn(request.getIds()) : null)
+                .and(memoSearchService.matching(request.getQ()));
+    }
+
+    private static List<String> bulkTagNames(BulkTransactionRequest request) {
+        List<String> names = request.getTagNames() == null ? List.of() : request.getTagNames().stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("tagNames are required to add or remove tags");
+        }
+        return names;
+    }
+
+    private List<TransactionsBulkChangedEvent.DayBucket> dayBuckets(Long[] ids) {
+        return transactionRepository.aggregateByDayTypeAndCategory(ids).stream()
+                .map(row -> new TransactionsBulkChangedEvent.DayBucket(
+                        ((java.sql.Date) row[0]).toLocalDate(),
+                        TransactionType.valueOf((String) row[1]),
+                        ((Number) row[2]).longValue(),
+                        (BigDecimal) row[3],
+                        ((Number) row[4]).longValue()))
+                .toList();
+    }
+
+    /**
+     * The KRW amount rounded half-up to the column's two decimals, so the
+     * entity, its event snapshots and every in-memory index derived from them
+     * hold the same value the database stores.
+     */
     private BigDecimal calculateAmountKrw(BigDecimal originalAmount, String currency, BigDecimal conversionRate) {
         if ("KRW".equals(currency)) {
-            return originalAmount;
+            return originalAmount.setScale(2, RoundingMode.HALF_UP);
         }
         if (conversionRate == null) {
             throw new IllegalArgumentException("Conversion rate required for non-KRW currency");
         }
-        return originalAmount.multiply(conversionRate);
+        return originalAmount.multiply(conversionRate).setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
      * Resolves (or creates) tags for the given raw tag names, normalizing each
      * name by trimming whitespace and looking it up case-insensitively so that
      * "식비", "식비 " and "식비" (mixed case for latin tags) all resolve to the
-     * same tag instead of creating duplicates.
+     * same tag instead of creating duplicates. Names are resolved through
+     * {@link TagIndex}, so known tags cost no query; they are referenced by
+     * id and loaded only if something reads them.
+     *
+     * <p>Callers resolve tags only once the rest of the request has been
+     * checked: a new tag is created in the caller's transaction and its name
+     * stays locked in the index until that transaction ends.
      */
     private Set<Tag> resolveTags(Set<String> tagNames) {
         if (tagNames == null || tagNames.isEmpty()) {
             return new HashSet<>();
         }
-        return tagNames.stream()
-                .map(String::trim)
-                .filter(name -> !name.isEmpty())
+        return tagIndex.resolveAll(tagNames).values().stream()
                 .distinct()
-                .map(name -> tagRepository.findByNameIgnoreCase(name)
-                        .orElseGet(() -> tagRepository.save(Tag.builder()
-                                .name(name)
-                                .color(generateColorForName(name))
-                                .build())))
+                .map(tagRepository::getReferenceById)
                 .collect(Collectors.toSet());
     }
 
     /**
-     * Deterministically maps a tag name to a color in the palette so the same
-     * tag name always gets the same color, instead of a random one on every
-     * (re)creation.
+     * Batch counterpart of {@link #resolveTags}, keyed by {@link TagIndex#key}.
+     * Names differing only in case or surrounding whitespace share one tag,
+     * created under the spelling seen first.
      */
-    private String generateColorForName(String name) {
-        String[] colors = {
-            "#3B82F6", "#10B981", "#F59E0B", "#EF4444", "#8B5CF6", "#EC4899",
-            "#14B8A6", "#F97316", "#06B6D4", "#84CC16", "#F43F5E", "#A855F7",
-            "#22D3EE", "#FCD34D", "#FB923C", "#4ADE80", "#818CF8", "#F472B6",
-            "#2DD4BF", "#FDE047", "#FB7185", "#C084FC", "#38BDF8", "#BEF264"
-        };
-        int index = Math.floorMod(name.toLowerCase().hashCode(), colors.length);
-        return colors[index];
+    private Map<String, Tag> resolveTagsOnce(List<CreateTransactionRequest> requests) {
+        List<String> names = new ArrayList<>();
+        for (CreateTransactionRequest request : requests) {
+            if (request.getTagNames() != null) {
+                names.addAll(request.getTagNames());
+            }
+        }
+        Map<String, Tag> tags = new HashMap<>();
+        tagIndex.resolveAll(names).forEach((key, id) -> tags.put(key, tagRepository.getReferenceById(id)));
+        return tags;
     }
 }
@@ -0,0 +1,58 @@
+package com.cashlog.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket size of {@link AnalyticsService#getTrend}. Weeks are ISO weeks
+ * (Monday to Sunday, numbered within their week-based year), so a week that
+ * straddles New Year keeps a single label.
+ */
+public enum TrendGranularity {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    /** First day of the bucket containing {@code date}; matches the SQL truncation. */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /** First day of the bucket after the one starting at {@code bucketStart}. */
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case QUARTER -> bucketStart.plusMonths(3);
+            case YEAR -> bucketStart.plusYears(1);
+        };
+    }
+
+    /**
+     * Chart label of the bucket starting at {@code bucketStart}:
+     * {@code 2024-03-05}, {@code 2024-W10}, {@code 2024-03}, {@code 2024-Q1}
+     * or {@code 2024}.
+     */
+    public String label(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.toString();
+            case WEEK -> String.format("%d-W%02d",
+                    bucketStart.get(IsoFields.WEEK_BASED_YEAR), bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> YearMonth.from(bucketStart).toString();
+            case QUARTER -> bucketStart.getYear() + "-Q" + bucketStart.get(IsoFields.QUARTER_OF_YEAR);
+            case YEAR -> String.valueOf(bucketStart.getYear());
+        };
+    }
+}
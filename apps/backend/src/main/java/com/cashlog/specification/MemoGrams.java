@@ -0,0 +1,67 @@
+package com.cashlog.specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer of the memo search index ({@code transaction_memo_gram}). Text is
+ * lower-cased and split into words, runs of letters or digits in any script;
+ * each word is indexed as its overlapping two-character grams plus its last
+ * character followed by {@link #END}, so that every character of a word
+ * starts exactly one gram. Korean memos are mostly written without spaces
+ * inside compounds ("점심김밥"), so grams rather than words let a query
+ * find any substring of a word.
+ */
+public final class MemoGrams {
+
+    /** Follows the last character of a word in its final gram. */
+    public static final char END = '$';
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private MemoGrams() {
+    }
+
+    /** The distinct words of {@code text} in order, lower-cased; empty for null. */
+    public static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return List.copyOf(words);
+    }
+
+    /** The distinct grams to index for {@code text}. */
+    public static Set<String> index(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            for (int i = 0; i < word.length() - 1; i++) {
+                grams.add(word.substring(i, i + 2));
+            }
+            grams.add(word.charAt(word.length() - 1) + String.valueOf(END));
+        }
+        return grams;
+    }
+
+    /**
+     * The grams a memo containing {@code word} (one of {@link #words}) is
+     * indexed under. Empty for a single character, which is instead found
+     * through every gram starting with it.
+     */
+    public static List<String> query(String word) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i < word.length() - 1; i++) {
+            grams.add(word.substring(i, i + 2));
+        }
+        return new ArrayList<>(grams);
+    }
+}
@@ -0,0 +1,9 @@
+package com.cashlog.specification;
+
+/** How a filter on several tags combines them. */
+public enum TagMatch {
+    /** Transactions carrying at least one of the tags. */
+    ANY,
+    /** Transactions carrying every one of the tags. */
+    ALL
+}
@@ -0,0 +1,9 @@
+package com.cashlog.specification;
+
+/** Order of the cursor-paginated transaction list; ties are broken by id, newest first. */
+public enum TransactionOrder {
+    /** Newest first: {@code transactionDate DESC, id DESC}. */
+    DATE,
+    /** Largest first: {@code amountKrw DESC, id DESC}. */
+    AMOUNT
+}
@@ -2,17 +2,23 @@ package com.cashlog.specification;
 
 import com.cashlog.entity.Tag;
 import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionMemoGram;
 import com.cashlog.entity.TransactionType;
 import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Builds {@link Specification} instances for {@link Transaction} so that
- * date range / type / category / tag filters are applied as a single
+ * date range / type / amount / category / tag filters are applied as a single
  * DB-level query instead of being pulled into memory and filtered in Java.
  */
 public final class TransactionSpecifications {
@@ -20,6 +26,10 @@ public final class TransactionSpecifications {
     private TransactionSpecifications() {
     }
 
+    public static Specification<Transaction> hasIdIn(List<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
     public static Specification<Transaction> hasDateBetween(LocalDate startDate, LocalDate endDate) {
         return (root, query, cb) -> cb.between(root.get("transactionDate"), startDate, endDate);
     }
@@ -32,14 +42,108 @@ public final class TransactionSpecifications {
         return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
     }
 
+    /** KRW amount within {@code [min, max]}; either bound may be null for an open end. */
+    public static Specification<Transaction> hasAmountBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.get("amountKrw"), max);
+            }
+            return max == null
+                    ? cb.greaterThanOrEqualTo(root.get("amountKrw"), min)
+                    : cb.between(root.get("amountKrw"), min, max);
+        };
+    }
+
+    /**
+     * Transactions carrying any of the tags, as a correlated {@code EXISTS}
+     * over {@code transaction_tag}. Unlike a join it never multiplies rows,
+     * so the outer query needs no {@code DISTINCT}.
+     */
     public static Specification<Transaction> hasTagIn(List<Long> tagIds) {
         return (root, query, cb) -> {
-            query.distinct(true);
-            Join<Transaction, Tag> tagJoin = root.join("tags", JoinType.INNER);
-            return tagJoin.get("id").in(tagIds);
+            Subquery<Long> tagged = query.subquery(Long.class);
+            Root<Transaction> self = tagged.correlate(root);
+            Join<Transaction, Tag> tag = self.join("tags");
+            return cb.exists(tagged.select(tag.get("id")).where(tag.get("id").in(tagIds)));
+        };
+    }
+
+    /**
+     * Transactions carrying every one of the tags: the ids whose
+     * {@code transaction_tag} rows within the requested tags number as many
+     * as the distinct requested tags, found with one grouped
+     * {@code HAVING COUNT} rather than one join per tag.
+     */
+    public static Specification<Transaction> hasAllTags(List<Long> tagIds) {
+        long required = Set.copyOf(tagIds).size();
+        return (root, query, cb) -> {
+            Subquery<Long> taggedWithAll = query.subquery(Long.class);
+            Root<Tag> tag = taggedWithAll.from(Tag.class);
+            Join<Tag, Transaction> tagged = tag.join("transactions");
+            taggedWithAll.select(tagged.get("id"))
+                    .where(tag.get("id").in(tagIds))
+                    .groupBy(tagged.get("id"))
+                    .having(cb.equal(cb.count(tag.get("id")), required));
+            return root.get("id").in(taggedWithAll);
         };
     }
 
+    /**
+     * Transactions mentioning {@code word} (one of {@link MemoGrams#words}):
+     * in their memo, or through their category or one of their tags, given
+     * as the ids of those whose names contain the word.
+     *
+     * <p>The memo side looks rows up in {@code transaction_memo_gram} by one
+     * gram of the word, {@code gram}, which should be its rarest, or for a
+     * single-character word (null {@code gram}) by every gram starting with
+     * it. Only those rows' memos are then checked for the word itself, which
+     * also covers the word's other grams, so they are never read.
+     */
+    public static Specification<Transaction> mentions(String word, String gram, List<Long> categoryIds,
+                                                      List<Long> tagIds) {
+        return (root, query, cb) -> {
+            Subquery<Long> indexed = query.subquery(Long.class);
+            Root<TransactionMemoGram> posting = indexed.from(TransactionMemoGram.class);
+            indexed.select(posting.get("transactionId")).where(gram != null
+                    ? cb.equal(posting.get("gram"), gram)
+                    : cb.like(posting.get("gram"), word + "%"));
+
+            List<Predicate> matches = new ArrayList<>();
+            matches.add(cb.and(root.get("id").in(indexed), cb.like(cb.lower(root.get("memo")), "%" + word + "%")));
+            if (!categoryIds.isEmpty()) {
+                matches.add(root.get("category").get("id").in(categoryIds));
+            }
+            if (!tagIds.isEmpty()) {
+                matches.add(hasTagIn(tagIds).toPredicate(root, query, cb));
+            }
+            return matches.size() == 1 ? matches.get(0) : cb.or(matches.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Rows strictly after {@code (date, id)} in {@code transactionDate DESC,
+     * id DESC} order, i.e. the keyset seek predicate for cursor pagination.
+     */
+    public static Specification<Transaction> isAfterInDescendingOrder(LocalDate date, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("transactionDate"), date),
+                cb.and(cb.equal(root.get("transactionDate"), date), cb.lessThan(root.get("id"), id)));
+    }
+
+    /**
+     * Rows strictly after {@code (amount, id)} in {@code amountKrw DESC, id
+     * DESC} order, the keyset seek predicate of the amount-ordered list. The
+     * redundant {@code amountKrw <= amount} gives the planner a range to
+     * start the index scan at instead of filtering from the largest row.
+     */
+    public static Specification<Transaction> isAfterInAmountDescendingOrder(BigDecimal amount, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("amountKrw"), amount),
+                cb.or(
+                        cb.lessThan(root.get("amountKrw"), amount),
+                        cb.and(cb.equal(root.get("amountKrw"), amount), cb.lessThan(root.get("id"), id))));
+    }
+
     /**
      * Composes only the filters that are actually present. Null entries are
      * safely ignored by {@link Specification#allOf}, so callers can pass a
@@ -51,11 +155,38 @@ public final class TransactionSpecifications {
             TransactionType type,
             List<Long> categoryIds,
             List<Long> tagIds) {
+        return withFilters(startDate, endDate, type, categoryIds, tagIds, TagMatch.ANY);
+    }
+
+    /** As above, with {@code tagMatch} choosing whether any or all of {@code tagIds} must be present. */
+    public static Specification<Transaction> withFilters(
+            LocalDate startDate,
+            LocalDate endDate,
+            TransactionType type,
+            List<Long> categoryIds,
+            List<Long> tagIds,
+            TagMatch tagMatch) {
+        return withFilters(startDate, endDate, type, categoryIds, tagIds, tagMatch, null, null);
+    }
+
+    /** As above, also limited to KRW amounts within {@code [minAmount, maxAmount]}; either bound is optional. */
+    public static Specification<Transaction> withFilters(
+            LocalDate startDate,
+            LocalDate endDate,
+            TransactionType type,
+            List<Long> categoryIds,
+            List<Long> tagIds,
+            TagMatch tagMatch,
+            BigDecimal minAmount,
+            BigDecimal maxAmount) {
         return Specification.allOf(
                 (startDate != null && endDate != null) ? hasDateBetween(startDate, endDate) : null,
                 type != null ? hasType(type) : null,
+                (minAmount != null || maxAmount != null) ? hasAmountBetween(minAmount, maxAmount) : null,
                 (categoryIds != null && !categoryIds.isEmpty()) ? hasCategoryIn(categoryIds) : null,
-                (tagIds != null && !tagIds.isEmpty()) ? hasTagIn(tagIds) : null
+                (tagIds != null && !tagIds.isEmpty())
+                        ? (tagMatch == TagMatch.ALL ? hasAllTags(tagIds) : hasTagIn(tagIds))
+                        : null
         );
     }
 }
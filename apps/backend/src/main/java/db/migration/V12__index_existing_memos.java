@@ -0,0 +1,73 @@
+package db.migration;
+
+import com.cashlog.specification.MemoGrams;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * V12: Indexes the memos written before the memo search index (V8) existed.
+ *
+ * <p>This needs the application's tokenizer ({@link MemoGrams}), so it is a
+ * Java migration rather than SQL. It used to run when the application
+ * started, next to live writes, and skipped itself once any posting existed.
+ * As a migration it runs once, before the application serves anything, and
+ * Flyway records that it is done. Postings that are already there, from
+ * writes made after V8 or from an earlier startup backfill, are left as
+ * they are.
+ */
+public class V12__index_existing_memos extends BaseJavaMigration {
+
+    /** Postings sent per insert statement, as in {@code MemoSearchService}. */
+    private static final int INSERT_CHUNK = 10_000;
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String INSERT_POSTINGS = "INSERT INTO transaction_memo_gram (gram, transaction_id) " +
+            "SELECT p.gram, p.transaction_id " +
+            "FROM UNNEST(CAST(? AS VARCHAR(2) ARRAY), CAST(? AS BIGINT ARRAY)) AS p (gram, transaction_id) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM transaction_memo_gram g " +
+            "WHERE g.gram = p.gram AND g.transaction_id = p.transaction_id)";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        List<String> grams = new ArrayList<>();
+        List<Long> transactionIds = new ArrayList<>();
+        try (Statement select = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(INSERT_POSTINGS)) {
+            select.setFetchSize(FETCH_SIZE);
+            try (ResultSet memos = select.executeQuery("SELECT id, memo FROM transaction WHERE memo IS NOT NULL")) {
+                while (memos.next()) {
+                    long transactionId = memos.getLong(1);
+                    for (String gram : MemoGrams.index(memos.getString(2))) {
+                        grams.add(gram);
+                        transactionIds.add(transactionId);
+                        if (grams.size() == INSERT_CHUNK) {
+                            flush(insert, grams, transactionIds);
+                        }
+                    }
+                }
+            }
+            flush(insert, grams, transactionIds);
+        }
+    }
+
+    private static void flush(PreparedStatement insert, List<String> grams, List<Long> transactionIds)
+            throws SQLException {
+        if (grams.isEmpty()) {
+            return;
+        }
+        insert.setObject(1, grams.toArray(String[]::new));
+        insert.setObject(2, transactionIds.toArray(Long[]::new));
+        insert.executeUpdate();
+        grams.clear();
+        transactionIds.clear();
+    }
+}
@@ -0,0 +1,14 @@
+-- V10: Lock row for the running-balance checkpoints.
+--
+-- Creating a month's checkpoint copies the latest earlier one, and every
+-- change shifts the checkpoints from its month on. Two writers doing this at
+-- once can each miss the other's shift, or both try to insert the same new
+-- month. Writers take this single row FOR UPDATE before touching
+-- monthly_aggregate or monthly_balance, so checkpoint maintenance runs one
+-- transaction at a time, always in the same lock order.
+
+CREATE TABLE monthly_balance_lock (
+    id INT NOT NULL PRIMARY KEY
+);
+
+INSERT INTO monthly_balance_lock (id) VALUES (1);
@@ -0,0 +1,23 @@
+-- V11: Tag names unique in any case.
+--
+-- The application treats "Lunch" and "lunch" as the same tag, but the UNIQUE
+-- constraint on tag.name compares them case-sensitively, so two writers
+-- missing each other could store both, after which looking the name up finds
+-- two rows. Existing spellings of one name are merged into the oldest tag,
+-- then a generated lower-case copy of the name carries the constraint.
+
+INSERT INTO transaction_tag (transaction_id, tag_id)
+SELECT DISTINCT tt.transaction_id, k.keep_id
+FROM transaction_tag tt
+JOIN tag t ON t.id = tt.tag_id
+JOIN (SELECT LOWER(name) AS name_key, MIN(id) AS keep_id FROM tag GROUP BY LOWER(name)) k
+    ON k.name_key = LOWER(t.name)
+WHERE t.id <> k.keep_id
+  AND NOT EXISTS (SELECT 1 FROM transaction_tag x
+                  WHERE x.transaction_id = tt.transaction_id AND x.tag_id = k.keep_id);
+
+DELETE FROM tag t
+WHERE t.id > (SELECT MIN(u.id) FROM tag u WHERE LOWER(u.name) = LOWER(t.name));
+
+ALTER TABLE tag ADD COLUMN name_key VARCHAR(50) GENERATED ALWAYS AS (LOWER(name));
+ALTER TABLE tag ADD CONSTRAINT uk_tag_name_key UNIQUE (name_key);
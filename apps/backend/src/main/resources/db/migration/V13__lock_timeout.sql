@@ -0,0 +1,10 @@
+-- V13: Lock timeout long enough to queue behind a batch write.
+--
+-- Every write takes the balance checkpoint lock (V10) and holds it until it
+-- commits, which for an import chunk or a bulk change includes inserting its
+-- rows, tag links and memo postings. H2's default lock timeout of one second
+-- would fail a single create that arrives meanwhile. The setting is stored
+-- in the database and applies to every session opened after this; the
+-- application's JDBC URL sets the same value for the sessions opened before.
+
+SET DEFAULT_LOCK_TIMEOUT 30000;
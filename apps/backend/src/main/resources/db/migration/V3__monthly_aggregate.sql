@@ -0,0 +1,30 @@
+-- V3: Incrementally maintained monthly rollup behind the analytics endpoints.
+--
+-- One row per (month, type, category) holding the amount and row count of the
+-- matching transactions. TransactionService applies +/- deltas to it in the
+-- same database transaction as every create/update/delete, so the summary and
+-- trend queries read a handful of rollup rows instead of scanning history.
+--
+-- month_key is the calendar month encoded as yyyymm (e.g. 202403), which keeps
+-- range predicates on the primary key a plain integer comparison.
+
+CREATE TABLE monthly_aggregate (
+    month_key INT NOT NULL,
+    transaction_type VARCHAR(10) NOT NULL,
+    category_id BIGINT NOT NULL,
+    total_amount DECIMAL(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (month_key, transaction_type, category_id),
+    CONSTRAINT fk_monthly_aggregate_category FOREIGN KEY (category_id)
+        REFERENCES category (id) ON DELETE CASCADE
+);
+
+-- Backfill from the existing ledger.
+INSERT INTO monthly_aggregate (month_key, transaction_type, category_id, total_amount, transaction_count)
+SELECT YEAR(transaction_date) * 100 + MONTH(transaction_date),
+       transaction_type,
+       category_id,
+       SUM(amount_krw),
+       COUNT(*)
+FROM transaction
+GROUP BY YEAR(transaction_date) * 100 + MONTH(transaction_date), transaction_type, category_id;
@@ -0,0 +1,25 @@
+-- V4: Running-balance checkpoints for the cumulative savings line.
+--
+-- cumulative_net is the net (income - expense) of every transaction up to and
+-- including month_key, i.e. a prefix sum over months. The opening balance of
+-- a trend window is then the checkpoint of the latest month before it: one
+-- primary-key seek instead of a scan over all earlier history.
+--
+-- Rows are sparse (only months that ever held a transaction) and are kept
+-- when a month empties, since the checkpoint itself stays valid. A change in
+-- month m shifts the checkpoints of m and every later month by its delta.
+
+CREATE TABLE monthly_balance (
+    month_key INT NOT NULL PRIMARY KEY,
+    cumulative_net DECIMAL(19,2) NOT NULL
+);
+
+-- Backfill from the monthly rollup.
+INSERT INTO monthly_balance (month_key, cumulative_net)
+SELECT month_key, SUM(net) OVER (ORDER BY month_key)
+FROM (
+    SELECT month_key,
+           SUM(CASE WHEN transaction_type = 'INCOME' THEN total_amount ELSE -total_amount END) AS net
+    FROM monthly_aggregate
+    GROUP BY month_key
+) months;
@@ -0,0 +1,11 @@
+-- V5: Composite index for keyset pagination of the transaction list.
+--
+-- GET /api/transactions/scroll orders by (transaction_date DESC, id DESC) and
+-- seeks past the last row of the previous page, so a page is an index range
+-- scan of page-size rows however deep it is. The index leads with
+-- transaction_date, so it also serves every date-range filter the
+-- single-column index did, which is therefore dropped.
+
+CREATE INDEX idx_transaction_date_id ON transaction (transaction_date DESC, id DESC);
+
+DROP INDEX idx_transaction_date;
@@ -0,0 +1,9 @@
+-- V6: Tag-first index on transaction_tag for tag-filtered transaction lists.
+--
+-- The primary key (transaction_id, tag_id) answers "which tags does this
+-- transaction carry", which is the correlated EXISTS of tagMatch=ANY. The
+-- tagMatch=ALL filter goes the other way: it reads the rows of the requested
+-- tags and groups them by transaction, which this index turns into a range
+-- scan per tag that already yields transaction ids in order.
+
+CREATE INDEX idx_transaction_tag_tag_transaction ON transaction_tag (tag_id, transaction_id);
@@ -0,0 +1,19 @@
+-- V7: Pooled sequence for transaction ids.
+--
+-- With an identity column Hibernate has to run every insert on its own to
+-- read the generated key back, so JDBC batching never applies. Drawing ids
+-- from a sequence that advances by 50 lets Hibernate hand out a block of ids
+-- per round trip (pooled-lo: a fetched value is the first id of its block)
+-- and send the inserts for transaction and transaction_tag in batches.
+--
+-- Rows inserted through plain SQL keep getting an id from the same sequence
+-- by default. Each such row consumes a whole block, so it can never collide
+-- with ids Hibernate has already handed out.
+
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE transaction_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM transaction);
+
+ALTER TABLE transaction ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE transaction ALTER COLUMN id SET DEFAULT NEXT VALUE FOR transaction_seq;
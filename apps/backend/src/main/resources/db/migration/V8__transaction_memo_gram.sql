@@ -0,0 +1,24 @@
+-- V8: Inverted index over transaction memos for the q= filter.
+--
+-- Every word of a memo (a run of letters or digits, lower-cased) is cut into
+-- overlapping two-character grams, plus one gram for its last character
+-- followed by '$'. Korean has no reliable word boundaries inside a
+-- compound, so character grams rather than words are what a substring
+-- search can look up: a query word is found through its own grams, and a
+-- single-character query through the grams starting with it (a prefix
+-- range on the primary key).
+--
+-- Rows are written by the application in the same transaction as the memo
+-- they index, and go away with their transaction. Memos that predate this
+-- table are indexed by the application on its first start, with the same
+-- tokenizer as new writes.
+
+CREATE TABLE transaction_memo_gram (
+    gram VARCHAR(2) NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    PRIMARY KEY (gram, transaction_id),
+    CONSTRAINT fk_memo_gram_transaction FOREIGN KEY (transaction_id)
+        REFERENCES transaction (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_memo_gram_transaction ON transaction_memo_gram (transaction_id);
@@ -0,0 +1,20 @@
+-- V9: Composite indexes for the amount filter and the amount-ordered list.
+--
+-- GET /api/transactions/scroll?order=AMOUNT orders by (amount_krw DESC, id
+-- DESC) and seeks past the last row of the previous page, like the date
+-- order does on idx_transaction_date_id. With a type filter the seek runs on
+-- (transaction_type, amount_krw, id) instead, so "largest expenses" reads
+-- the top page-size rows of the EXPENSE range rather than sorting them all.
+-- A date range on top of a type and an amount range is answered by
+-- (transaction_type, transaction_date, amount_krw) without touching the rows
+-- outside the amount range.
+--
+-- The single-column amount_krw and transaction_type indexes are prefixes of
+-- the new ones and are dropped.
+
+CREATE INDEX idx_transaction_amount_id ON transaction (amount_krw DESC, id DESC);
+CREATE INDEX idx_transaction_type_amount_id ON transaction (transaction_type, amount_krw DESC, id DESC);
+CREATE INDEX idx_transaction_type_date_amount ON transaction (transaction_type, transaction_date, amount_krw);
+
+DROP INDEX idx_transaction_amount_krw;
+DROP INDEX idx_transaction_type;
@@ -0,0 +1,100 @@
+package com.cashlog.controller;
+
+import com.cashlog.service.ExportCache;
+import com.cashlog.service.ExportFormat;
+import com.cashlog.service.ExportService;
+import com.cashlog.service.PdfExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2023, 12, 31);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private PdfExportService pdfExportService;
+
+    @MockBean
+    private ExportCache exportCache;
+
+    @TempDir
+    private Path dir;
+
+    private void cache(String content) throws Exception {
+        Path file = Files.writeString(dir.resolve("export.csv"), content, StandardCharsets.UTF_8);
+        when(exportCache.lookup(ExportFormat.CSV, START, END)).thenReturn(Optional.of(
+                new ExportCache.Hit(FileChannel.open(file), "abc123", Files.size(file))));
+    }
+
+    @Test
+    void exportCsv_servesCachedFileWithETag() throws Exception {
+        cache("cached csv");
+
+        MvcResult started = mockMvc.perform(get("/api/export/csv")
+                        .param("startDate", "2023-01-01")
+                        .param("endDate", "2023-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                .andExpect(content().string("cached csv"));
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void exportCsv_whenClientHasTheCachedFile_returnsNotModified() throws Exception {
+        cache("cached csv");
+
+        mockMvc.perform(get("/api/export/csv")
+                        .param("startDate", "2023-01-01")
+                        .param("endDate", "2023-12-31")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void exportCsv_onMiss_rendersThroughTheCache() throws Exception {
+        when(exportCache.lookup(ExportFormat.CSV, START, END)).thenReturn(Optional.empty());
+
+        MvcResult started = mockMvc.perform(get("/api/export/csv")
+                        .param("startDate", "2023-01-01")
+                        .param("endDate", "2023-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(exportCache).write(eq(ExportFormat.CSV), eq(START), eq(END), any(), any());
+    }
+}
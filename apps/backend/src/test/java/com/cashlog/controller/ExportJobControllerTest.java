@@ -0,0 +1,114 @@
+package com.cashlog.controller;
+
+import com.cashlog.dto.response.ExportJobDTO;
+import com.cashlog.service.ExportFormat;
+import com.cashlog.service.ExportJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportJobController.class)
+class ExportJobControllerTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportJobService exportJobService;
+
+    @TempDir
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Files.writeString(dir.resolve("export.csv"), "0123456789", StandardCharsets.UTF_8);
+        when(exportJobService.getResult("done"))
+                .thenReturn(new ExportJobService.Result(file, ExportFormat.CSV, START, END));
+    }
+
+    @Test
+    void createJob_returnsAcceptedWithStatusLocation() throws Exception {
+        when(exportJobService.submit(ExportFormat.PDF, START, END)).thenReturn(ExportJobDTO.builder()
+                .id("abc")
+                .format(ExportFormat.PDF)
+                .state(ExportJobService.State.QUEUED)
+                .build());
+
+        mockMvc.perform(post("/api/export/jobs")
+                        .param("format", "PDF")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/export/jobs/abc"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    void createJob_whenQueueIsFull_returnsServiceUnavailable() throws Exception {
+        when(exportJobService.submit(ExportFormat.CSV, START, END)).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/export/jobs")
+                        .param("format", "CSV")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void downloadJob_sendsWholeFile() throws Exception {
+        mockMvc.perform(get("/api/export/jobs/done/file"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-2024-01-01-2024-12-31.csv\""))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void downloadJob_sendsRequestedRange() throws Exception {
+        mockMvc.perform(get("/api/export/jobs/done/file").header(HttpHeaders.RANGE, "bytes=3-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 3-5/10"))
+                .andExpect(content().string("345"));
+
+        mockMvc.perform(get("/api/export/jobs/done/file").header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-9/10"))
+                .andExpect(content().string("6789"));
+    }
+
+    @Test
+    void downloadJob_rejectsUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/api/export/jobs/done/file").header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void downloadJob_beforeItFinishes_returnsConflict() throws Exception {
+        when(exportJobService.getResult("running"))
+                .thenThrow(new IllegalStateException("Export job running is RUNNING"));
+
+        mockMvc.perform(get("/api/export/jobs/running/file"))
+                .andExpect(status().isConflict());
+    }
+}
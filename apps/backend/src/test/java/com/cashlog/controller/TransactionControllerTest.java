@@ -1,9 +1,14 @@
 package com.cashlog.controller;
 
 import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchItemResultDTO;
+import com.cashlog.dto.response.BatchResultDTO;
+import com.cashlog.dto.response.CursorPageResponseDTO;
 import com.cashlog.dto.response.TransactionDTO;
 import com.cashlog.entity.TransactionType;
 import com.cashlog.service.TransactionService;
+import com.cashlog.specification.TagMatch;
+import com.cashlog.specification.TransactionOrder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +23,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -64,9 +72,36 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
     
+    @Test
+    void createTransactions_reportsEachItem() throws Exception {
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.now())
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("10000"))
+                .originalCurrency("KRW")
+                .categoryId(1L)
+                .build();
+        when(transactionService.createTransactions(anyList())).thenReturn(BatchResultDTO.builder()
+                .created(1)
+                .rejected(1)
+                .results(List.of(
+                        BatchItemResultDTO.builder().index(0).status(BatchItemResultDTO.Status.CREATED).id(7L).build(),
+                        BatchItemResultDTO.builder().index(1).status(BatchItemResultDTO.Status.REJECTED)
+                                .error("originalAmount: Amount is required").build()))
+                .build());
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(request, new CreateTransactionRequest()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(7))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+    }
+
     @Test
     void getAllTransactions_Success() throws Exception {
-        when(transactionService.getTransactions(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+        when(transactionService.getTransactions(isNull(), isNull(), isNull(), isNull(), isNull(), eq(TagMatch.ANY), isNull(), isNull(), isNull(), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 20), 0));
 
         mockMvc.perform(get("/api/transactions"))
@@ -74,4 +109,37 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.content").isArray())
                 .andExpect(jsonPath("$.totalElements").value(0));
     }
+
+    @Test
+    void scrollTransactions_passesCursorAndQueryThrough() throws Exception {
+        when(transactionService.scrollTransactions(isNull(), isNull(), eq(TransactionType.EXPENSE), isNull(), isNull(),
+                eq(TagMatch.ANY), isNull(), isNull(), eq("점심"), eq(TransactionOrder.DATE), eq("abc"), eq(50), eq(false)))
+                .thenReturn(CursorPageResponseDTO.<TransactionDTO>builder()
+                        .content(Collections.emptyList()).size(50).nextCursor("def").build());
+
+        mockMvc.perform(get("/api/transactions/scroll")
+                        .param("type", "EXPENSE")
+                        .param("q", "점심")
+                        .param("cursor", "abc")
+                        .param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void scrollTransactions_passesAmountRangeAndOrderThrough() throws Exception {
+        when(transactionService.scrollTransactions(isNull(), isNull(), eq(TransactionType.EXPENSE), isNull(), isNull(),
+                eq(TagMatch.ANY), eq(new BigDecimal("10000")), isNull(), isNull(), eq(TransactionOrder.AMOUNT),
+                isNull(), eq(20), eq(false)))
+                .thenReturn(CursorPageResponseDTO.<TransactionDTO>builder()
+                        .content(Collections.emptyList()).size(20).build());
+
+        mockMvc.perform(get("/api/transactions/scroll")
+                        .param("type", "EXPENSE")
+                        .param("minAmount", "10000")
+                        .param("order", "AMOUNT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(20));
+    }
 }
@@ -4,20 +4,30 @@ import com.cashlog.entity.Category;
 import com.cashlog.entity.Tag;
 import com.cashlog.entity.Transaction;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.projection.BreakdownRow;
+import com.cashlog.repository.projection.DayTotals;
+import com.cashlog.repository.projection.PivotCell;
+import com.cashlog.repository.projection.RangeTotals;
+import com.cashlog.specification.TagMatch;
 import com.cashlog.specification.TransactionSpecifications;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -34,6 +44,9 @@ class TransactionRepositoryTest {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Category category(String name) {
         return categoryRepository.save(Category.builder().name(name).color("#3B82F6").build());
     }
@@ -217,4 +230,283 @@ class TransactionRepositoryTest {
         Page<Transaction> all = transactionRepository.findAll(TransactionSpecifications.withFilters(null, null, null, null, null), PageRequest.of(0, 20));
         assertEquals(3, all.getTotalElements());
     }
+
+    @Test
+    void sumByCategoryAndTag_groupInTheDatabase() {
+        Category food = category("Food");
+        Category transport = category("Transport");
+        Tag lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Tag work = tagRepository.save(Tag.builder().name("work").color("#222222").build());
+
+        Transaction both = tx(LocalDate.of(2024, 2, 5), TransactionType.EXPENSE, "10000", food);
+        both.setTags(new HashSet<>(Set.of(lunch, work)));
+        Transaction lunchOnly = tx(LocalDate.of(2024, 6, 5), TransactionType.EXPENSE, "4000", food);
+        lunchOnly.setTags(new HashSet<>(Set.of(lunch)));
+        transactionRepository.saveAll(List.of(
+                both,
+                lunchOnly,
+                tx(LocalDate.of(2024, 6, 9), TransactionType.EXPENSE, "3000", transport),
+                tx(LocalDate.of(2024, 6, 9), TransactionType.INCOME, "99000", transport),
+                // Outside the range.
+                tx(LocalDate.of(2025, 1, 1), TransactionType.EXPENSE, "50000", food)
+        ));
+
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+
+        List<BreakdownRow> byCategory = transactionRepository.sumByCategory(start, end, TransactionType.EXPENSE);
+        assertEquals(2, byCategory.size());
+        BreakdownRow foodRow = byCategory.stream().filter(r -> r.id().equals(food.getId())).findFirst().orElseThrow();
+        assertEquals("Food", foodRow.name());
+        assertEquals(0, new BigDecimal("14000").compareTo(foodRow.amount()));
+
+        List<BreakdownRow> byTag = transactionRepository.sumByTag(start, end, TransactionType.EXPENSE);
+        assertEquals(2, byTag.size());
+        BreakdownRow lunchRow = byTag.stream().filter(r -> r.id().equals(lunch.getId())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("14000").compareTo(lunchRow.amount()));
+        BreakdownRow workRow = byTag.stream().filter(r -> r.id().equals(work.getId())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("10000").compareTo(workRow.amount()));
+    }
+
+    @Test
+    void summarizeRangeAndDailyBuckets_groupInTheDatabase() {
+        Category food = category("Food");
+        Category salary = category("Salary");
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 2, 25), TransactionType.INCOME, "3000000", salary),
+                tx(LocalDate.of(2024, 3, 10), TransactionType.EXPENSE, "7000", food),
+                tx(LocalDate.of(2024, 3, 10), TransactionType.EXPENSE, "5000.50", food),
+                // Outside the pay period.
+                tx(LocalDate.of(2024, 3, 25), TransactionType.EXPENSE, "999", food)
+        ));
+
+        RangeTotals totals = transactionRepository.summarizeRange(LocalDate.of(2024, 2, 25), LocalDate.of(2024, 3, 24));
+        assertEquals(0, new BigDecimal("3000000").compareTo(totals.income()));
+        assertEquals(0, new BigDecimal("12000.50").compareTo(totals.expense()));
+        assertEquals(3L, totals.transactionCount());
+
+        RangeTotals empty = transactionRepository.summarizeRange(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 31));
+        assertEquals(0, BigDecimal.ZERO.compareTo(empty.income()));
+        assertEquals(0L, empty.transactionCount());
+
+        List<Object[]> buckets = transactionRepository.aggregateByDayTypeAndCategory();
+        assertEquals(3, buckets.size());
+        Object[] foodOnTenth = buckets.stream()
+                .filter(r -> r[0].equals(LocalDate.of(2024, 3, 10)))
+                .findFirst().orElseThrow();
+        assertEquals(TransactionType.EXPENSE, foodOnTenth[1]);
+        assertEquals(food.getId(), foodOnTenth[2]);
+        assertEquals(0, new BigDecimal("12000.50").compareTo((BigDecimal) foodOnTenth[3]));
+        assertEquals(2L, ((Number) foodOnTenth[4]).longValue());
+    }
+
+    @Test
+    void summarizeByDay_groupsByTransactionDate_inDateOrder() {
+        Category food = category("Food");
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 2, 9), TransactionType.EXPENSE, "4000", food),
+                tx(LocalDate.of(2024, 2, 5), TransactionType.EXPENSE, "12000", food),
+                tx(LocalDate.of(2024, 2, 5), TransactionType.INCOME, "50000", food),
+                tx(LocalDate.of(2024, 2, 5), TransactionType.EXPENSE, "1000", food),
+                // Outside the month.
+                tx(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "999", food)
+        ));
+
+        List<DayTotals> days = transactionRepository.summarizeByDay(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+
+        assertEquals(2, days.size());
+        DayTotals fifth = days.get(0);
+        assertEquals(LocalDate.of(2024, 2, 5), fifth.date());
+        assertEquals(0, new BigDecimal("50000").compareTo(fifth.income()));
+        assertEquals(0, new BigDecimal("13000").compareTo(fifth.expense()));
+        assertEquals(3L, fifth.transactionCount());
+        assertEquals(LocalDate.of(2024, 2, 9), days.get(1).date());
+        assertEquals(0, BigDecimal.ZERO.compareTo(days.get(1).income()));
+    }
+
+    @Test
+    void aggregateByBucket_truncatesDatesInTheDatabase() {
+        Category food = category("Food");
+        transactionRepository.saveAll(List.of(
+                // Monday and Sunday of ISO week 2024-W01, which starts on 2024-01-01.
+                tx(LocalDate.of(2024, 1, 1), TransactionType.INCOME, "50000", food),
+                tx(LocalDate.of(2024, 1, 7), TransactionType.EXPENSE, "3000", food),
+                tx(LocalDate.of(2024, 1, 8), TransactionType.EXPENSE, "2000", food),
+                tx(LocalDate.of(2024, 5, 20), TransactionType.EXPENSE, "1000", food),
+                // Outside the range.
+                tx(LocalDate.of(2025, 1, 2), TransactionType.EXPENSE, "999", food)
+        ));
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+
+        List<Object[]> weeks = transactionRepository.aggregateByBucket("WEEK", start, end);
+        assertEquals(3, weeks.size());
+        assertEquals(LocalDate.of(2024, 1, 1), ((Date) weeks.get(0)[0]).toLocalDate());
+        assertEquals(0, new BigDecimal("50000").compareTo((BigDecimal) weeks.get(0)[1]));
+        assertEquals(0, new BigDecimal("3000").compareTo((BigDecimal) weeks.get(0)[2]));
+        assertEquals(2L, ((Number) weeks.get(0)[3]).longValue());
+        assertEquals(LocalDate.of(2024, 1, 8), ((Date) weeks.get(1)[0]).toLocalDate());
+        assertEquals(LocalDate.of(2024, 5, 20), ((Date) weeks.get(2)[0]).toLocalDate());
+
+        List<Object[]> quarters = transactionRepository.aggregateByBucket("QUARTER", start, end);
+        assertEquals(2, quarters.size());
+        assertEquals(LocalDate.of(2024, 4, 1), ((Date) quarters.get(1)[0]).toLocalDate());
+
+        List<Object[]> years = transactionRepository.aggregateByBucket("YEAR", start, end);
+        assertEquals(1, years.size());
+        assertEquals(0, new BigDecimal("6000").compareTo((BigDecimal) years.get(0)[2]));
+
+        assertEquals(4, transactionRepository.aggregateByBucket("DAY", start, end).size());
+        assertEquals(2, transactionRepository.aggregateByBucket("MONTH", start, end).size());
+    }
+
+    @Test
+    void sumByCategoryAndTagAndMonth_groupInOneQueryEach() {
+        Category food = category("Food");
+        Tag lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Tag work = tagRepository.save(Tag.builder().name("work").color("#222222").build());
+
+        Transaction both = tx(LocalDate.of(2024, 1, 5), TransactionType.EXPENSE, "10000", food);
+        both.setTags(new HashSet<>(Set.of(lunch, work)));
+        Transaction lunchOnly = tx(LocalDate.of(2024, 1, 20), TransactionType.EXPENSE, "4000", food);
+        lunchOnly.setTags(new HashSet<>(Set.of(lunch)));
+        transactionRepository.saveAll(List.of(
+                both,
+                lunchOnly,
+                tx(LocalDate.of(2024, 3, 9), TransactionType.EXPENSE, "3000", food),
+                tx(LocalDate.of(2024, 3, 9), TransactionType.INCOME, "99000", food)
+        ));
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+
+        List<PivotCell> byCategory = transactionRepository.sumByCategoryAndMonth(start, end, TransactionType.EXPENSE);
+        assertEquals(2, byCategory.size());
+        PivotCell january = byCategory.stream().filter(c -> c.month() == 1).findFirst().orElseThrow();
+        assertEquals(2024, january.year());
+        assertEquals("Food", january.name());
+        assertEquals(0, new BigDecimal("14000").compareTo(january.amount()));
+
+        List<PivotCell> byTag = transactionRepository.sumByTagAndMonth(start, end, TransactionType.EXPENSE);
+        assertEquals(2, byTag.size());
+        PivotCell lunchJanuary = byTag.stream().filter(c -> c.id().equals(lunch.getId())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("14000").compareTo(lunchJanuary.amount()));
+    }
+
+    @Test
+    void isAfterInDescendingOrder_walksEveryRowOnce_acrossTiedDates() {
+        Category food = category("Food");
+        Category rent = category("Rent");
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, "1", food),
+                tx(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "2", food),
+                tx(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "3", rent),
+                tx(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "4", food),
+                tx(LocalDate.of(2024, 2, 28), TransactionType.EXPENSE, "5", food)
+        ));
+        Specification<Transaction> foodOnly = TransactionSpecifications.withFilters(
+                null, null, null, List.of(food.getId()), null);
+        Sort order = Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id"));
+
+        List<String> seen = new ArrayList<>();
+        Specification<Transaction> seek = foodOnly;
+        while (true) {
+            List<Transaction> page = transactionRepository.findBy(seek, q -> q.sortBy(order).limit(2).all());
+            if (page.isEmpty()) break;
+            page.forEach(t -> seen.add(t.getAmountKrw().stripTrailingZeros().toPlainString()));
+            Transaction last = page.get(page.size() - 1);
+            seek = foodOnly.and(TransactionSpecifications.isAfterInDescendingOrder(last.getTransactionDate(), last.getId()));
+        }
+
+        assertEquals(List.of("1", "4", "2", "5"), seen);
+    }
+
+    @Test
+    void isAfterInAmountDescendingOrder_walksAmountRangeOnce_acrossTiedAmounts() {
+        Category food = category("Food");
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "50000", food),
+                tx(LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, "30000", food),
+                tx(LocalDate.of(2024, 3, 3), TransactionType.EXPENSE, "30000", food),
+                tx(LocalDate.of(2024, 3, 4), TransactionType.EXPENSE, "30000", food),
+                tx(LocalDate.of(2024, 3, 5), TransactionType.EXPENSE, "10000", food),
+                tx(LocalDate.of(2024, 3, 6), TransactionType.EXPENSE, "9000", food)
+        ));
+        Specification<Transaction> range = TransactionSpecifications.withFilters(null, null, null, null, null,
+                TagMatch.ANY, new BigDecimal("10000"), new BigDecimal("30000"));
+        Sort order = Sort.by(Sort.Order.desc("amountKrw"), Sort.Order.desc("id"));
+
+        List<LocalDate> seen = new ArrayList<>();
+        Specification<Transaction> seek = range;
+        while (true) {
+            List<Transaction> page = transactionRepository.findBy(seek, q -> q.sortBy(order).limit(2).all());
+            if (page.isEmpty()) break;
+            page.forEach(t -> seen.add(t.getTransactionDate()));
+            Transaction last = page.get(page.size() - 1);
+            seek = range.and(TransactionSpecifications.isAfterInAmountDescendingOrder(last.getAmountKrw(), last.getId()));
+        }
+
+        assertEquals(List.of(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 2),
+                LocalDate.of(2024, 3, 5)), seen);
+        assertEquals(2, transactionRepository.count(TransactionSpecifications.withFilters(null, null, null, null, null,
+                TagMatch.ANY, null, new BigDecimal("10000"))));
+    }
+
+    @Test
+    void largestExpensesOfAQuarter_readTheTypeAmountIndexInOrder() {
+        Category food = category("Food");
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(tx(LocalDate.of(2024, 1, 1).plusDays(i * 3L),
+                    i % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    String.valueOf(1000 + i * 37 % 5000), food));
+        }
+        transactionRepository.saveAll(rows);
+        entityManager.flush();
+
+        // The statement the amount-ordered list runs with a type and date
+        // filter: the seek starts at the cursor and no sort step follows.
+        String plan = (String) entityManager.createNativeQuery("""
+                EXPLAIN SELECT id FROM transaction
+                WHERE transaction_type = 'EXPENSE'
+                  AND transaction_date BETWEEN DATE '2024-04-01' AND DATE '2024-06-30'
+                  AND amount_krw <= 3000 AND (amount_krw < 3000 OR (amount_krw = 3000 AND id < 100))
+                ORDER BY transaction_type, amount_krw DESC, id DESC
+                FETCH FIRST 21 ROWS ONLY""").getSingleResult();
+
+        assertTrue(plan.contains("IDX_TRANSACTION_TYPE_AMOUNT_ID: AMOUNT_KRW <= "), plan);
+        assertTrue(plan.contains("/* index sorted */"), plan);
+    }
+
+    @Test
+    void tagFilters_matchAnyOrAllTags_withoutDuplicatingRows() {
+        Category food = category("Food");
+        Tag lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Tag work = tagRepository.save(Tag.builder().name("work").color("#222222").build());
+        Tag trip = tagRepository.save(Tag.builder().name("trip").color("#333333").build());
+
+        Transaction lunchAtWork = tx(LocalDate.of(2024, 2, 5), TransactionType.EXPENSE, "10000", food);
+        lunchAtWork.setTags(new HashSet<>(Set.of(lunch, work)));
+        Transaction lunchOnTrip = tx(LocalDate.of(2024, 2, 6), TransactionType.EXPENSE, "20000", food);
+        lunchOnTrip.setTags(new HashSet<>(Set.of(lunch, trip)));
+        Transaction everything = tx(LocalDate.of(2024, 2, 7), TransactionType.EXPENSE, "30000", food);
+        everything.setTags(new HashSet<>(Set.of(lunch, work, trip)));
+        transactionRepository.saveAll(List.of(lunchAtWork, lunchOnTrip, everything,
+                tx(LocalDate.of(2024, 2, 8), TransactionType.EXPENSE, "40000", food)));
+
+        List<Long> lunchOrWork = List.of(lunch.getId(), work.getId());
+        Page<Transaction> any = transactionRepository.findAll(TransactionSpecifications.withFilters(
+                null, null, null, null, lunchOrWork, TagMatch.ANY), PageRequest.of(0, 20));
+        assertEquals(3, any.getTotalElements());
+        assertEquals(3, any.getContent().size());
+
+        List<Transaction> all = transactionRepository.findAll(TransactionSpecifications.withFilters(
+                null, null, null, null, lunchOrWork, TagMatch.ALL));
+        assertEquals(Set.of(lunchAtWork.getId(), everything.getId()),
+                all.stream().map(Transaction::getId).collect(Collectors.toSet()));
+
+        // A repeated id must not raise the number of tags required.
+        List<Transaction> repeated = transactionRepository.findAll(TransactionSpecifications.withFilters(
+                null, null, null, null, List.of(trip.getId(), trip.getId()), TagMatch.ALL));
+        assertEquals(2, repeated.size());
+    }
 }
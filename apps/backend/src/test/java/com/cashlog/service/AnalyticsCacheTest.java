@@ -0,0 +1,196 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.PivotCubeDTO;
+import com.cashlog.dto.response.PivotMemberDTO;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.CategoryChangedEvent;
+import com.cashlog.event.TagChangedEvent;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsCacheTest {
+
+    private final AnalyticsCache cache = new AnalyticsCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+    private static final YearMonth MAY = YearMonth.of(2024, 5);
+
+    @Test
+    void get_loadsOnce_thenServesCachedValue() {
+        AtomicInteger loads = new AtomicInteger();
+        AnalyticsCache.Key key = summary(MARCH);
+
+        cache.get(key, () -> "v" + loads.incrementAndGet());
+        String second = cache.get(key, () -> "v" + loads.incrementAndGet());
+
+        assertEquals("v1", second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void transactionEdit_evictsOnlyOldAndNewMonth_andLaterTrends() {
+        cache.get(summary(MARCH), () -> "march");
+        cache.get(summary(APRIL), () -> "april");
+        cache.get(summary(MAY), () -> "may");
+        cache.get(AnalyticsCache.Key.daily(MARCH.atDay(1), MARCH.atEndOfMonth()), () -> "march-days");
+        cache.get(AnalyticsCache.Key.daily(APRIL.atDay(1), APRIL.atEndOfMonth()), () -> "april-days");
+        cache.get(AnalyticsCache.Key.trend(MARCH.atDay(1), MARCH.atEndOfMonth()), () -> "trend-to-march");
+        cache.get(AnalyticsCache.Key.trend(MARCH.atDay(1), MAY.atEndOfMonth()), () -> "trend-to-may");
+        cache.get(AnalyticsCache.Key.trend(null, null), () -> "trend-all");
+
+        // Moved from March to May
+        cache.onTransactionChanged(TransactionChangedEvent.updated(
+                row(MARCH.atDay(10), TransactionType.EXPENSE), row(MAY.atDay(2), TransactionType.EXPENSE)));
+
+        assertEvicted(summary(MARCH));
+        assertCached(summary(APRIL), "april");
+        assertEvicted(summary(MAY));
+        assertEvicted(AnalyticsCache.Key.daily(MARCH.atDay(1), MARCH.atEndOfMonth()));
+        assertCached(AnalyticsCache.Key.daily(APRIL.atDay(1), APRIL.atEndOfMonth()), "april-days");
+        assertEvicted(AnalyticsCache.Key.trend(MARCH.atDay(1), MARCH.atEndOfMonth()));
+        assertEvicted(AnalyticsCache.Key.trend(MARCH.atDay(1), MAY.atEndOfMonth()));
+        assertEvicted(AnalyticsCache.Key.trend(null, null));
+    }
+
+    @Test
+    void transactionEdit_keepsTrendsEndingBeforeIt_andOtherTypeBreakdowns() {
+        cache.get(AnalyticsCache.Key.trend(MARCH.atDay(1), MARCH.atEndOfMonth()), () -> "trend-to-march");
+        cache.get(AnalyticsCache.Key.categoryBreakdown(APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.INCOME),
+                () -> List.of());
+        cache.get(AnalyticsCache.Key.categoryBreakdown(APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.EXPENSE),
+                () -> List.of());
+
+        cache.onTransactionChanged(TransactionChangedEvent.created(row(APRIL.atDay(5), TransactionType.EXPENSE)));
+
+        assertCached(AnalyticsCache.Key.trend(MARCH.atDay(1), MARCH.atEndOfMonth()), "trend-to-march");
+        assertCached(AnalyticsCache.Key.categoryBreakdown(APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.INCOME),
+                List.of());
+        assertEvicted(AnalyticsCache.Key.categoryBreakdown(APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.EXPENSE));
+    }
+
+    @Test
+    void bulkChange_evictsOnlyTheKindsItCanReach() {
+        AnalyticsCache.Key categories = AnalyticsCache.Key.categoryBreakdown(
+                MARCH.atDay(1), MARCH.atEndOfMonth(), TransactionType.EXPENSE);
+        AnalyticsCache.Key tags = AnalyticsCache.Key.tagBreakdown(
+                MARCH.atDay(1), MARCH.atEndOfMonth(), TransactionType.EXPENSE);
+        AnalyticsCache.Key aprilCategories = AnalyticsCache.Key.categoryBreakdown(
+                APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.EXPENSE);
+        cache.get(summary(MARCH), () -> "march");
+        cache.get(categories, () -> List.of());
+        cache.get(tags, () -> List.of());
+        cache.get(aprilCategories, () -> List.of());
+        List<TransactionsBulkChangedEvent.DayBucket> before = List.of(new TransactionsBulkChangedEvent.DayBucket(
+                MARCH.atDay(10), TransactionType.EXPENSE, 1L, new BigDecimal("2000"), 2));
+
+        cache.onTransactionsBulkChanged(TransactionsBulkChangedEvent.categorySet(List.of(1L, 2L), before, 2L));
+
+        assertCached(summary(MARCH), "march");
+        assertEvicted(categories);
+        assertCached(tags, List.of());
+        assertCached(aprilCategories, List.of());
+
+        cache.onTransactionsBulkChanged(TransactionsBulkChangedEvent.deleted(List.of(1L, 2L), before));
+
+        assertEvicted(summary(MARCH));
+        assertEvicted(tags);
+        assertCached(aprilCategories, List.of());
+    }
+
+    @Test
+    void rename_evictsOnlyBreakdownsListingIt() {
+        AnalyticsCache.Key withFood = AnalyticsCache.Key.categoryBreakdown(
+                MARCH.atDay(1), MARCH.atEndOfMonth(), TransactionType.EXPENSE);
+        AnalyticsCache.Key withoutFood = AnalyticsCache.Key.categoryBreakdown(
+                APRIL.atDay(1), APRIL.atEndOfMonth(), TransactionType.EXPENSE);
+        AnalyticsCache.Key tagsWithSameId = AnalyticsCache.Key.tagBreakdown(
+                MARCH.atDay(1), MARCH.atEndOfMonth(), TransactionType.EXPENSE);
+        List<BreakdownItemDTO> foodAndRent = List.of(item(1L), item(2L));
+        List<BreakdownItemDTO> rentOnly = List.of(item(2L));
+        List<BreakdownItemDTO> tagOne = List.of(item(1L));
+        cache.get(withFood, () -> foodAndRent);
+        cache.get(withoutFood, () -> rentOnly);
+        cache.get(tagsWithSameId, () -> tagOne);
+        cache.get(summary(MARCH), () -> "march");
+
+        cache.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        assertEvicted(withFood);
+        assertCached(withoutFood, rentOnly);
+        assertCached(tagsWithSameId, tagOne);
+        assertCached(summary(MARCH), "march");
+
+        cache.onTagChanged(new TagChangedEvent(1L));
+
+        assertEvicted(tagsWithSameId);
+    }
+
+    @Test
+    void rename_evictsOnlyPivotsListingIt() {
+        LocalDate start = MARCH.atDay(1);
+        LocalDate end = MAY.atEndOfMonth();
+        AnalyticsCache.Key expenses = AnalyticsCache.Key.pivot(start, end, TransactionType.EXPENSE, PivotDimension.CATEGORY);
+        AnalyticsCache.Key income = AnalyticsCache.Key.pivot(start, end, TransactionType.INCOME, PivotDimension.CATEGORY);
+        PivotCubeDTO withFood = PivotCubeDTO.builder().rows(List.of(member(1L), member(2L))).build();
+        PivotCubeDTO salaryOnly = PivotCubeDTO.builder().rows(List.of(member(3L))).build();
+        cache.get(expenses, () -> withFood);
+        cache.get(income, () -> salaryOnly);
+
+        cache.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        assertEvicted(expenses);
+        assertCached(income, salaryOnly);
+    }
+
+    @Test
+    void get_doesNotKeepValue_whenInvalidatedWhileLoading() {
+        AnalyticsCache.Key key = summary(MARCH);
+
+        String loaded = cache.get(key, () -> {
+            cache.onTransactionChanged(TransactionChangedEvent.created(row(MAY.atDay(1), TransactionType.INCOME)));
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEvicted(key);
+    }
+
+    private void assertCached(AnalyticsCache.Key key, Object expected) {
+        assertEquals(expected, cache.get(key, () -> fail("expected a cache hit for " + key)));
+    }
+
+    private void assertEvicted(AnalyticsCache.Key key) {
+        assertEquals("reloaded", cache.get(key, () -> "reloaded"));
+    }
+
+    private static AnalyticsCache.Key summary(YearMonth month) {
+        return AnalyticsCache.Key.summary(month.atDay(1), month.atEndOfMonth());
+    }
+
+    private static TransactionSnapshot row(LocalDate date, TransactionType type) {
+        return new TransactionSnapshot(1L, date, type, 1L, new BigDecimal("1000"), Set.of());
+    }
+
+    private static BreakdownItemDTO item(Long id) {
+        return BreakdownItemDTO.builder().id(id).name("n" + id).amount(BigDecimal.ONE).percentage(100.0).build();
+    }
+
+    private static PivotMemberDTO member(Long id) {
+        return PivotMemberDTO.builder().id(id).name("m" + id).build();
+    }
+}
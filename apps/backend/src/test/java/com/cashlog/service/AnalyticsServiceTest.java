@@ -1,26 +1,47 @@
 package com.cashlog.service;
 
 import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.PivotMemberDTO;
+import com.cashlog.dto.response.TrendBucketDTO;
 import com.cashlog.entity.Category;
-import com.cashlog.entity.Tag;
-import com.cashlog.entity.Transaction;
+import com.cashlog.entity.MonthlyBalance;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.MonthlyAggregateRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TagRepository;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.repository.projection.BreakdownRow;
+import com.cashlog.repository.projection.DayTotals;
+import com.cashlog.repository.projection.MonthTotals;
+import com.cashlog.repository.projection.PivotCell;
+import com.cashlog.repository.projection.RangeTotals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,28 +50,70 @@ class AnalyticsServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private MonthlyAggregateRepository monthlyAggregateRepository;
+
+    @Mock
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private ObjectProvider<ColumnarLedger> columnarLedgerProvider;
+
+    @Mock
+    private DailyAggregateIndex dailyAggregateIndex;
+
+    @Spy
+    private AnalyticsCache analyticsCache = new AnalyticsCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
     @InjectMocks
     private AnalyticsService analyticsService;
 
-    private Transaction expense(BigDecimal amount, Category category, Tag... tags) {
-        Set<Tag> tagSet = new HashSet<>(List.of(tags));
-        return Transaction.builder()
-                .transactionDate(LocalDate.of(2024, 3, 10))
-                .transactionType(TransactionType.EXPENSE)
-                .originalAmount(amount)
-                .originalCurrency("KRW")
-                .amountKrw(amount)
-                .category(category)
-                .tags(tagSet)
-                .build();
+    @Test
+    void getMonthlySummary_isServedFromCache_onRepeatCalls() {
+        when(monthlyAggregateRepository.summarizeMonth(202403))
+                .thenReturn(new MonthTotals(new BigDecimal("100000"), BigDecimal.ZERO));
+
+        var first = analyticsService.getMonthlySummary(2024, 3);
+        var second = analyticsService.getMonthlySummary(2024, 3);
+
+        assertSame(first, second);
+        verify(monthlyAggregateRepository, times(1)).summarizeMonth(202403);
+    }
+
+    @Test
+    void readingDatabaseOnly_bypassesTheCacheAndTheInMemoryIndexes() {
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(monthlyAggregateRepository.summarizeMonth(202403))
+                .thenReturn(new MonthTotals(new BigDecimal("100000"), BigDecimal.ZERO));
+        when(transactionRepository.summarizeRange(start, end))
+                .thenReturn(new RangeTotals(new BigDecimal("100000"), BigDecimal.ZERO, 1L));
+        when(columnarLedgerProvider.getIfAvailable()).thenReturn(null);
+        analyticsService.getMonthlySummary(2024, 3);
+
+        var range = analyticsService.readingDatabaseOnly(() -> {
+            analyticsService.getMonthlySummary(2024, 3);
+            return analyticsService.getRangeSummary(start, end);
+        });
+
+        assertEquals(1, range.getTransactionCount());
+        verify(monthlyAggregateRepository, times(2)).summarizeMonth(202403);
+        verifyNoInteractions(dailyAggregateIndex);
+        // Outside the block the cache answers again.
+        analyticsService.getMonthlySummary(2024, 3);
+        verify(monthlyAggregateRepository, times(2)).summarizeMonth(202403);
     }
 
     @Test
     void getMonthlySummary_computesNetAmount_withoutBudgetFields() {
-        when(transactionRepository.sumAmountByDateRangeAndType(any(), any(), eq(TransactionType.INCOME)))
-                .thenReturn(new BigDecimal("100000"));
-        when(transactionRepository.sumAmountByDateRangeAndType(any(), any(), eq(TransactionType.EXPENSE)))
-                .thenReturn(new BigDecimal("40000"));
+        when(monthlyAggregateRepository.summarizeMonth(202403))
+                .thenReturn(new MonthTotals(new BigDecimal("100000"), new BigDecimal("40000")));
 
         var summary = analyticsService.getMonthlySummary(2024, 3);
 
@@ -62,24 +125,125 @@ class AnalyticsServiceTest {
     }
 
     @Test
-    void getMonthlySummary_treatsNullSums_asZero() {
-        when(transactionRepository.sumAmountByDateRangeAndType(any(), any(), any())).thenReturn(null);
+    void getRangeSummary_readsTheDailyIndex_whenLoaded() {
+        LocalDate start = LocalDate.of(2024, 2, 25);
+        LocalDate end = LocalDate.of(2024, 3, 24);
+        when(dailyAggregateIndex.isReady()).thenReturn(true);
+        when(dailyAggregateIndex.totals(start, end)).thenReturn(new long[]{300000000L, 1280050L, 1, 5});
+
+        var summary = analyticsService.getRangeSummary(start, end);
+
+        assertEquals(0, new BigDecimal("3000000").compareTo(summary.getTotalIncome()));
+        assertEquals(0, new BigDecimal("12800.50").compareTo(summary.getTotalExpense()));
+        assertEquals(0, new BigDecimal("2987199.50").compareTo(summary.getNetAmount()));
+        assertEquals(6, summary.getTransactionCount());
+        verifyNoInteractions(transactionRepository);
+    }
 
-        var summary = analyticsService.getMonthlySummary(2024, 3);
+    @Test
+    void getRangeSummary_fallsBackToSql_untilTheIndexIsLoaded() {
+        LocalDate start = LocalDate.of(2024, 2, 25);
+        LocalDate end = LocalDate.of(2024, 3, 24);
+        when(transactionRepository.summarizeRange(start, end))
+                .thenReturn(new RangeTotals(new BigDecimal("100000"), new BigDecimal("40000"), 3L));
+
+        var summary = analyticsService.getRangeSummary(start, end);
 
-        assertEquals(0, BigDecimal.ZERO.compareTo(summary.getTotalIncome()));
-        assertEquals(0, BigDecimal.ZERO.compareTo(summary.getTotalExpense()));
-        assertEquals(0, BigDecimal.ZERO.compareTo(summary.getNetAmount()));
+        assertEquals(0, new BigDecimal("60000").compareTo(summary.getNetAmount()));
+        assertEquals(3, summary.getTransactionCount());
+        verify(dailyAggregateIndex, never()).totals(any(), any());
+    }
+
+    @Test
+    void getDailyTotals_mapsGroupedDays_andComputesNet() {
+        LocalDate start = LocalDate.of(2024, 2, 1);
+        LocalDate end = LocalDate.of(2024, 2, 29);
+        when(transactionRepository.summarizeByDay(start, end)).thenReturn(List.of(
+                new DayTotals(LocalDate.of(2024, 2, 5), new BigDecimal("50000"), new BigDecimal("12000"), 3L),
+                new DayTotals(LocalDate.of(2024, 2, 29), BigDecimal.ZERO, new BigDecimal("8000"), 1L)));
+
+        var days = analyticsService.getDailyTotals(2024, 2);
+        analyticsService.getDailyTotals(2024, 2);
+
+        assertEquals(2, days.size());
+        assertEquals(LocalDate.of(2024, 2, 5), days.get(0).getDate());
+        assertEquals(0, new BigDecimal("38000").compareTo(days.get(0).getNetAmount()));
+        assertEquals(3, days.get(0).getTransactionCount());
+        assertEquals(0, new BigDecimal("-8000").compareTo(days.get(1).getNetAmount()));
+        verify(transactionRepository, times(1)).summarizeByDay(start, end);
+    }
+
+    @Test
+    void getTrend_zeroFillsWeeks_andClipsEdgeBuckets() {
+        // Wednesday to the Friday two weeks later.
+        LocalDate start = LocalDate.of(2024, 1, 3);
+        LocalDate end = LocalDate.of(2024, 1, 19);
+        when(transactionRepository.aggregateByBucket("WEEK", start, end)).thenReturn(List.<Object[]>of(
+                new Object[]{Date.valueOf("2024-01-01"), new BigDecimal("50000"), new BigDecimal("10000"), 2L},
+                new Object[]{Date.valueOf("2024-01-15"), BigDecimal.ZERO, new BigDecimal("5000"), 1L}));
+        when(monthlyBalanceRepository.findFirstByMonthKeyLessThanOrderByMonthKeyDesc(202401))
+                .thenReturn(Optional.of(new MonthlyBalance(202312, new BigDecimal("1000"))));
+
+        var buckets = analyticsService.getTrend(start, end, TrendGranularity.WEEK);
+
+        assertEquals(3, buckets.size());
+        assertEquals("2024-W01", buckets.get(0).getPeriod());
+        assertEquals(start, buckets.get(0).getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 7), buckets.get(0).getEndDate());
+        assertEquals(0, new BigDecimal("41000").compareTo(buckets.get(0).getCumulativeSavings()));
+
+        assertEquals("2024-W02", buckets.get(1).getPeriod());
+        assertFalse(buckets.get(1).getHasTransactions());
+        assertEquals(0, BigDecimal.ZERO.compareTo(buckets.get(1).getNetAmount()));
+
+        assertEquals(LocalDate.of(2024, 1, 15), buckets.get(2).getStartDate());
+        assertEquals(end, buckets.get(2).getEndDate());
+        assertEquals(0, new BigDecimal("36000").compareTo(buckets.get(2).getCumulativeSavings()));
+    }
+
+    @Test
+    void getTrend_defaultsToRecordedRange_andLabelsQuarters() {
+        when(transactionRepository.findEarliestTransactionDate()).thenReturn(LocalDate.of(2023, 11, 5));
+        when(transactionRepository.findLatestTransactionDate()).thenReturn(LocalDate.of(2024, 4, 2));
+        when(transactionRepository.aggregateByBucket(eq("QUARTER"), any(), any())).thenReturn(List.of());
+
+        var buckets = analyticsService.getTrend(null, null, TrendGranularity.QUARTER);
+
+        assertEquals(List.of("2023-Q4", "2024-Q1", "2024-Q2"),
+                buckets.stream().map(TrendBucketDTO::getPeriod).toList());
+    }
+
+    @Test
+    void getPivot_laysOutDenseRowMajorMatrix_withTotals() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(transactionRepository.sumByCategoryAndMonth(start, end, TransactionType.EXPENSE)).thenReturn(List.of(
+                new PivotCell(2024, 1, 1L, "Food", "#111111", new BigDecimal("10000")),
+                new PivotCell(2024, 3, 1L, "Food", "#111111", new BigDecimal("5000")),
+                new PivotCell(2024, 2, 2L, "Rent", "#222222", new BigDecimal("500000"))));
+
+        var cube = analyticsService.getPivot(start, end, TransactionType.EXPENSE, PivotDimension.CATEGORY);
+
+        assertEquals(List.of("2024-01", "2024-02", "2024-03"), cube.getMonths());
+        // Largest row first.
+        assertEquals(List.of("Rent", "Food"), cube.getRows().stream().map(PivotMemberDTO::getName).toList());
+        assertEquals(6, cube.getAmounts().size());
+        assertEquals(0, new BigDecimal("500000").compareTo(cube.getAmounts().get(1)));
+        assertEquals(0, new BigDecimal("10000").compareTo(cube.getAmounts().get(3)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(cube.getAmounts().get(4)));
+        assertEquals(0, new BigDecimal("15000").compareTo(cube.getRowTotals().get(1)));
+        assertEquals(0, new BigDecimal("10000").compareTo(cube.getColumnTotals().get(0)));
+        assertEquals(0, new BigDecimal("515000").compareTo(cube.getGrandTotal()));
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getMonthlyTrend_fillsGapMonths_andComputesNet() {
-        when(transactionRepository.aggregateMonthlyTotals(any(), any())).thenReturn(List.of(
-                new Object[]{2024, 1, TransactionType.INCOME, new BigDecimal("100000")},
-                new Object[]{2024, 1, TransactionType.EXPENSE, new BigDecimal("40000")},
-                new Object[]{2024, 3, TransactionType.EXPENSE, new BigDecimal("25000")}
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(202401, 202403)).thenReturn(List.of(
+                new Object[]{202401, TransactionType.INCOME, new BigDecimal("100000")},
+                new Object[]{202401, TransactionType.EXPENSE, new BigDecimal("40000")},
+                new Object[]{202403, TransactionType.EXPENSE, new BigDecimal("25000")}
         ));
-        when(transactionRepository.aggregateTotalsBefore(any())).thenReturn(List.of());
 
         var points = analyticsService.getMonthlyTrend(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
 
@@ -98,11 +262,10 @@ class AnalyticsServiceTest {
 
     @Test
     void getMonthlyTrend_flagsMonthsWithoutTransactions() {
-        when(transactionRepository.aggregateMonthlyTotals(any(), any())).thenReturn(List.<Object[]>of(
-                new Object[]{2024, 1, TransactionType.INCOME, new BigDecimal("100000")},
-                new Object[]{2024, 3, TransactionType.EXPENSE, new BigDecimal("25000")}
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(202401, 202403)).thenReturn(List.<Object[]>of(
+                new Object[]{202401, TransactionType.INCOME, new BigDecimal("100000")},
+                new Object[]{202403, TransactionType.EXPENSE, new BigDecimal("25000")}
         ));
-        when(transactionRepository.aggregateTotalsBefore(any())).thenReturn(List.of());
 
         var points = analyticsService.getMonthlyTrend(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
 
@@ -113,12 +276,11 @@ class AnalyticsServiceTest {
 
     @Test
     void getMonthlyTrend_accumulatesSavings_carryingGapMonthsForward() {
-        when(transactionRepository.aggregateMonthlyTotals(any(), any())).thenReturn(List.of(
-                new Object[]{2024, 1, TransactionType.INCOME, new BigDecimal("100000")},
-                new Object[]{2024, 1, TransactionType.EXPENSE, new BigDecimal("40000")},
-                new Object[]{2024, 3, TransactionType.EXPENSE, new BigDecimal("25000")}
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(202401, 202403)).thenReturn(List.of(
+                new Object[]{202401, TransactionType.INCOME, new BigDecimal("100000")},
+                new Object[]{202401, TransactionType.EXPENSE, new BigDecimal("40000")},
+                new Object[]{202403, TransactionType.EXPENSE, new BigDecimal("25000")}
         ));
-        when(transactionRepository.aggregateTotalsBefore(any())).thenReturn(List.of());
 
         var points = analyticsService.getMonthlyTrend(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
 
@@ -130,13 +292,11 @@ class AnalyticsServiceTest {
 
     @Test
     void getMonthlyTrend_seedsSavingsWithBalanceBeforeRange() {
-        when(transactionRepository.aggregateMonthlyTotals(any(), any())).thenReturn(List.<Object[]>of(
-                new Object[]{2024, 5, TransactionType.INCOME, new BigDecimal("10000")}
-        ));
-        when(transactionRepository.aggregateTotalsBefore(LocalDate.of(2024, 5, 1))).thenReturn(List.<Object[]>of(
-                new Object[]{TransactionType.INCOME, new BigDecimal("500000")},
-                new Object[]{TransactionType.EXPENSE, new BigDecimal("200000")}
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(202405, 202405)).thenReturn(List.<Object[]>of(
+                new Object[]{202405, TransactionType.INCOME, new BigDecimal("10000")}
         ));
+        when(monthlyBalanceRepository.findFirstByMonthKeyLessThanOrderByMonthKeyDesc(202405))
+                .thenReturn(Optional.of(new MonthlyBalance(202403, new BigDecimal("300000"))));
 
         var points = analyticsService.getMonthlyTrend(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
 
@@ -150,9 +310,8 @@ class AnalyticsServiceTest {
     void getMonthlyTrend_withoutBounds_usesFullRecordedRange() {
         when(transactionRepository.findEarliestTransactionDate()).thenReturn(LocalDate.of(2023, 11, 20));
         when(transactionRepository.findLatestTransactionDate()).thenReturn(LocalDate.of(2024, 1, 5));
-        when(transactionRepository.aggregateMonthlyTotals(LocalDate.of(2023, 11, 20), LocalDate.of(2024, 1, 5)))
-                .thenReturn(List.of());
-        when(transactionRepository.aggregateTotalsBefore(any())).thenReturn(List.of());
+        when(transactionRepository.aggregateMonthlyTotals(any(), any())).thenReturn(List.of());
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(anyInt(), anyInt())).thenReturn(List.of());
 
         var points = analyticsService.getMonthlyTrend(null, null);
 
@@ -160,6 +319,31 @@ class AnalyticsServiceTest {
                 points.stream().map(p -> p.getMonth()).toList());
     }
 
+    @Test
+    void getMonthlyTrend_readsWholeMonthsFromRollup_andOnlyEdgeMonthsFromRawRows() {
+        when(monthlyAggregateRepository.aggregateMonthlyTotals(202402, 202402)).thenReturn(List.<Object[]>of(
+                new Object[]{202402, TransactionType.EXPENSE, new BigDecimal("7000")}
+        ));
+        when(transactionRepository.aggregateMonthlyTotals(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 31)))
+                .thenReturn(List.<Object[]>of(new Object[]{2024, 1, TransactionType.INCOME, new BigDecimal("50000")}));
+        when(transactionRepository.aggregateMonthlyTotals(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10)))
+                .thenReturn(List.<Object[]>of(new Object[]{2024, 3, TransactionType.EXPENSE, new BigDecimal("3000")}));
+        // Opening balance: December's checkpoint, plus Jan 1-14 from raw rows.
+        when(monthlyBalanceRepository.findFirstByMonthKeyLessThanOrderByMonthKeyDesc(202401))
+                .thenReturn(Optional.of(new MonthlyBalance(202312, new BigDecimal("1000"))));
+        when(transactionRepository.aggregateMonthlyTotals(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 14)))
+                .thenReturn(List.<Object[]>of(new Object[]{2024, 1, TransactionType.EXPENSE, new BigDecimal("400")}));
+
+        var points = analyticsService.getMonthlyTrend(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertEquals(3, points.size());
+        assertEquals(0, new BigDecimal("50000").compareTo(points.get(0).getTotalIncome()));
+        assertEquals(0, new BigDecimal("7000").compareTo(points.get(1).getTotalExpense()));
+        assertEquals(0, new BigDecimal("3000").compareTo(points.get(2).getTotalExpense()));
+        // 600 opening + 50,000 - 7,000 - 3,000
+        assertEquals(0, new BigDecimal("40600").compareTo(points.get(2).getCumulativeSavings()));
+    }
+
     @Test
     void getMonthlyTrend_returnsEmpty_whenNoTransactionsExist() {
         when(transactionRepository.findEarliestTransactionDate()).thenReturn(null);
@@ -170,49 +354,87 @@ class AnalyticsServiceTest {
 
     @Test
     void getCategoryBreakdown_groupsByCategory_andComputesPercentage() {
-        Category food = Category.builder().id(1L).name("Food").color("#ff0000").build();
-        Category transport = Category.builder().id(2L).name("Transport").color("#00ff00").build();
-
-        when(transactionRepository.findByDateRangeAndType(any(), any(), eq(TransactionType.EXPENSE)))
+        when(transactionRepository.sumByCategory(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), TransactionType.EXPENSE))
                 .thenReturn(List.of(
-                        expense(new BigDecimal("30000"), food),
-                        expense(new BigDecimal("10000"), food),
-                        expense(new BigDecimal("20000"), transport)
+                        new BreakdownRow(2L, "Transport", "#00ff00", new BigDecimal("20000")),
+                        new BreakdownRow(1L, "Food", "#ff0000", new BigDecimal("40000"))
                 ));
 
         List<BreakdownItemDTO> breakdown = analyticsService.getCategoryBreakdown(2024, 3, TransactionType.EXPENSE);
 
         assertEquals(2, breakdown.size());
-        BreakdownItemDTO foodItem = breakdown.stream().filter(b -> b.getId().equals(1L)).findFirst().orElseThrow();
+        // Largest share first.
+        BreakdownItemDTO foodItem = breakdown.get(0);
+        assertEquals(1L, foodItem.getId());
         assertEquals(0, new BigDecimal("40000").compareTo(foodItem.getAmount()));
         assertEquals(66.67, foodItem.getPercentage(), 0.01);
 
-        BreakdownItemDTO transportItem = breakdown.stream().filter(b -> b.getId().equals(2L)).findFirst().orElseThrow();
+        BreakdownItemDTO transportItem = breakdown.get(1);
         assertEquals(0, new BigDecimal("20000").compareTo(transportItem.getAmount()));
         assertEquals(33.33, transportItem.getPercentage(), 0.01);
     }
 
     @Test
-    void getTagBreakdown_countsTransactionOncePerTag() {
-        Category category = Category.builder().id(1L).name("Food").color("#ff0000").build();
-        Tag lunch = Tag.builder().id(1L).name("lunch").color("#111111").build();
-        Tag work = Tag.builder().id(2L).name("work").color("#222222").build();
-
-        when(transactionRepository.findByDateRangeAndType(any(), any(), eq(TransactionType.EXPENSE)))
-                .thenReturn(List.of(expense(new BigDecimal("10000"), category, lunch, work)));
+    void getTagBreakdown_usesTypeTotalForPercentages() {
+        // One 10,000 transaction tagged both lunch and work, plus an untagged 10,000.
+        when(transactionRepository.sumByTag(any(), any(), eq(TransactionType.EXPENSE)))
+                .thenReturn(List.of(
+                        new BreakdownRow(1L, "lunch", "#111111", new BigDecimal("10000")),
+                        new BreakdownRow(2L, "work", "#222222", new BigDecimal("10000"))
+                ));
+        when(transactionRepository.sumAmountByDateRangeAndType(any(), any(), eq(TransactionType.EXPENSE)))
+                .thenReturn(new BigDecimal("20000"));
 
         List<BreakdownItemDTO> breakdown = analyticsService.getTagBreakdown(2024, 3, TransactionType.EXPENSE);
 
         assertEquals(2, breakdown.size());
         assertTrue(breakdown.stream().allMatch(b -> new BigDecimal("10000").compareTo(b.getAmount()) == 0));
+        assertTrue(breakdown.stream().allMatch(b -> b.getPercentage() == 50.0));
+    }
+
+    @Test
+    void getCategoryBreakdown_acceptsArbitraryRange() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+        when(transactionRepository.sumByCategory(start, end, TransactionType.INCOME))
+                .thenReturn(List.of(new BreakdownRow(1L, "Salary", "#10B981", new BigDecimal("36000000"))));
+
+        List<BreakdownItemDTO> breakdown = analyticsService.getCategoryBreakdown(start, end, TransactionType.INCOME);
+
+        assertEquals(1, breakdown.size());
+        assertEquals(100.0, breakdown.get(0).getPercentage(), 0.001);
     }
 
     @Test
     void getCategoryBreakdown_returnsEmptyList_whenNoTransactions() {
-        when(transactionRepository.findByDateRangeAndType(any(), any(), any())).thenReturn(List.of());
+        when(transactionRepository.sumByCategory(any(), any(), any())).thenReturn(List.of());
 
         List<BreakdownItemDTO> breakdown = analyticsService.getCategoryBreakdown(2024, 3, TransactionType.EXPENSE);
 
         assertTrue(breakdown.isEmpty());
     }
+
+    @Test
+    void columnarLedger_answersInsteadOfJpa_onceLoaded() {
+        ColumnarLedger ledger = mock(ColumnarLedger.class);
+        when(columnarLedgerProvider.getIfAvailable()).thenReturn(ledger);
+        when(ledger.isReady()).thenReturn(true);
+        when(ledger.sumByType(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)))
+                .thenReturn(new long[]{10000000L, 2500050L});
+        when(ledger.sumByCategory(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), TransactionType.EXPENSE))
+                .thenReturn(Map.of(1L, 2500050L));
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                Category.builder().id(1L).name("Food").color("#ff0000").build(),
+                Category.builder().id(2L).name("Rent").color("#00ff00").build()));
+
+        var summary = analyticsService.getMonthlySummary(2024, 3);
+        var breakdown = analyticsService.getCategoryBreakdown(2024, 3, TransactionType.EXPENSE);
+
+        assertEquals(0, new BigDecimal("100000").compareTo(summary.getTotalIncome()));
+        assertEquals(0, new BigDecimal("25000.50").compareTo(summary.getTotalExpense()));
+        assertEquals(1, breakdown.size());
+        assertEquals("Food", breakdown.get(0).getName());
+        assertEquals(0, new BigDecimal("25000.50").compareTo(breakdown.get(0).getAmount()));
+        verifyNoInteractions(monthlyAggregateRepository, transactionRepository);
+    }
 }
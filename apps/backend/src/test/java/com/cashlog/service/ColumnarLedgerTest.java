@@ -0,0 +1,140 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarLedgerTest {
+
+    private final ColumnarLedger ledger = new ColumnarLedger(null, null);
+
+    private static TransactionSnapshot row(long id, LocalDate date, TransactionType type, long categoryId,
+                                           String amount, Long... tagIds) {
+        return new TransactionSnapshot(id, date, type, categoryId, new BigDecimal(amount), Set.of(tagIds));
+    }
+
+    @Test
+    void sumsAndBreakdowns_coverOnlyTheRequestedRange() {
+        ledger.upsert(row(1, LocalDate.of(2024, 3, 1), TransactionType.INCOME, 1, "100000.50"));
+        ledger.upsert(row(2, LocalDate.of(2024, 3, 15), TransactionType.EXPENSE, 2, "3000", 10L, 11L));
+        ledger.upsert(row(3, LocalDate.of(2024, 3, 31), TransactionType.EXPENSE, 2, "2000", 10L));
+        ledger.upsert(row(4, LocalDate.of(2024, 4, 1), TransactionType.EXPENSE, 3, "999"));
+
+        long[] march = ledger.sumByType(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+        assertEquals(0, new BigDecimal("100000.50").compareTo(ColumnarLedger.toAmount(march[0])));
+        assertEquals(0, new BigDecimal("5000").compareTo(ColumnarLedger.toAmount(march[1])));
+
+        Map<Long, Long> byCategory = ledger.sumByCategory(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), TransactionType.EXPENSE);
+        assertEquals(Map.of(2L, 500000L), byCategory);
+
+        Map<Long, Long> byTag = ledger.sumByTag(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), TransactionType.EXPENSE);
+        assertEquals(Map.of(10L, 500000L, 11L, 300000L), byTag);
+
+        assertEquals(10000050L - 500000L, ledger.netBefore(LocalDate.of(2024, 4, 1)));
+    }
+
+    @Test
+    void upsertReplacesARow_andRemoveForgetsIt() {
+        ledger.upsert(row(1, LocalDate.of(2024, 1, 10), TransactionType.EXPENSE, 1, "1000", 5L));
+        ledger.upsert(row(1, LocalDate.of(2024, 2, 10), TransactionType.INCOME, 1, "7000"));
+
+        assertEquals(0, ledger.sumByType(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))[1]);
+        assertTrue(ledger.sumByTag(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), TransactionType.EXPENSE).isEmpty());
+        assertEquals(700000L, ledger.sumByType(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29))[0]);
+
+        ledger.remove(1L);
+        assertArrayEquals(new long[]{0, 0}, ledger.sumByType(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        // Removing an unknown id is a no-op, so a replayed delete is harmless.
+        ledger.remove(1L);
+    }
+
+    @Test
+    void upsert_roundsAmountsLikeTheColumn() {
+        // 12.34 USD at 1312.5678, unrounded: 16197.086652
+        ledger.upsert(row(1, LocalDate.of(2024, 5, 1), TransactionType.EXPENSE, 1, "16197.086652"));
+
+        assertEquals(1619709L, ledger.sumByType(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31))[1]);
+    }
+
+    @Test
+    void bulkChanges_editRowsInPlace_andSkipUnknownIds() {
+        ledger.upsert(row(1, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000", 10L));
+        ledger.upsert(row(2, LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, 1, "500"));
+        ledger.upsert(row(3, LocalDate.of(2024, 3, 3), TransactionType.INCOME, 1, "700"));
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+
+        ledger.onTransactionsBulkChanged(TransactionsBulkChangedEvent.categorySet(List.of(1L, 2L, 99L), List.of(), 2L));
+        ledger.onTransactionsBulkChanged(TransactionsBulkChangedEvent.tagsAdded(List.of(2L), List.of(), Set.of(10L, 11L)));
+        ledger.onTransactionsBulkChanged(TransactionsBulkChangedEvent.tagsRemoved(List.of(1L), List.of(), Set.of(10L)));
+
+        assertEquals(Map.of(2L, 150000L), ledger.sumByCategory(from, to, TransactionType.EXPENSE));
+        assertEquals(Map.of(10L, 50000L, 11L, 50000L), ledger.sumByTag(from, to, TransactionType.EXPENSE));
+
+        ledger.onTransactionsBulkChanged(TransactionsBulkChangedEvent.deleted(List.of(2L, 3L), List.of()));
+
+        assertArrayEquals(new long[]{0, 100000L}, ledger.sumByType(from, to));
+        assertTrue(ledger.sumByTag(from, to, TransactionType.EXPENSE).isEmpty());
+    }
+
+    @Test
+    void monthlyTotals_matchANaiveScan_acrossCompactions() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2020, 1, 1);
+        Map<Long, TransactionSnapshot> expected = new HashMap<>();
+        // Enough churn to cross the compaction threshold several times, with
+        // updates and deletes hitting both the sorted section and the tail.
+        for (int i = 0; i < 6000; i++) {
+            long id = 1 + random.nextInt(2500);
+            if (random.nextInt(10) == 0) {
+                ledger.remove(id);
+                expected.remove(id);
+                continue;
+            }
+            TransactionSnapshot snapshot = row(id, origin.plusDays(random.nextInt(1500)),
+                    random.nextBoolean() ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    1 + random.nextInt(5), String.valueOf(1 + random.nextInt(100000)));
+            ledger.upsert(snapshot);
+            expected.put(id, snapshot);
+        }
+
+        LocalDate start = LocalDate.of(2021, 2, 14);
+        LocalDate end = LocalDate.of(2023, 6, 3);
+        Map<YearMonth, long[]> naive = new HashMap<>();
+        long naiveNetBefore = 0;
+        for (TransactionSnapshot s : expected.values()) {
+            long minor = s.amountKrw().movePointRight(2).longValue();
+            boolean income = s.transactionType() == TransactionType.INCOME;
+            if (s.transactionDate().isBefore(start)) {
+                naiveNetBefore += income ? minor : -minor;
+            } else if (!s.transactionDate().isAfter(end)) {
+                long[] bucket = naive.computeIfAbsent(YearMonth.from(s.transactionDate()), k -> new long[3]);
+                bucket[income ? 0 : 1] += minor;
+                bucket[2]++;
+            }
+        }
+
+        Map<YearMonth, long[]> actual = ledger.monthlyTotals(start, end);
+        assertEquals(naive.keySet(), actual.keySet());
+        List<YearMonth> months = new ArrayList<>(naive.keySet());
+        for (YearMonth month : months) {
+            assertArrayEquals(naive.get(month), actual.get(month), month.toString());
+        }
+        assertEquals(naiveNetBefore, ledger.netBefore(start));
+    }
+}
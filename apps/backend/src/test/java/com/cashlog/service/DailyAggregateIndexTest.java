@@ -0,0 +1,161 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyAggregateIndexTest {
+
+    private final DailyAggregateIndex index = new DailyAggregateIndex(null, null, null, null);
+
+    private static Object[] bucket(LocalDate date, TransactionType type, long categoryId, String amount, long count) {
+        return new Object[]{date, type, categoryId, new BigDecimal(amount), count};
+    }
+
+    private static TransactionSnapshot row(long id, LocalDate date, TransactionType type, long categoryId, String amount) {
+        return new TransactionSnapshot(id, date, type, categoryId, new BigDecimal(amount), Set.of());
+    }
+
+    @Test
+    void totalsAndBreakdowns_coverOnlyTheRequestedRange() {
+        index.loadRows(List.of(
+                bucket(LocalDate.of(2024, 2, 24), TransactionType.EXPENSE, 1, "999", 1),
+                bucket(LocalDate.of(2024, 2, 25), TransactionType.INCOME, 2, "3000000", 1),
+                bucket(LocalDate.of(2024, 3, 10), TransactionType.EXPENSE, 1, "12000.50", 3),
+                bucket(LocalDate.of(2024, 3, 24), TransactionType.EXPENSE, 3, "800", 2),
+                bucket(LocalDate.of(2024, 3, 25), TransactionType.EXPENSE, 3, "5", 1)));
+
+        // Pay period: the 25th to the 24th.
+        long[] totals = index.totals(LocalDate.of(2024, 2, 25), LocalDate.of(2024, 3, 24));
+        assertArrayEquals(new long[]{300000000L, 1280050L, 1, 5}, totals);
+
+        Map<Long, Long> byCategory = index.sumByCategory(
+                LocalDate.of(2024, 2, 25), LocalDate.of(2024, 3, 24), TransactionType.EXPENSE);
+        assertEquals(Map.of(1L, 1200050L, 3L, 80000L), byCategory);
+
+        assertArrayEquals(new long[4], index.totals(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31)));
+    }
+
+    @Test
+    void changes_applyAsDeltas_evenOutsideTheLoadedSpan() {
+        index.loadRows(List.<Object[]>of(bucket(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000", 1)));
+
+        TransactionSnapshot moved = row(1, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000");
+        TransactionSnapshot farAway = row(1, LocalDate.of(1999, 12, 31), TransactionType.INCOME, 2, "700");
+        index.onTransactionChanged(TransactionChangedEvent.updated(moved, farAway));
+        index.onTransactionChanged(TransactionChangedEvent.created(
+                row(2, LocalDate.of(2031, 1, 1), TransactionType.EXPENSE, 1, "50")));
+
+        assertArrayEquals(new long[4], index.totals(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertArrayEquals(new long[]{70000L, 5000L, 1, 1},
+                index.totals(LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1)));
+        assertTrue(index.sumByCategory(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31),
+                TransactionType.EXPENSE).isEmpty());
+    }
+
+    @Test
+    void extremeDates_costOneBlockEach_andRangesAcrossBlocksAddUp() {
+        index.loadRows(List.<Object[]>of(bucket(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000", 1)));
+
+        // A typo'd year used to stretch one dense span over every day in between.
+        index.onTransactionChanged(TransactionChangedEvent.created(
+                row(1, LocalDate.of(1, 1, 1), TransactionType.INCOME, 1, "10")));
+        index.onTransactionChanged(TransactionChangedEvent.created(
+                row(2, LocalDate.MAX, TransactionType.EXPENSE, 2, "20")));
+
+        assertArrayEquals(new long[]{1000L, 102000L, 1, 2}, index.totals(LocalDate.MIN, LocalDate.MAX));
+        assertArrayEquals(new long[]{0, 100000L, 0, 1},
+                index.totals(LocalDate.of(2, 1, 1), LocalDate.of(9999, 12, 31)));
+        assertEquals(Map.of(2L, 2000L), index.sumByCategory(LocalDate.of(3000, 1, 1), LocalDate.MAX,
+                TransactionType.EXPENSE));
+
+        index.onTransactionChanged(TransactionChangedEvent.deleted(
+                row(2, LocalDate.MAX, TransactionType.EXPENSE, 2, "20")));
+        assertArrayEquals(new long[]{1000L, 100000L, 1, 1}, index.totals(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    void bulkChanges_moveOrRemoveWholeDayBuckets() {
+        index.loadRows(List.of(
+                bucket(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000", 2),
+                bucket(LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, 1, "500", 1)));
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+
+        index.onTransactionsBulkChanged(TransactionsBulkChangedEvent.categorySet(List.of(1L, 2L),
+                List.of(new TransactionsBulkChangedEvent.DayBucket(from, TransactionType.EXPENSE, 1L, new BigDecimal("1000"), 2)),
+                2L));
+
+        assertEquals(Map.of(1L, 50000L, 2L, 100000L), index.sumByCategory(from, to, TransactionType.EXPENSE));
+        assertArrayEquals(new long[]{0, 150000L, 0, 3}, index.totals(from, to));
+
+        index.onTransactionsBulkChanged(TransactionsBulkChangedEvent.deleted(List.of(1L, 2L),
+                List.of(new TransactionsBulkChangedEvent.DayBucket(from, TransactionType.EXPENSE, 2L, new BigDecimal("1000"), 2))));
+
+        assertEquals(Map.of(1L, 50000L), index.sumByCategory(from, to, TransactionType.EXPENSE));
+        assertArrayEquals(new long[]{0, 50000L, 0, 1}, index.totals(from, to));
+    }
+
+    @Test
+    void changes_areIgnoredUntilLoaded() {
+        index.onTransactionChanged(TransactionChangedEvent.created(
+                row(1, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, 1, "1000")));
+
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void randomizedRanges_matchANaiveSum() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2020, 1, 1);
+        List<TransactionSnapshot> live = new ArrayList<>();
+        index.loadRows(List.of());
+        for (int i = 0; i < 3000; i++) {
+            if (!live.isEmpty() && random.nextInt(4) == 0) {
+                TransactionSnapshot gone = live.remove(random.nextInt(live.size()));
+                index.onTransactionChanged(TransactionChangedEvent.deleted(gone));
+            } else {
+                TransactionSnapshot added = row(i, origin.plusDays(random.nextInt(3000) - 500),
+                        random.nextBoolean() ? TransactionType.INCOME : TransactionType.EXPENSE,
+                        1 + random.nextInt(5), random.nextInt(100000) + "." + random.nextInt(100));
+                live.add(added);
+                index.onTransactionChanged(TransactionChangedEvent.created(added));
+            }
+        }
+
+        for (int q = 0; q < 200; q++) {
+            LocalDate start = origin.plusDays(random.nextInt(3200) - 600);
+            LocalDate end = start.plusDays(random.nextInt(400));
+            TransactionType type = random.nextBoolean() ? TransactionType.INCOME : TransactionType.EXPENSE;
+
+            long[] expected = new long[4];
+            Map<Long, Long> expectedByCategory = new HashMap<>();
+            for (TransactionSnapshot t : live) {
+                if (t.transactionDate().isBefore(start) || t.transactionDate().isAfter(end)) continue;
+                long minor = t.amountKrw().movePointRight(2).longValueExact();
+                int slot = t.transactionType() == TransactionType.INCOME ? 0 : 1;
+                expected[slot] += minor;
+                expected[slot + 2]++;
+                if (t.transactionType() == type) {
+                    expectedByCategory.merge(t.categoryId(), minor, Long::sum);
+                }
+            }
+
+            assertArrayEquals(expected, index.totals(start, end), start + ".." + end);
+            assertEquals(expectedByCategory, index.sumByCategory(start, end, type), start + ".." + end);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.response.BreakdownItemDTO;
+import com.cashlog.dto.response.MonthlySummaryDTO;
+import com.cashlog.entity.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        dashboardService = new DashboardService(analyticsService, ledgerVersion, executor, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void getDashboard_runsEverySubQueryOnVirtualThreads() {
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        MonthlySummaryDTO summary = MonthlySummaryDTO.builder().year(2024).month(3).build();
+        List<BreakdownItemDTO> food = List.of(BreakdownItemDTO.builder().id(1L).name("Food").build());
+        when(analyticsService.getMonthlySummary(2024, 3)).thenAnswer(inv -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return summary;
+        });
+        when(analyticsService.getCategoryBreakdown(START, END, TransactionType.EXPENSE)).thenAnswer(inv -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return food;
+        });
+        // Every sub-query runs concurrently, so each overload must be stubbed
+        // with its own arguments to keep strict stubbing deterministic.
+        when(analyticsService.getCategoryBreakdown(START, END, TransactionType.INCOME)).thenReturn(List.of());
+        when(analyticsService.getMonthlyTrend(null, null)).thenReturn(List.of());
+        when(ledgerVersion.stableVersion()).thenReturn(7L);
+        when(ledgerVersion.unchangedSince(7L)).thenReturn(true);
+
+        var dashboard = dashboardService.getDashboard(2024, 3, null, null);
+
+        assertSame(summary, dashboard.getSummary());
+        assertSame(food, dashboard.getExpenseByCategory());
+        assertEquals(Set.of(true), virtual);
+        verify(analyticsService).getTagBreakdown(START, END, TransactionType.EXPENSE);
+        verify(analyticsService).getTagBreakdown(START, END, TransactionType.INCOME);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getDashboard_reloads_whenAWriteCommittedMeanwhile() {
+        when(ledgerVersion.stableVersion()).thenReturn(1L, 2L);
+        when(ledgerVersion.unchangedSince(1L)).thenReturn(false);
+        when(ledgerVersion.unchangedSince(2L)).thenReturn(true);
+
+        dashboardService.getDashboard(2024, 3, null, null);
+
+        verify(analyticsService, times(2)).getMonthlySummary(2024, 3);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getDashboard_fallsBackToOneSnapshotTransactionOnSqlOnly_whenWritesKeepColliding() {
+        when(ledgerVersion.stableVersion()).thenReturn(1L);
+        when(ledgerVersion.unchangedSince(1L)).thenReturn(false);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(analyticsService.readingDatabaseOnly(any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+
+        assertNotNull(dashboardService.getDashboard(2024, 3, null, null));
+
+        verify(analyticsService, times(DashboardService.MAX_ATTEMPTS + 1)).getMonthlySummary(2024, 3);
+        verify(analyticsService).readingDatabaseOnly(any());
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.isReadOnly()
+                        && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void getDashboard_surfacesSubQueryExceptionUnwrapped() {
+        when(ledgerVersion.stableVersion()).thenReturn(1L);
+        when(analyticsService.getMonthlyTrend(eq(END), eq(START)))
+                .thenThrow(new IllegalArgumentException("startDate must not be after endDate"));
+
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getDashboard(2024, 3, END, START));
+    }
+}
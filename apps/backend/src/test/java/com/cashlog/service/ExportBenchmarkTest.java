@@ -0,0 +1,186 @@
+package com.cashlog.service;
+
+import com.cashlog.config.AsyncConfig;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports ten years of 500k rows (override with {@code -Dbenchmark.rows})
+ * from a file-mode H2 database as CSV, XLSX and PDF into a stream that only
+ * counts bytes. The heap still live after a full collection, sampled every
+ * second, shows what the export itself holds on to; it must not grow with
+ * the range. All three pass under a small heap as well, which a workbook built
+ * in memory cannot.
+ *
+ * <p>Skipped by default; run with
+ * {@code mvn test -Dtest=ExportBenchmarkTest -Dbenchmark=true -DargLine=-Xmx128m}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/export-${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExportService.class, PdfExportService.class, LedgerVersion.class, MonthlyAggregateService.class, AsyncConfig.class})
+class ExportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 500_000);
+    private static final long MAX_LIVE_HEAP_GROWTH = 64L << 20;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PdfExportService pdfExportService;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void largeRange_exportsCsvInConstantMemory() throws IOException {
+        CountingStream out = export("csv", exportService::writeCsv);
+        assertEquals(ROWS + 1, out.lines);
+    }
+
+    @Test
+    void largeRange_exportsExcelInConstantMemory() throws IOException {
+        CountingStream out = export("xlsx", exportService::writeExcel);
+        assertTrue(out.bytes > 0);
+    }
+
+    @Test
+    void largeRange_exportsPdfInConstantMemory() throws IOException {
+        CountingStream out = export("pdf", pdfExportService::writePdf);
+        assertTrue(out.bytes > 0);
+    }
+
+    private CountingStream export(String format, Export export) throws IOException {
+        seedOnce();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            memory.gc();
+            peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 1, 1, TimeUnit.SECONDS);
+
+        CountingStream out = new CountingStream();
+        long started = System.nanoTime();
+        try {
+            export.write(LocalDate.of(2015, 1, 1), LocalDate.of(2024, 12, 31), out);
+        } finally {
+            sampler.shutdownNow();
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.printf("rows=%d  %s=%.1f MB  %d ms  %d rows/s  live heap growth=%.1f MB  max heap=%d MB%n",
+                ROWS, format, out.bytes / 1e6, elapsedMillis, ROWS * 1000L / Math.max(1, elapsedMillis),
+                (peak.get() - baseline) / 1e6, Runtime.getRuntime().maxMemory() >> 20);
+        assertTrue(peak.get() - baseline < MAX_LIVE_HEAP_GROWTH,
+                "live heap grew by " + (peak.get() - baseline) / 1e6 + " MB");
+        return out;
+    }
+
+    /** {@link #ROWS} rows spread over 2015-2024, every other one tagged; the tests share them. */
+    private void seedOnce() {
+        if (transactionRepository.count() > 0) {
+            return;
+        }
+        Category category = categoryRepository.save(Category.builder().name("Bench").color("#3B82F6").build());
+        Tag tag = tagRepository.save(Tag.builder().name("카드").color("#111111").build());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.createNativeQuery(
+                            "INSERT INTO transaction (transaction_date, transaction_type, original_amount, " +
+                            "original_currency, amount_krw, category_id, memo) " +
+                            "SELECT DATEADD('DAY', MOD(X, 3650), DATE '2015-01-01'), 'EXPENSE', " +
+                            "1000 + MOD(X, 90000), 'KRW', 1000 + MOD(X, 90000), :categoryId, " +
+                            "MOD(X, 40) || '번 가게 결제 승인 ' || X || ' 일시불' " +
+                            "FROM SYSTEM_RANGE(0, :rows - 1)")
+                    .setParameter("categoryId", category.getId())
+                    .setParameter("rows", ROWS)
+                    .executeUpdate();
+            entityManager.createNativeQuery(
+                            "INSERT INTO transaction_tag (transaction_id, tag_id) " +
+                            "SELECT id, :tagId FROM transaction WHERE MOD(amount_krw, 2) = 0")
+                    .setParameter("tagId", tag.getId())
+                    .executeUpdate();
+        });
+        // The PDF export sizes its parts from the rollup.
+        monthlyAggregateService.rebuild();
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void write(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException;
+    }
+
+    private static final class CountingStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
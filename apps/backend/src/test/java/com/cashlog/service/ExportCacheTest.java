@@ -0,0 +1,142 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportCacheTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2023, 1, 1);
+    private static final LocalDate DEC_31 = LocalDate.of(2023, 12, 31);
+
+    @TempDir
+    private Path dir;
+
+    private static TransactionSnapshot row(LocalDate date) {
+        return new TransactionSnapshot(1L, date, TransactionType.EXPENSE, 1L, BigDecimal.TEN, Set.of());
+    }
+
+    private static String write(ExportCache cache, LocalDate startDate, LocalDate endDate, String content)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.write(ExportFormat.CSV, startDate, endDate, out,
+                target -> target.write(content.getBytes(StandardCharsets.UTF_8)));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Optional<String> read(ExportCache cache, LocalDate startDate, LocalDate endDate)
+            throws IOException {
+        Optional<ExportCache.Hit> cached = cache.lookup(ExportFormat.CSV, startDate, endDate);
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        try (ExportCache.Hit hit = cached.get()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            hit.transferTo(out);
+            return Optional.of(out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void write_streamsToTheClient_andServesTheSameBytesAfterwards_withTheirSha256AsETag() throws Exception {
+        ExportCache cache = new ExportCache(dir, DataSize.ofMegabytes(1));
+
+        assertEquals("2023 report", write(cache, JAN_1, DEC_31, "2023 report"));
+
+        assertEquals(Optional.of("2023 report"), read(cache, JAN_1, DEC_31));
+        assertTrue(cache.lookup(ExportFormat.PDF, JAN_1, DEC_31).isEmpty());
+        try (ExportCache.Hit hit = cache.lookup(ExportFormat.CSV, JAN_1, DEC_31).orElseThrow()) {
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest("2023 report".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(sha256, hit.etag());
+        }
+    }
+
+    @Test
+    void transactionChange_dropsOnlyTheRangesCoveringItsMonths() throws Exception {
+        ExportCache cache = new ExportCache(dir, DataSize.ofMegabytes(1));
+        write(cache, JAN_1, DEC_31, "2023");
+        write(cache, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "2024-01");
+
+        cache.onTransactionChanged(TransactionChangedEvent.updated(
+                row(LocalDate.of(2023, 6, 30)), row(LocalDate.of(2023, 7, 1))));
+
+        assertTrue(read(cache, JAN_1, DEC_31).isEmpty());
+        assertEquals(Optional.of("2024-01"), read(cache, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void write_doesNotKeepARenderThatOverlappedACommit() throws Exception {
+        ExportCache cache = new ExportCache(dir, DataSize.ofMegabytes(1));
+
+        cache.write(ExportFormat.CSV, JAN_1, DEC_31, new ByteArrayOutputStream(), target -> {
+            target.write('a');
+            cache.onTransactionChanged(TransactionChangedEvent.created(row(LocalDate.of(2023, 3, 3))));
+            target.write('b');
+        });
+
+        assertTrue(read(cache, JAN_1, DEC_31).isEmpty());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void nameChange_dropsEverything() throws Exception {
+        ExportCache cache = new ExportCache(dir, DataSize.ofMegabytes(1));
+        write(cache, JAN_1, DEC_31, "2023");
+
+        cache.onNamesChanged();
+
+        assertTrue(read(cache, JAN_1, DEC_31).isEmpty());
+        assertEquals(0, cache.totalBytes());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondMaxSize() throws Exception {
+        ExportCache cache = new ExportCache(dir, DataSize.ofBytes(10));
+        LocalDate jan = LocalDate.of(2023, 1, 31);
+        LocalDate feb = LocalDate.of(2023, 2, 28);
+        write(cache, JAN_1, jan, "aaaa");
+        write(cache, JAN_1, feb, "bbbb");
+        assertTrue(read(cache, JAN_1, jan).isPresent());
+
+        write(cache, JAN_1, DEC_31, "cccc");
+        write(cache, JAN_1, JAN_1, "too large for the cache");
+
+        assertEquals(Optional.of("aaaa"), read(cache, JAN_1, jan));
+        assertTrue(read(cache, JAN_1, feb).isEmpty());
+        assertEquals(Optional.of("cccc"), read(cache, JAN_1, DEC_31));
+        assertTrue(read(cache, JAN_1, JAN_1).isEmpty());
+        assertEquals(8, cache.totalBytes());
+    }
+
+    @Test
+    void startup_deletesFilesOfAnEarlierRun() throws Exception {
+        Path leftover = Files.createFile(dir.resolve("export-123.csv"));
+
+        new ExportCache(dir, DataSize.ofMegabytes(1));
+
+        assertFalse(Files.exists(leftover));
+    }
+}
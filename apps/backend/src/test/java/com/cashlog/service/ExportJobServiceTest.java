@@ -0,0 +1,161 @@
+package com.cashlog.service;
+
+import com.cashlog.config.AsyncConfig;
+import com.cashlog.dto.response.ExportJobDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.exception.ResourceNotFoundException;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Commits for real, since jobs read on their own threads. Each test runs
+ * jobs on a one-thread, one-slot executor that it holds busy until it has
+ * queued what it needs.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExportService.class, PdfExportService.class, LedgerVersion.class, AsyncConfig.class})
+class ExportJobServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 5, 1);
+    private static final LocalDate END = LocalDate.of(2024, 5, 31);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PdfExportService pdfExportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @TempDir
+    private Path dir;
+
+    @TempDir
+    private Path cacheDir;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolExecutor executor;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 5, 3), "12000"),
+                tx(LocalDate.of(2024, 5, 20), "3000"),
+                tx(LocalDate.of(2024, 6, 1), "500")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        transactionRepository.deleteAll();
+        categoryRepository.delete(food);
+    }
+
+    private Transaction tx(LocalDate date, String amount) {
+        BigDecimal value = new BigDecimal(amount);
+        return Transaction.builder()
+                .transactionDate(date)
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(value)
+                .originalCurrency("KRW")
+                .amountKrw(value)
+                .category(food)
+                .build();
+    }
+
+    private ExportJobService service(Duration retention) {
+        return new ExportJobService(exportService, pdfExportService,
+                new ExportCache(cacheDir, DataSize.ofMegabytes(1)), transactionRepository, executor, dir, retention);
+    }
+
+    private void runQueuedJobs() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_attachesDuplicatesToTheQueuedJob_andRefusesWhenTheQueueIsFull() throws Exception {
+        ExportJobService service = service(Duration.ofHours(1));
+
+        ExportJobDTO queued = service.submit(ExportFormat.CSV, START, END);
+        ExportJobDTO duplicate = service.submit(ExportFormat.CSV, START, END);
+        assertEquals(queued.getId(), duplicate.getId());
+        assertEquals(ExportJobService.State.QUEUED, duplicate.getState());
+        assertThrows(RejectedExecutionException.class, () -> service.submit(ExportFormat.PDF, START, END));
+
+        runQueuedJobs();
+
+        ExportJobDTO done = service.getJob(queued.getId());
+        assertEquals(ExportJobService.State.DONE, done.getState());
+        assertEquals(2, done.getRowsWritten());
+        assertEquals(2L, done.getTotalRows());
+        ExportJobService.Result result = service.getResult(queued.getId());
+        assertEquals(done.getSizeBytes(), Files.size(result.file()));
+        assertEquals(3, Files.readString(result.file(), StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    void finishedJobs_areDroppedWithTheirFilesAfterRetention() throws Exception {
+        Path leftover = Files.createFile(dir.resolve("export-from-last-run.csv"));
+        ExportJobService service = service(Duration.ZERO);
+        assertFalse(Files.exists(leftover));
+
+        ExportJobDTO job = service.submit(ExportFormat.CSV, START, END);
+        assertThrows(IllegalStateException.class, () -> service.getResult(job.getId()));
+        runQueuedJobs();
+
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob(job.getId()));
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
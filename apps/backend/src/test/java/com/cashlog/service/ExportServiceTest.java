@@ -0,0 +1,116 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionRepository;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ExportService.class)
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private Transaction tx(LocalDate date, TransactionType type, String amount, Category category, String memo) {
+        BigDecimal value = new BigDecimal(amount);
+        return Transaction.builder()
+                .transactionDate(date)
+                .transactionType(type)
+                .originalAmount(value)
+                .originalCurrency("KRW")
+                .amountKrw(value)
+                .category(category)
+                .memo(memo)
+                .build();
+    }
+
+    @Test
+    void writeCsv_streamsRangeNewestFirst_withJoinedTagsAndUtf8Memos() throws IOException {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        Tag lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Tag card = tagRepository.save(Tag.builder().name("card").color("#222222").build());
+        Transaction tagged = tx(LocalDate.of(2024, 5, 3), TransactionType.EXPENSE, "12000", food, "점심, \"회사 근처\"");
+        tagged.setTags(new HashSet<>(Set.of(lunch, card)));
+        transactionRepository.saveAll(List.of(
+                tx(LocalDate.of(2024, 4, 30), TransactionType.EXPENSE, "1000", food, "outside the range"),
+                tx(LocalDate.of(2024, 5, 1), TransactionType.INCOME, "500000", food, null),
+                tagged));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeCsv(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), out);
+
+        assertEquals(List.of(
+                "\"Date\",\"Type\",\"Amount (KRW)\",\"Tags\",\"Memo\"",
+                "\"2024-05-03\",\"EXPENSE\",\"12000.00\",\"card, lunch\",\"점심, \"\"회사 근처\"\"\"",
+                "\"2024-05-01\",\"INCOME\",\"500000.00\",\"\",\"\""),
+                out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void writeExcel_writesDateAndNumberCells() throws IOException {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        Tag lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Transaction tagged = tx(LocalDate.of(2024, 5, 3), TransactionType.EXPENSE, "12000.50", food, "점심");
+        tagged.setTags(new HashSet<>(Set.of(lunch)));
+        transactionRepository.saveAll(List.of(tagged,
+                tx(LocalDate.of(2024, 5, 1), TransactionType.INCOME, "500000", food, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeExcel(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Transactions");
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("Amount (KRW)", sheet.getRow(0).getCell(2).getStringCellValue());
+            Row first = sheet.getRow(1);
+            assertTrue(DateUtil.isCellDateFormatted(first.getCell(0)));
+            assertEquals(LocalDate.of(2024, 5, 3), first.getCell(0).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(CellType.NUMERIC, first.getCell(2).getCellType());
+            assertEquals(12000.5, first.getCell(2).getNumericCellValue());
+            DataFormatter formatter = new DataFormatter(Locale.ROOT);
+            assertEquals("12,000.50", formatter.formatCellValue(first.getCell(2)));
+            assertEquals("500,000.00", formatter.formatCellValue(sheet.getRow(2).getCell(2)));
+            assertEquals("lunch", first.getCell(3).getStringCellValue());
+            assertEquals("점심", first.getCell(4).getStringCellValue());
+            assertEquals("", sheet.getRow(2).getCell(4).getStringCellValue());
+        }
+    }
+}
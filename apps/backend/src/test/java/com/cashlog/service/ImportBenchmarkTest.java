@@ -0,0 +1,249 @@
+package com.cashlog.service;
+
+import com.cashlog.config.AsyncConfig;
+import com.cashlog.dto.response.ImportResultDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports a generated CSV statement of a million rows, about 100 MB (override
+ * with {@code -Dbenchmark.rows}), into a file-mode H2 database. The file is
+ * produced while it is read and never exists in memory, so the heap still
+ * live after a full collection, sampled every five seconds, shows what the import
+ * itself holds on to; it must not grow with the file. The XLSX run writes
+ * the same rows to a workbook on disk first, every memo a distinct shared
+ * string, so the shared strings table grows with the file too.
+ *
+ * <p>Skipped by default; run with
+ * {@code mvn test -Dtest=ImportBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/import-${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ImportService.class, TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class,
+        TagIndex.class, MemoSearchService.class, AsyncConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final long MAX_LIVE_HEAP_GROWTH = 64L << 20;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void largeStatement_importsInConstantMemory() throws IOException {
+        Statement statement = new Statement(ROWS);
+        importMeasured("statement.csv", statement);
+        System.out.printf("csv file=%.1f MB%n", statement.bytes / 1e6);
+    }
+
+    @Test
+    void largeWorkbook_importsInConstantMemory() throws IOException {
+        Path workbook = Files.createTempFile("import-benchmark-", ".xlsx");
+        try {
+            writeWorkbook(workbook, ROWS);
+            System.out.printf("xlsx file=%.1f MB%n", Files.size(workbook) / 1e6);
+            try (InputStream in = Files.newInputStream(workbook)) {
+                importMeasured("statement.xlsx", in);
+            }
+        } finally {
+            Files.deleteIfExists(workbook);
+        }
+    }
+
+    private ImportResultDTO importMeasured(String filename, InputStream content) throws IOException {
+        if (!categoryRepository.existsByName("Bench")) {
+            categoryRepository.save(Category.builder().name("Bench").color("#3B82F6").build());
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            memory.gc();
+            peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 5, 5, TimeUnit.SECONDS);
+
+        ImportResultDTO result;
+        try {
+            result = importService.importFile(filename, content);
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        System.out.printf("rows=%d  %s  %d ms  %d rows/s  live heap growth=%.1f MB%n",
+                ROWS, filename, result.getElapsedMillis(),
+                ROWS * 1000L / Math.max(1, result.getElapsedMillis()), (peak.get() - baseline) / 1e6);
+        assertEquals(ROWS, result.getCreated(), () -> result.getErrors().toString());
+        assertTrue(peak.get() - baseline < MAX_LIVE_HEAP_GROWTH,
+                "live heap grew by " + (peak.get() - baseline) / 1e6 + " MB");
+        return result;
+    }
+
+    private static String date(int row) {
+        return LocalDate.of(2015, 1, 1).plusDays(row % 3650).toString();
+    }
+
+    private static String memo(int row) {
+        return (row % 40) + "번 가게 결제 승인 " + row + " 일시불";
+    }
+
+    /**
+     * Writes a minimal workbook of {@code rows} rows straight to a zip, so
+     * generating it takes no more memory than reading it should. Every text
+     * cell is a shared string: the header, the fixed values, then one per
+     * date and one per memo, numbered in the order they are written.
+     */
+    private static void writeWorkbook(Path file, int rows) throws IOException {
+        String[] fixed = {"date", "type", "amount", "category", "tags", "memo", "EXPENSE", "Bench", "카드, 생활"};
+        int dates = 3650;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+             Writer out = new OutputStreamWriter(zip, StandardCharsets.UTF_8)) {
+            entry(zip, out, "[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>"
+                    + "</Types>");
+            entry(zip, out, "_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            entry(zip, out, "xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Statement\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+            entry(zip, out, "xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                    + "</Relationships>");
+
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+            out.write("<row r=\"1\">");
+            for (int column = 0; column < 6; column++) {
+                out.write(stringCell(column, 1, column));
+            }
+            out.write("</row>");
+            for (int row = 0; row < rows; row++) {
+                int r = row + 2;
+                out.write("<row r=\"" + r + "\">"
+                        + stringCell(0, r, fixed.length + row % dates)
+                        + stringCell(1, r, 6)
+                        + "<c r=\"C" + r + "\"><v>" + (1000 + row % 90_000) + "</v></c>"
+                        + stringCell(3, r, 7)
+                        + stringCell(4, r, 8)
+                        + stringCell(5, r, fixed.length + dates + row)
+                        + "</row>");
+            }
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            int unique = fixed.length + dates + rows;
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\""
+                    + (6 + 5L * rows) + "\" uniqueCount=\"" + unique + "\">");
+            for (String string : fixed) {
+                out.write("<si><t>" + string + "</t></si>");
+            }
+            for (int day = 0; day < dates; day++) {
+                out.write("<si><t>" + date(day) + "</t></si>");
+            }
+            for (int row = 0; row < rows; row++) {
+                out.write("<si><t>" + memo(row) + "</t></si>");
+            }
+            out.write("</sst>");
+            out.flush();
+            zip.closeEntry();
+        }
+    }
+
+    private static String stringCell(int column, int row, int index) {
+        return "<c r=\"" + (char) ('A' + column) + row + "\" t=\"s\"><v>" + index + "</v></c>";
+    }
+
+    private static void entry(ZipOutputStream zip, Writer out, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.flush();
+        zip.closeEntry();
+    }
+
+    /** A CSV statement of {@code rows} rows, generated a line at a time as it is read. */
+    private static final class Statement extends InputStream {
+
+        private final int rows;
+        private int row = -1;
+        private byte[] line = "date,type,amount,category,tags,memo\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private long bytes;
+
+        Statement(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row + 1 == rows) {
+                    return -1;
+                }
+                row++;
+                line = (date(row) + ",EXPENSE," + (1000 + row % 90_000)
+                        + ",Bench,\"카드, 생활\",\"" + memo(row) + "\"\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            bytes++;
+            return line[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.cashlog.service;
+
+import com.cashlog.config.AsyncConfig;
+import com.cashlog.dto.response.ImportErrorDTO;
+import com.cashlog.dto.response.ImportResultDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Commits for real, since every chunk is its own transaction; every test
+ * cleans up after itself.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ImportService.class, TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class,
+        TagIndex.class, MemoSearchService.class, AsyncConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ImportServiceTest {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate inTransaction;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction = new TransactionTemplate(transactionManager);
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction.executeWithoutResult(status -> {
+            for (String table : List.of("transaction_tag", "transaction", "tag", "monthly_aggregate", "monthly_balance")) {
+                entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+            }
+        });
+        categoryRepository.delete(food);
+    }
+
+    private ImportResultDTO importCsv(String csv) throws IOException {
+        return importService.importFile("statement.CSV", new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Transaction> imported() {
+        return inTransaction.execute(status -> transactionRepository.findAllByOrderByTransactionDateDesc().stream()
+                .peek(t -> t.getTags().size())
+                .toList());
+    }
+
+    @Test
+    void csv_createsValidRows_andReportsTheRestByLine() throws IOException {
+        ImportResultDTO result = importCsv("\uFEFFDate,Type,Amount,Category,Tags,Memo,Balance\n" +
+                "2024-03-01,EXPENSE,\"8,000\",food,\"lunch, work\",\"점심, 김밥\",92000\n" +
+                "2024.3.2,수입,100000,Food,,\"multi\nline memo\"\n" +
+                ",EXPENSE,10,Food,,\n" +
+                "2024-03-04,EXPENSE,ten,Food,,\n" +
+                "2024-03-05,EXPENSE,10,Travel,,\n" +
+                "\n" +
+                "2024-03-06,EXPENSE,10,Food\n");
+
+        assertEquals(6, result.getRows());
+        assertEquals(3, result.getCreated());
+        assertEquals(3, result.getRejected());
+        assertTrue(result.isComplete());
+        assertEquals(List.of(5L, 6L, 7L), result.getErrors().stream().map(ImportErrorDTO::getLine).toList());
+        assertEquals("transactionDate: Transaction date is required", result.getErrors().get(0).getError());
+        assertEquals("amount: not a number: ten", result.getErrors().get(1).getError());
+        assertEquals("Category not found: Travel", result.getErrors().get(2).getError());
+
+        List<Transaction> transactions = imported();
+        Transaction lunch = transactions.get(transactions.size() - 1);
+        assertEquals(LocalDate.of(2024, 3, 1), lunch.getTransactionDate());
+        assertEquals(0, new BigDecimal("8000").compareTo(lunch.getAmountKrw()));
+        assertEquals(food.getId(), lunch.getCategory().getId());
+        assertEquals("점심, 김밥", lunch.getMemo());
+        assertEquals(Set.of("lunch", "work"), lunch.getTags().stream().map(Tag::getName).collect(Collectors.toSet()));
+        Transaction salary = transactions.get(transactions.size() - 2);
+        assertEquals(TransactionType.INCOME, salary.getTransactionType());
+        assertEquals("multi\nline memo", salary.getMemo());
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void xlsx_readsDateAndNumberCellsWhateverTheirDisplayFormat() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("m/d/yy"));
+            CellStyle amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0"));
+            Sheet sheet = workbook.createSheet("Statement");
+            Row header = sheet.createRow(0);
+            String[] names = {"날짜", "구분", "금액", "카테고리", "메모"};
+            for (int i = 0; i < names.length; i++) {
+                header.createCell(i).setCellValue(names[i]);
+            }
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue(LocalDate.of(2024, 3, 1));
+            row.getCell(0).setCellStyle(dateStyle);
+            row.createCell(1).setCellValue("지출");
+            row.createCell(2).setCellValue(12500);
+            row.getCell(2).setCellStyle(amountStyle);
+            row.createCell(3).setCellValue("Food");
+            Row text = sheet.createRow(3);
+            text.createCell(0).setCellValue("2024-03-02");
+            text.createCell(1).setCellValue("EXPENSE");
+            text.createCell(2).setCellValue("3,000");
+            text.createCell(3).setCellValue("food");
+            text.createCell(4).setCellValue("택시");
+            workbook.write(out);
+            xlsx = out.toByteArray();
+        }
+
+        ImportResultDTO result = importService.importFile("statement.xlsx", new ByteArrayInputStream(xlsx));
+
+        assertEquals(2, result.getCreated(), () -> result.getErrors().toString());
+        List<Transaction> transactions = imported();
+        assertEquals(LocalDate.of(2024, 3, 2), transactions.get(0).getTransactionDate());
+        assertEquals("택시", transactions.get(0).getMemo());
+        assertEquals(LocalDate.of(2024, 3, 1), transactions.get(1).getTransactionDate());
+        assertEquals(0, new BigDecimal("12500").compareTo(transactions.get(1).getAmountKrw()));
+        assertNull(transactions.get(1).getMemo());
+    }
+
+    @Test
+    void largeFiles_areCreatedChunkByChunk() throws IOException {
+        int rows = ImportService.CHUNK_SIZE * 2 + 500;
+        StringBuilder csv = new StringBuilder("date,type,amount,category\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(LocalDate.of(2024, 1, 1).plusDays(i % 366)).append(",EXPENSE,")
+                    .append(i % 100 == 0 ? "-1" : "1000").append(",Food\n");
+        }
+
+        ImportResultDTO result = importCsv(csv.toString());
+
+        assertEquals(rows, result.getRows());
+        assertEquals(rows / 100, result.getRejected());
+        assertEquals(rows - result.getRejected(), result.getCreated());
+        assertEquals(result.getCreated(), transactionRepository.count());
+        assertEquals(1002L, result.getErrors().get(10).getLine());
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void badHeader_orFileType_isRejectedBeforeAnythingIsWritten() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> importCsv("Date,Amount,Memo\n2024-03-01,1000,점심\n"));
+        IllegalArgumentException empty = assertThrows(IllegalArgumentException.class, () -> importCsv("\n\n"));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importFile("statement.xlsx", new ByteArrayInputStream("date,type".getBytes())));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importFile("statement.xls", InputStream.nullInputStream()));
+
+        assertEquals("Missing required columns: type, category", missing.getMessage());
+        assertEquals("The file has no header row", empty.getMessage());
+        assertEquals(0, transactionRepository.count());
+    }
+
+    @Test
+    void unreadableTail_keepsWhatWasReadAndSaysWhereItStopped() throws IOException {
+        InputStream failing = new InputStream() {
+            private final InputStream head = new ByteArrayInputStream(
+                    "date,type,amount,category\n2024-03-01,EXPENSE,1000,Food\n".getBytes(StandardCharsets.UTF_8));
+
+            @Override
+            public int read() throws IOException {
+                int b = head.read();
+                if (b < 0) {
+                    throw new IOException("connection reset");
+                }
+                return b;
+            }
+        };
+
+        ImportResultDTO result = importService.importFile("statement.csv", failing);
+
+        assertFalse(result.isComplete());
+        assertEquals(1, result.getCreated());
+        assertEquals(0, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals("Could not read the file: connection reset", result.getErrors().get(0).getError());
+    }
+}
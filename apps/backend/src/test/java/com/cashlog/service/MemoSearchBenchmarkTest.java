@@ -0,0 +1,180 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Transaction;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TransactionRepository;
+import com.cashlog.specification.TagMatch;
+import db.migration.V12__index_existing_memos;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of the {@code q} filter on a ledger of a million rows (override
+ * with {@code -Dbenchmark.rows}), against a {@code LIKE '%word%'} scan of the
+ * memos for the same page. Each memo holds one of 40 common words (2.5% of
+ * the rows each), one of 1,000 rare ones (0.1% each) and an amount. The target is
+ * under 10 ms for a selective word on a developer machine; since that depends
+ * on the hardware, the assertion only checks that the index beats the scan
+ * several times over. Both grow with the ledger: the index reads the rows of
+ * the word, the scan every row.
+ *
+ * <p>Skipped by default; run with
+ * {@code mvn test -Dtest=MemoSearchBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/memo-search-${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class MemoSearchBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int ITERATIONS = 50;
+    private static final String COMMON_WORDS = "'점심','저녁','아침','커피','택시','버스','지하철','마트','편의점','약국'," +
+            "'병원','월세','관리비','통신비','보험','주유','주차','영화','책','선물','간식','배달','외식','술','카페'," +
+            "'세탁','미용실','헬스','학원','교통','쇼핑','의류','신발','가전','가구','여행','숙박','항공','기차','용돈'";
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void selectiveWord_isSeveralTimesFasterThanScanningMemos() {
+        Category category = categoryRepository.save(Category.builder().name("Bench").color("#3B82F6").build());
+        seed(category);
+
+        long rare = medianNanos(MemoSearchBenchmarkTest::rareWord);
+        long common = medianNanos(i -> "택시");
+        long singleCharacter = medianNanos(i -> "택");
+        long scan = new TransactionTemplate(transactionManager).execute(status -> medianScanNanos());
+        System.out.printf("rows=%d  rare=%8.3f ms  common=%8.3f ms  one character=%8.3f ms  LIKE scan=%8.3f ms%n",
+                ROWS, rare / 1e6, common / 1e6, singleCharacter / 1e6, scan / 1e6);
+
+        assertTrue(rare * 5 < scan, "rare word took " + rare / 1e6 + " ms against a " + scan / 1e6 + " ms scan");
+    }
+
+    private void seed(Category category) {
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager.createNativeQuery(
+                        "INSERT INTO transaction (transaction_date, transaction_type, original_amount, " +
+                        "original_currency, amount_krw, category_id, memo) " +
+                        "SELECT DATEADD('DAY', X / 100, DATE '2000-01-01'), 'EXPENSE', 1000, 'KRW', 1000, :categoryId, " +
+                        "ARRAY[" + COMMON_WORDS + "][MOD(X, 40) + 1] || ' ' || " +
+                        "CHAR(44032 + MOD(X * 7, 1000)) || CHAR(45032 + MOD(X * 7, 1000)) || '점 ' || MOD(X, 100) * 100 || '원' " +
+                        "FROM SYSTEM_RANGE(1, :rows)")
+                .setParameter("categoryId", category.getId())
+                .setParameter("rows", ROWS)
+                .executeUpdate());
+        // Rows seeded behind the application's back are indexed as V12 indexes old ledgers.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                new V12__index_existing_memos().migrate(new Context() {
+                    @Override
+                    public Configuration getConfiguration() {
+                        return null;
+                    }
+
+                    @Override
+                    public Connection getConnection() {
+                        return connection;
+                    }
+                });
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        System.out.printf("seeded and indexed %d rows in %.1f s%n", ROWS, (System.nanoTime() - start) / 1e9);
+    }
+
+    /** The i-th of the 1,000 rare words: a shop name of two syllables that occur nowhere else. */
+    private static String rareWord(int i) {
+        return new String(new char[]{(char) (44032 + i * 37 % 1000), (char) (45032 + i * 37 % 1000), '점'});
+    }
+
+    /**
+     * Median latency of the first page of 20, with its total, over the first
+     * {@link #ITERATIONS} query words, each searched once beforehand so the
+     * samples measure the query rather than the page cache.
+     */
+    private long medianNanos(IntFunction<String> word) {
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "transactionDate"));
+        for (int i = 0; i < ITERATIONS; i++) {
+            transactionService.getTransactions(null, null, null, null, null, TagMatch.ANY, null, null, word.apply(i), page);
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            String q = word.apply(i);
+            long start = System.nanoTime();
+            var result = transactionService.getTransactions(null, null, null, null, null, TagMatch.ANY, null, null, q, page);
+            samples[i] = System.nanoTime() - start;
+            assertFalse(result.getContent().isEmpty(), q);
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+
+    /** The same page for a rare word found by scanning the memos, timed fewer times as it is slow. */
+    private long medianScanNanos() {
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "transactionDate"));
+        long[] samples = new long[5];
+        for (int i = 0; i < samples.length; i++) {
+            String word = rareWord(i);
+            Specification<Transaction> like = (root, query, cb) ->
+                    cb.like(cb.lower(root.get("memo")), "%" + word + "%");
+            long start = System.nanoTime();
+            transactionRepository.findIds(like, page);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+}
@@ -0,0 +1,210 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.TransactionDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionMemoGramRepository;
+import com.cashlog.repository.TransactionRepository;
+import com.cashlog.specification.TagMatch;
+import db.migration.V12__index_existing_memos;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class MemoSearchTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionMemoGramRepository memoGramRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Category food;
+    private Category salary;
+
+    @BeforeEach
+    void setUp() {
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+        salary = categoryRepository.save(Category.builder().name("Salary").color("#222222").build());
+    }
+
+    private TransactionDTO create(LocalDate date, TransactionType type, Category category, String memo) {
+        return transactionService.createTransaction(CreateTransactionRequest.builder()
+                .transactionDate(date)
+                .transactionType(type)
+                .originalAmount(new BigDecimal("1000"))
+                .originalCurrency("KRW")
+                .categoryId(category.getId())
+                .memo(memo)
+                .build());
+    }
+
+    private TransactionDTO create(String memo) {
+        return create(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, food, memo);
+    }
+
+    private Set<Long> search(String q) {
+        return transactionService.getTransactions(null, null, null, null, null, TagMatch.ANY, null, null, q,
+                        PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "transactionDate")))
+                .getContent().stream().map(TransactionDTO::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    void findsKoreanSubstrings_atAnyPositionOfAWord() {
+        Long lunch = create("점심 김밥").getId();
+        Long dinner = create("저녁 김치찌개").getId();
+        Long lunchMoney = create("회사 점심값, 카드").getId();
+
+        assertEquals(Set.of(lunch, lunchMoney), search("점심"));
+        assertEquals(Set.of(lunchMoney), search("심값"));
+        assertEquals(Set.of(lunch, dinner), search("김"));
+        assertEquals(Set.of(lunch), search("밥"));
+        assertEquals(Set.of(lunch), search("점심 김밥"));
+        assertEquals(Set.of(), search("점심 라면"));
+    }
+
+    @Test
+    void ignoresCaseAndPunctuation_andDropsRowsThatOnlyShareGrams() {
+        Long coffee = create("Coffee @ Starbucks!").getId();
+        create("abx bcy");
+
+        assertEquals(Set.of(coffee), search("COFFEE"));
+        assertEquals(Set.of(coffee), search("  starbucks... "));
+        assertEquals(Set.of(), search("abc"));
+    }
+
+    @Test
+    void matchesCategoryAndTagNames_asWellAsMemos() {
+        Long groceries = create("장보기").getId();
+        Long paycheck = create(LocalDate.of(2024, 3, 25), TransactionType.INCOME, salary, null).getId();
+        Long foodTalk = create("food court").getId();
+        Tag work = tagRepository.save(Tag.builder().name("Work").color("#333333").build());
+        transactionRepository.findById(paycheck).orElseThrow().getTags().add(work);
+        entityManager.flush();
+
+        assertEquals(Set.of(groceries, foodTalk), search("food"));
+        assertEquals(Set.of(paycheck), search("sal"));
+        assertEquals(Set.of(paycheck), search("work"));
+        assertEquals(Set.of(foodTalk), search("court food"));
+    }
+
+    @Test
+    void combinesWithTheOtherFilters() {
+        create(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, food, "점심");
+        Long april = create(LocalDate.of(2024, 4, 1), TransactionType.EXPENSE, food, "점심").getId();
+        create(LocalDate.of(2024, 4, 2), TransactionType.INCOME, salary, "점심 환급");
+
+        var page = transactionService.getTransactions(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 30),
+                TransactionType.EXPENSE, List.of(food.getId()), null, TagMatch.ANY, null, null, "점심", PageRequest.of(0, 10));
+        var scrolled = transactionService.scrollTransactions(null, null, TransactionType.INCOME, null, null,
+                TagMatch.ANY, null, null, "환급", null, null, 10, true);
+
+        assertEquals(List.of(april), page.getContent().stream().map(TransactionDTO::getId).toList());
+        assertEquals(1, scrolled.getContent().size());
+        assertEquals(1L, scrolled.getTotalElements());
+    }
+
+    @Test
+    void followsMemoUpdatesAndDeletes() {
+        TransactionDTO created = create("점심 김밥");
+        CreateTransactionRequest update = CreateTransactionRequest.builder()
+                .transactionDate(created.getTransactionDate())
+                .transactionType(created.getTransactionType())
+                .originalAmount(created.getOriginalAmount())
+                .originalCurrency("KRW")
+                .categoryId(food.getId())
+                .memo("저녁 라면")
+                .build();
+
+        transactionService.updateTransaction(created.getId(), update);
+
+        assertEquals(Set.of(), search("김밥"));
+        assertEquals(Set.of(created.getId()), search("라면"));
+
+        transactionService.deleteTransaction(created.getId());
+        entityManager.flush();
+
+        assertEquals(0, memoGramRepository.count());
+    }
+
+    @Test
+    void indexExistingMemosMigration_indexesMemosWithoutPostings_andKeepsTheOthers() throws Exception {
+        Long indexed = create("점심 라면").getId();
+        Long id = create("점심 김밥").getId();
+        memoGramRepository.deleteByTransactionId(id);
+        entityManager.flush();
+        assertEquals(Set.of(), search("김밥"));
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        new V12__index_existing_memos().migrate(new Context() {
+            @Override
+            public Configuration getConfiguration() {
+                return null;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+        });
+
+        assertEquals(Set.of(id), search("김밥"));
+        assertEquals(Set.of(indexed), search("라면"));
+        assertEquals(Set.of(indexed, id), search("점심"));
+    }
+
+    @Test
+    void blankQuery_doesNotFilter() {
+        create("점심");
+        create(null);
+
+        assertEquals(2, search(" ,. ").size());
+        assertEquals(2, search(null).size());
+    }
+}
@@ -0,0 +1,193 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.entity.MonthlyAggregate;
+import com.cashlog.entity.MonthlyBalance;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.MonthlyAggregateRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TransactionRepository;
+import com.cashlog.repository.projection.MonthTotals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(MonthlyAggregateService.class)
+class MonthlyAggregateServiceTest {
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private MonthlyAggregateRepository monthlyAggregateRepository;
+
+    @Autowired
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Transaction save(LocalDate date, TransactionType type, String amount, Category category) {
+        BigDecimal value = new BigDecimal(amount);
+        Transaction saved = transactionRepository.save(Transaction.builder()
+                .transactionDate(date)
+                .transactionType(type)
+                .originalAmount(value)
+                .originalCurrency("KRW")
+                .amountKrw(value)
+                .category(category)
+                .build());
+        monthlyAggregateService.add(saved);
+        return saved;
+    }
+
+    private MonthlyAggregate bucket(int monthKey, TransactionType type, Category category) {
+        // The deltas are applied with bulk statements, so bypass the persistence context.
+        entityManager.clear();
+        return monthlyAggregateRepository.findById(new MonthlyAggregate.Key(monthKey, type, category.getId()))
+                .orElse(null);
+    }
+
+    private BigDecimal balanceBefore(int monthKey) {
+        entityManager.clear();
+        return monthlyBalanceRepository.findFirstByMonthKeyLessThanOrderByMonthKeyDesc(monthKey)
+                .map(MonthlyBalance::getCumulativeNet)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Test
+    void add_accumulatesIntoOneBucketPerMonthTypeAndCategory() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        save(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "10000", food);
+        save(LocalDate.of(2024, 3, 31), TransactionType.EXPENSE, "2500", food);
+        save(LocalDate.of(2024, 4, 1), TransactionType.EXPENSE, "700", food);
+
+        MonthlyAggregate march = bucket(202403, TransactionType.EXPENSE, food);
+        assertEquals(0, new BigDecimal("12500").compareTo(march.getTotalAmount()));
+        assertEquals(2L, march.getTransactionCount());
+        assertEquals(1L, bucket(202404, TransactionType.EXPENSE, food).getTransactionCount());
+    }
+
+    @Test
+    void subtract_dropsBucketOnceItIsEmpty() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        Transaction first = save(LocalDate.of(2024, 3, 1), TransactionType.INCOME, "10000", food);
+        Transaction second = save(LocalDate.of(2024, 3, 2), TransactionType.INCOME, "5000", food);
+
+        monthlyAggregateService.subtract(first);
+        assertEquals(0, new BigDecimal("5000").compareTo(bucket(202403, TransactionType.INCOME, food).getTotalAmount()));
+
+        monthlyAggregateService.subtract(second);
+        assertNull(bucket(202403, TransactionType.INCOME, food));
+    }
+
+    @Test
+    void summarizeMonth_returnsBothTypesInOneRow_andZerosForAnEmptyMonth() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        Category pay = categoryRepository.save(Category.builder().name("Pay").color("#10B981").build());
+        save(LocalDate.of(2024, 3, 1), TransactionType.INCOME, "300000", pay);
+        save(LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, "10000", food);
+        save(LocalDate.of(2024, 3, 3), TransactionType.EXPENSE, "2500", pay);
+
+        MonthTotals march = monthlyAggregateRepository.summarizeMonth(202403);
+        assertEquals(0, new BigDecimal("300000").compareTo(march.income()));
+        assertEquals(0, new BigDecimal("12500").compareTo(march.expense()));
+
+        MonthTotals april = monthlyAggregateRepository.summarizeMonth(202404);
+        assertEquals(0, BigDecimal.ZERO.compareTo(april.income()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(april.expense()));
+    }
+
+    @Test
+    void balanceCheckpoints_carryRunningNet_andShiftWhenAnEarlierMonthChanges() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        save(LocalDate.of(2024, 1, 10), TransactionType.INCOME, "100000", food);
+        save(LocalDate.of(2024, 3, 5), TransactionType.EXPENSE, "30000", food);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceBefore(202401)));
+        // February has no row of its own; the lookup falls back to January.
+        assertEquals(0, new BigDecimal("100000").compareTo(balanceBefore(202403)));
+        assertEquals(0, new BigDecimal("70000").compareTo(balanceBefore(202404)));
+
+        // A late entry for February must shift March's checkpoint too.
+        Transaction late = save(LocalDate.of(2024, 2, 20), TransactionType.EXPENSE, "5000", food);
+        assertEquals(0, new BigDecimal("95000").compareTo(balanceBefore(202403)));
+        assertEquals(0, new BigDecimal("65000").compareTo(balanceBefore(202404)));
+
+        monthlyAggregateService.subtract(late);
+        assertEquals(0, new BigDecimal("70000").compareTo(balanceBefore(202404)));
+    }
+
+    @Test
+    void addAll_matchesAddingEachRow() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        save(LocalDate.of(2024, 4, 1), TransactionType.INCOME, "1000", food);
+        List<Transaction> batch = List.of(
+                Transaction.builder().transactionDate(LocalDate.of(2024, 1, 10)).transactionType(TransactionType.INCOME)
+                        .amountKrw(new BigDecimal("100000")).category(food).build(),
+                Transaction.builder().transactionDate(LocalDate.of(2024, 1, 20)).transactionType(TransactionType.EXPENSE)
+                        .amountKrw(new BigDecimal("2500")).category(food).build(),
+                Transaction.builder().transactionDate(LocalDate.of(2024, 3, 5)).transactionType(TransactionType.EXPENSE)
+                        .amountKrw(new BigDecimal("30000")).category(food).build(),
+                Transaction.builder().transactionDate(LocalDate.of(2024, 3, 6)).transactionType(TransactionType.EXPENSE)
+                        .amountKrw(new BigDecimal("500")).category(food).build());
+
+        monthlyAggregateService.addAll(batch);
+
+        MonthlyAggregate march = bucket(202403, TransactionType.EXPENSE, food);
+        assertEquals(0, new BigDecimal("30500").compareTo(march.getTotalAmount()));
+        assertEquals(2L, march.getTransactionCount());
+        assertEquals(0, new BigDecimal("97500").compareTo(balanceBefore(202403)));
+        // April existed before the batch and is shifted by both batch months.
+        assertEquals(0, new BigDecimal("68000").compareTo(balanceBefore(202405)));
+    }
+
+    @Test
+    void verify_reportsDrift_andRebuildRepairsIt() {
+        Category food = categoryRepository.save(Category.builder().name("Food").color("#3B82F6").build());
+        save(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "10000", food);
+        // Written behind the rollup's back, e.g. by a raw SQL import.
+        transactionRepository.save(Transaction.builder()
+                .transactionDate(LocalDate.of(2024, 5, 9))
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("300"))
+                .originalCurrency("KRW")
+                .amountKrw(new BigDecimal("300"))
+                .category(food)
+                .build());
+
+        var report = monthlyAggregateService.verify();
+        assertEquals(2, report.getBucketsChecked());
+        assertEquals(1, report.getDriftedBuckets());
+        assertEquals("2024-05", report.getDrift().get(0).getMonth());
+        assertEquals(0, BigDecimal.ZERO.compareTo(report.getDrift().get(0).getActualAmount()));
+        // May has no checkpoint at all.
+        assertEquals(2, report.getCheckpointsChecked());
+        assertEquals(1, report.getDriftedCheckpoints());
+
+        var rebuilt = monthlyAggregateService.rebuild();
+        assertTrue(rebuilt.isRebuilt());
+        assertEquals(0, monthlyAggregateService.verify().getDriftedBuckets());
+        assertEquals(0, monthlyAggregateService.verify().getDriftedCheckpoints());
+        assertEquals(0, new BigDecimal("-10300").compareTo(balanceBefore(202406)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Trend latency against the length of recorded history. The window is always
+ * the last twelve months; only the history before it grows. Opening the
+ * window from the balance checkpoints should stay flat, while the old
+ * full-history scan is timed alongside for comparison.
+ *
+ * <p>Skipped by default; run with
+ * {@code mvn test -Dtest=MonthlyTrendBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = "app.analytics.cache.ttl=0s")
+@Import({AnalyticsService.class, AnalyticsCache.class, MonthlyAggregateService.class,
+        MonthlyTrendBenchmarkTest.Metrics.class})
+class MonthlyTrendBenchmarkTest {
+
+    private static final int ROWS_PER_DAY = 10;
+    private static final int ITERATIONS = 200;
+    private static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void trendLatency_doesNotGrowWithHistory() {
+        Category category = categoryRepository.save(Category.builder().name("Bench").color("#3B82F6").build());
+        long[] trendNanos = new long[3];
+        int[] years = {2, 10, 40};
+        for (int i = 0; i < years.length; i++) {
+            seed(category, LAST_DAY.minusYears(years[i]).plusDays(1));
+
+            trendNanos[i] = medianNanos(start -> analyticsService.getMonthlyTrend(start, LAST_DAY));
+            long scanNanos = medianNanos(start -> transactionRepository.aggregateTotalsBefore(start));
+            System.out.printf("history=%2d years  trend=%8.3f ms  full-history scan=%8.3f ms%n",
+                    years[i], trendNanos[i] / 1e6, scanNanos / 1e6);
+        }
+
+        // Generous bound: 20x more history must not make the trend 3x slower.
+        assertTrue(trendNanos[2] < trendNanos[0] * 3 + 1_000_000,
+                "trend latency grew with history: " + Arrays.toString(trendNanos));
+    }
+
+    /** Replaces the ledger with {@link #ROWS_PER_DAY} rows per day from {@code firstDay} to the end of 2024. */
+    private void seed(Category category, LocalDate firstDay) {
+        entityManager.getEntityManager().createNativeQuery("DELETE FROM transaction").executeUpdate();
+        long days = LAST_DAY.toEpochDay() - firstDay.toEpochDay() + 1;
+        entityManager.getEntityManager().createNativeQuery(
+                        "INSERT INTO transaction (transaction_date, transaction_type, original_amount, " +
+                        "original_currency, amount_krw, category_id) " +
+                        "SELECT DATEADD('DAY', X / :perDay, CAST(:firstDay AS DATE)), " +
+                        "CASE WHEN MOD(X, 3) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, " +
+                        "1000 + MOD(X, 997), 'KRW', 1000 + MOD(X, 997), :categoryId " +
+                        "FROM SYSTEM_RANGE(0, :rows - 1)")
+                .setParameter("perDay", ROWS_PER_DAY)
+                .setParameter("firstDay", firstDay)
+                .setParameter("categoryId", category.getId())
+                .setParameter("rows", days * ROWS_PER_DAY)
+                .executeUpdate();
+        monthlyAggregateService.rebuild();
+        entityManager.clear();
+    }
+
+    /**
+     * Median latency of {@code call} over a twelve-month window whose start
+     * moves by a day each iteration, so H2 cannot hand back the previous
+     * iteration's result.
+     */
+    private static long medianNanos(Function<LocalDate, ?> call) {
+        LocalDate windowStart = LAST_DAY.minusMonths(12).plusDays(1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.apply(windowStart.plusDays(i % 28));
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.apply(windowStart.plusDays(i % 28));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
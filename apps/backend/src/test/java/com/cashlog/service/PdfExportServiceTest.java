@@ -0,0 +1,223 @@
+package com.cashlog.service;
+
+import com.cashlog.config.AsyncConfig;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TransactionRepository;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Commits for real, since the parts of a report are read on the export
+ * executor's threads; every test cleans up after itself. Parts are cut at
+ * {@code part-rows = 4} so a few months of rows already render in parallel.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.export.pdf.part-rows=4")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PdfExportService.class, LedgerVersion.class, MonthlyAggregateService.class, AsyncConfig.class})
+class PdfExportServiceTest {
+
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    @Autowired
+    private PdfExportService pdfExportService;
+
+    @SpyBean
+    private LedgerVersion ledgerVersion;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate inTransaction;
+    private Category food;
+    private Category salary;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction = new TransactionTemplate(transactionManager);
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+        salary = categoryRepository.save(Category.builder().name("Salary").color("#222222").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction.executeWithoutResult(status -> {
+            for (String table : List.of("transaction", "monthly_aggregate", "monthly_balance")) {
+                entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+            }
+        });
+        categoryRepository.deleteAll(List.of(food, salary));
+    }
+
+    /** Three food expenses on the 5th, 15th and 25th of each month, and a salary on the 25th. */
+    private void seed(int year, int... months) {
+        List<Transaction> rows = new ArrayList<>();
+        for (int month : months) {
+            for (int day : new int[] {5, 15, 25}) {
+                rows.add(tx(LocalDate.of(year, month, day), TransactionType.EXPENSE, "1000", food));
+            }
+            rows.add(tx(LocalDate.of(year, month, 25), TransactionType.INCOME, "50000", salary));
+        }
+        transactionRepository.saveAll(rows);
+        monthlyAggregateService.rebuild();
+    }
+
+    private static Transaction tx(LocalDate date, TransactionType type, String amount, Category category) {
+        BigDecimal value = new BigDecimal(amount);
+        return Transaction.builder()
+                .transactionDate(date)
+                .transactionType(type)
+                .originalAmount(value)
+                .originalCurrency("KRW")
+                .amountKrw(value)
+                .category(category)
+                .memo("paid on " + date)
+                .build();
+    }
+
+    @Test
+    void planParts_cutsAtMonthStarts_andLetsTheOldestPartTakeTheRest() {
+        seed(2024, 1, 2, 3);
+
+        assertEquals(List.of(
+                        new PdfExportService.Part(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 12, 31)),
+                        new PdfExportService.Part(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)),
+                        new PdfExportService.Part(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 1, 31))),
+                pdfExportService.planParts(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertEquals(List.of(new PdfExportService.Part(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 20))),
+                pdfExportService.planParts(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 20)));
+    }
+
+    @Test
+    void writePdf_mergesPartsInOrder_andClosesWithCategorySubtotals() throws IOException {
+        seed(2024, 1, 2, 3);
+
+        String text = render(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+
+        assertEquals(1, count(text, "Transaction Report"));
+        assertEquals(1, count(text, "Period: 2024-01-01 to 2024-03-31"));
+        List<LocalDate> dates = new ArrayList<>();
+        Matcher matcher = DATE.matcher(text.substring(0, text.indexOf("Subtotals by category")));
+        while (matcher.find()) {
+            dates.add(LocalDate.parse(matcher.group()));
+        }
+        // Each row shows its date twice, in the date column and in its memo.
+        List<LocalDate> rowDates = new ArrayList<>();
+        for (int i = 2; i < dates.size(); i += 2) {
+            rowDates.add(dates.get(i));
+        }
+        assertEquals(12, rowDates.size());
+        assertEquals(rowDates.stream().sorted((a, b) -> b.compareTo(a)).toList(), rowDates);
+
+        String subtotals = text.substring(text.indexOf("Subtotals by category"));
+        assertTrue(subtotals.indexOf("Salary INCOME 3 150000.00") < subtotals.indexOf("Food EXPENSE 9 9000.00"),
+                subtotals);
+    }
+
+    @Test
+    void writePdf_rendersASmallRangeAsOneDocument() throws IOException {
+        seed(2024, 3);
+
+        String text = render(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 20));
+
+        assertTrue(text.contains("2024-03-15 EXPENSE 1000.00"), text);
+        assertFalse(text.contains("2024-03-25"), text);
+        assertTrue(text.contains("Food EXPENSE 1 1000.00"), text);
+    }
+
+    @Test
+    void writePdf_rendersThePartsAgain_whenTheLedgerChangedWhileTheyWereRead() throws IOException {
+        seed(2024, 1, 2, 3);
+        doReturn(false).doCallRealMethod().when(ledgerVersion).unchangedSince(anyLong());
+        LongAdder rowsWritten = new LongAdder();
+
+        String text = render(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), rowsWritten);
+
+        verify(ledgerVersion, times(2)).unchangedSince(anyLong());
+        assertEquals(12, rowsWritten.sum());
+        assertEquals(1, count(text, "Transaction Report"));
+        assertEquals(1, count(text, "Subtotals by category"));
+        assertTrue(text.contains("Food EXPENSE 9 9000.00"), text);
+    }
+
+    @Test
+    void writePdf_rendersOneDocument_whenTheLedgerKeepsChanging() throws IOException {
+        seed(2024, 1, 2, 3);
+        doReturn(false).when(ledgerVersion).unchangedSince(anyLong());
+        LongAdder rowsWritten = new LongAdder();
+
+        String text = render(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), rowsWritten);
+
+        verify(ledgerVersion, times(PdfExportService.MAX_ATTEMPTS)).unchangedSince(anyLong());
+        assertEquals(12, rowsWritten.sum());
+        assertEquals(1, count(text, "Period: 2024-01-01 to 2024-03-31"));
+        assertTrue(text.contains("Salary INCOME 3 150000.00"), text);
+        assertTrue(text.contains("Food EXPENSE 9 9000.00"), text);
+    }
+
+    private String render(LocalDate startDate, LocalDate endDate) throws IOException {
+        return render(startDate, endDate, new LongAdder());
+    }
+
+    private String render(LocalDate startDate, LocalDate endDate, LongAdder rowsWritten) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfExportService.writePdf(startDate, endDate, out, rowsWritten);
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(pdf.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private static int count(String text, String needle) {
+        return text.split(Pattern.quote(needle), -1).length - 1;
+    }
+}
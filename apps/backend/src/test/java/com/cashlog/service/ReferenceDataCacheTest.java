@@ -0,0 +1,133 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateCategoryRequest;
+import com.cashlog.dto.request.CreateTagRequest;
+import com.cashlog.dto.response.CategoryDTO;
+import com.cashlog.dto.response.TagDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TagRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Categories and tags live in the second-level cache: once read, looking them
+ * up again, by id or as the full list, runs no SQL. Commits for real, since
+ * only committed writes reach the shared cache.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CategoryService.class, TagService.class, TagIndex.class})
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category food;
+    private Tag lunch;
+
+    @BeforeEach
+    void setUp() {
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+        lunch = tagRepository.save(Tag.builder().name("lunch").color("#222222").build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tagRepository.deleteAll();
+        categoryRepository.deleteAll();
+        monthlyBalanceRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedLookups_runNoSql() {
+        categoryService.getAllCategories();
+        tagService.getAllTags();
+        statistics.clear();
+
+        List<CategoryDTO> categories = categoryService.getAllCategories();
+        List<TagDTO> tags = tagService.getAllTags();
+        CategoryDTO byId = categoryService.getCategoryById(food.getId());
+
+        assertTrue(categories.stream().anyMatch(c -> c.getName().equals("Food")));
+        assertEquals(List.of("lunch"), tags.stream().map(TagDTO::getName).toList());
+        assertEquals("Food", byId.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void rollupStatements_leaveTheCacheAlone() {
+        categoryService.getAllCategories();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                monthlyBalanceRepository.insertIfAbsent(202403));
+        statistics.clear();
+
+        categoryService.getAllCategories();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void writes_invalidateTheCachedEntitiesAndLists() {
+        categoryService.getAllCategories();
+        tagService.getAllTags();
+
+        categoryService.updateCategory(food.getId(), new CreateCategoryRequest("Groceries", "#333333"));
+        tagService.updateTag(lunch.getId(), new CreateTagRequest("dinner", "#444444"));
+        CategoryDTO rent = categoryService.createCategory(new CreateCategoryRequest("Rent", "#555555"));
+
+        assertEquals("Groceries", categoryService.getCategoryById(food.getId()).getName());
+        assertTrue(categoryService.getAllCategories().stream().map(CategoryDTO::getName).toList()
+                .containsAll(List.of("Groceries", "Rent")));
+        assertEquals(List.of("dinner"), tagService.getAllTags().stream().map(TagDTO::getName).toList());
+
+        categoryService.deleteCategory(rent.getId());
+        tagService.deleteTag(lunch.getId());
+
+        assertTrue(categoryService.getAllCategories().stream().noneMatch(c -> c.getName().equals("Rent")));
+        assertTrue(tagService.getAllTags().isEmpty());
+    }
+}
@@ -0,0 +1,204 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTagRequest;
+import com.cashlog.entity.Tag;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on a small connection pool and commits for real: what the index
+ * creates is only visible to other threads' transactions once the creating
+ * one commits.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tag-index;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=5000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TagIndex.class, TagService.class})
+class TagIndexTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate write;
+
+    @BeforeEach
+    void setUp() {
+        write = new TransactionTemplate(transactionManager);
+        tagRepository.deleteAll();
+        tagIndex.load();
+    }
+
+    private Long resolve(String name) {
+        return write.execute(status -> tagIndex.resolve(name));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tagRepository.deleteAll();
+    }
+
+    @Test
+    void resolve_createsANewTagOnce_andThenCostsNoQuery() {
+        Long id = resolve(" Coffee ");
+        assertEquals("Coffee", tagRepository.findById(id).orElseThrow().getName());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        assertEquals(id, resolve("coffee"));
+        assertEquals(id, resolve("COFFEE "));
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(0, statements);
+        assertEquals(1, tagRepository.count());
+    }
+
+    @Test
+    void load_indexesExistingTags_andResolveFindsTagsCreatedBehindItsBack() {
+        Tag lunch = tagRepository.save(Tag.builder().name("Lunch").color("#111111").build());
+        tagIndex.load();
+        Tag rent = tagRepository.save(Tag.builder().name("Rent").color("#222222").build());
+
+        assertEquals(1, tagIndex.size());
+        assertEquals(lunch.getId(), resolve("lunch"));
+        assertEquals(rent.getId(), resolve("RENT"));
+        assertEquals(2, tagRepository.count());
+    }
+
+    @Test
+    void renameAndDelete_dropTheStaleName() {
+        Long id = resolve("Cafe");
+        tagService.updateTag(id, CreateTagRequest.builder().name("Coffee").color("#333333").build());
+
+        assertEquals(id, resolve("coffee"));
+        Long recreated = resolve("cafe");
+        assertNotEquals(id, recreated);
+
+        tagService.deleteTag(recreated);
+        Long again = resolve("Cafe");
+        assertNotEquals(recreated, again);
+        assertTrue(tagRepository.existsById(again));
+    }
+
+    @Test
+    void lookupAll_findsExistingTagsInOneQuery_andNeverCreatesOne() {
+        Long coffee = resolve("Coffee");
+        Tag rent = tagRepository.save(Tag.builder().name("Rent").color("#222222").build());
+        Tag lunch = tagRepository.save(Tag.builder().name("Lunch").color("#111111").build());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Map<String, Long> ids = tagIndex.lookupAll(List.of("coffee", " RENT", "lunch", "Unknown", " "));
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(Map.of("coffee", coffee, "rent", rent.getId(), "lunch", lunch.getId()), ids);
+        assertEquals(1, statements);
+        assertEquals(3, tagRepository.count());
+    }
+
+    @Test
+    void resolve_ofANewName_needsATransaction() {
+        assertThrows(IllegalStateException.class, () -> tagIndex.resolve("Loose"));
+        assertEquals(0, tagRepository.count());
+
+        Long id = resolve("Loose");
+        assertEquals(id, tagIndex.resolve("loose"));
+    }
+
+    @Test
+    void resolve_insideATransaction_createsTheTagInIt_andIndexesItOnlyOnCommit() {
+        write.executeWithoutResult(status -> {
+            tagIndex.resolve("Orphan");
+            status.setRollbackOnly();
+        });
+        assertFalse(tagRepository.existsByNameIgnoreCase("orphan"));
+        assertEquals(0, tagIndex.size());
+
+        Long id = write.execute(status -> tagIndex.resolve("Kept"));
+        assertEquals(1, tagIndex.size());
+        assertEquals(id, tagRepository.findByNameIgnoreCase("kept").orElseThrow().getId());
+    }
+
+    @Test
+    void resolve_underContention_createsTheTagExactlyOnce() throws Exception {
+        // More threads than pooled connections, each inside its own write
+        // transaction like a request would be; spellings differ only in case.
+        String[] spellings = {"Groceries", "groceries", " GROCERIES", "GroCeries "};
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                String spelling = spellings[i % spellings.length];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return write.execute(status -> {
+                        ids.add(tagIndex.resolve(spelling));
+                        return categoryRepository.count();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(1, ids.size());
+        assertEquals(1, tagRepository.count());
+        assertEquals(ids.iterator().next(), tagRepository.findByNameIgnoreCase("groceries").orElseThrow().getId());
+    }
+}
@@ -0,0 +1,105 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ingest throughput of {@code POST /api/transactions/batch} against a
+ * file-mode H2 database, with every batch committed, next to the same rows
+ * created one call at a time. The target is 10,000 rows per second on a
+ * developer machine; since that depends on the hardware, the assertion only
+ * checks that batching beats single creates by an order of magnitude.
+ *
+ * <p>Skipped by default; run with
+ * {@code mvn test -Dtest=TransactionBatchBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/ingest-${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class TransactionBatchBenchmarkTest {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int BATCHES = 5;
+    private static final int SINGLE_ROWS = 1_000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void batchIngest_isAnOrderOfMagnitudeFasterThanSingleCreates() {
+        Category category = categoryRepository.save(Category.builder().name("Bench").color("#3B82F6").build());
+        transactionService.createTransactions(requests(category, 0, 1_000));
+
+        long[] rowsPerSecond = new long[BATCHES];
+        for (int i = 0; i < BATCHES; i++) {
+            List<CreateTransactionRequest> batch = requests(category, (i + 1) * BATCH_SIZE, BATCH_SIZE);
+            long start = System.nanoTime();
+            assertEquals(BATCH_SIZE, transactionService.createTransactions(batch).getCreated());
+            rowsPerSecond[i] = BATCH_SIZE * 1_000_000_000L / (System.nanoTime() - start);
+        }
+
+        long start = System.nanoTime();
+        for (CreateTransactionRequest request : requests(category, 0, SINGLE_ROWS)) {
+            transactionService.createTransaction(request);
+        }
+        long singleRowsPerSecond = SINGLE_ROWS * 1_000_000_000L / (System.nanoTime() - start);
+
+        Arrays.sort(rowsPerSecond);
+        long median = rowsPerSecond[BATCHES / 2];
+        System.out.printf("batch of %d: median %,d rows/s (all %s)  one at a time: %,d rows/s%n",
+                BATCH_SIZE, median, Arrays.toString(rowsPerSecond), singleRowsPerSecond);
+        assertTrue(median >= singleRowsPerSecond * 10,
+                "batch ingest " + median + " rows/s vs " + singleRowsPerSecond + " rows/s one at a time");
+    }
+
+    /** {@code count} expense/income rows spread over a year, each with one of a handful of tags. */
+    private static List<CreateTransactionRequest> requests(Category category, int offset, int count) {
+        List<CreateTransactionRequest> requests = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; i++) {
+            requests.add(CreateTransactionRequest.builder()
+                    .transactionDate(LocalDate.of(2024, 1, 1).plusDays(i % 366))
+                    .transactionType(i % 4 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+                    .originalAmount(BigDecimal.valueOf(1000 + i % 997))
+                    .originalCurrency("KRW")
+                    .categoryId(category.getId())
+                    .memo("card statement line " + i)
+                    .tagNames(Set.of("tag" + i % 12))
+                    .build());
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,303 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.CreateTagRequest;
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchItemResultDTO;
+import com.cashlog.dto.response.BatchResultDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Commits for real, because new tags are only indexed once the transaction
+ * creating them commits and the writers race each other; every test cleans
+ * up after itself.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class, TagService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class TransactionBatchTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate inTransaction;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction = new TransactionTemplate(transactionManager);
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction.executeWithoutResult(status -> {
+            for (String table : List.of("transaction_tag", "transaction", "tag", "monthly_aggregate", "monthly_balance")) {
+                entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+            }
+        });
+        categoryRepository.delete(food);
+    }
+
+    private CreateTransactionRequest request(LocalDate date, TransactionType type, String amount, String... tags) {
+        return CreateTransactionRequest.builder()
+                .transactionDate(date)
+                .transactionType(type)
+                .originalAmount(new BigDecimal(amount))
+                .originalCurrency("KRW")
+                .categoryId(food.getId())
+                .tagNames(Set.of(tags))
+                .build();
+    }
+
+    @Test
+    void createTransactions_rejectsBadItemsAndCreatesTheRest() {
+        tagRepository.save(Tag.builder().name("Lunch").color("#222222").build());
+        CreateTransactionRequest noRate = request(LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, "10");
+        noRate.setOriginalCurrency("USD");
+        CreateTransactionRequest unknownCategory = request(LocalDate.of(2024, 3, 3), TransactionType.EXPENSE, "10");
+        unknownCategory.setCategoryId(-1L);
+        CreateTransactionRequest noAmount = request(LocalDate.of(2024, 3, 4), TransactionType.EXPENSE, "10");
+        noAmount.setOriginalAmount(null);
+
+        BatchResultDTO result = transactionService.createTransactions(List.of(
+                request(LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, "8000", "lunch", " work "),
+                noRate,
+                unknownCategory,
+                noAmount,
+                request(LocalDate.of(2024, 3, 5), TransactionType.INCOME, "100000", "WORK")));
+
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getRejected());
+        List<BatchItemResultDTO> items = result.getResults();
+        assertEquals(List.of(0, 1, 2, 3, 4), items.stream().map(BatchItemResultDTO::getIndex).toList());
+        assertEquals(BatchItemResultDTO.Status.CREATED, items.get(0).getStatus());
+        assertEquals("Conversion rate required for non-KRW currency", items.get(1).getError());
+        assertEquals("Category not found: -1", items.get(2).getError());
+        assertEquals("originalAmount: Amount is required", items.get(3).getError());
+        assertNull(items.get(3).getId());
+
+        // The existing tag is reused whatever its case, and "work"/"WORK" share one new tag.
+        assertEquals(2, tagRepository.count());
+        Set<String> names = inTransaction.execute(status -> transactionRepository
+                .findAllByIdIn(List.of(items.get(0).getId())).get(0)
+                .getTags().stream().map(Tag::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("Lunch", "work"), names);
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void createTransactions_insertsInJdbcBatches() {
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(request(LocalDate.of(2024, 1, 1).plusDays(i % 90),
+                    i % 5 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE, String.valueOf(1000 + i), "tag" + i % 7));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        BatchResultDTO result = transactionService.createTransactions(requests);
+        long statements = statistics.getPrepareStatementCount();
+        long inserts = statistics.getEntityInsertCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(500, result.getCreated());
+        List<Long> ids = result.getResults().stream().map(BatchItemResultDTO::getId).toList();
+        assertEquals(500, Set.copyOf(ids).size());
+        assertEquals(500 + 7, inserts);
+        // One by one, 500 rows and 500 tag links would be over a thousand statements.
+        assertTrue(statements < 60, "prepared statements: " + statements);
+
+        assertEquals(500, transactionRepository.count());
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void concurrentWrites_keepTheBalanceCheckpointsExact() throws Exception {
+        int threads = 8;
+        int perThread = 12;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers.add(executor.submit(() -> {
+                    // Every writer walks the months in its own order, so first
+                    // writes to a month overlap shifts from earlier ones.
+                    List<CreateTransactionRequest> requests = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        int month = (writer * 5 + i * 7) % 12 + 1;
+                        requests.add(request(LocalDate.of(2024, month, 1 + writer),
+                                i % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                                String.valueOf(1000 * (writer + 1) + i)));
+                    }
+                    start.await();
+                    if (writer % 2 == 0) {
+                        requests.forEach(transactionService::createTransaction);
+                    } else {
+                        assertEquals(perThread, transactionService.createTransactions(requests).getCreated());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, transactionRepository.count());
+        var report = monthlyAggregateService.verify();
+        assertTrue(report.getDrift().isEmpty());
+        assertEquals(12, report.getCheckpointsChecked());
+        assertEquals(0, report.getDriftedCheckpoints());
+    }
+
+    @Test
+    void createTransaction_waitsForAnImportChunkHoldingTheCheckpointLock() throws Exception {
+        List<CreateTransactionRequest> chunk = new ArrayList<>();
+        for (int i = 0; i < ImportService.CHUNK_SIZE; i++) {
+            chunk.add(request(LocalDate.of(2024, 1 + i % 12, 1 + i % 28), TransactionType.EXPENSE, "10"));
+        }
+        CountDownLatch chunkWritten = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The chunk's transaction stays open past H2's default 1 s lock timeout.
+            Future<?> importing = executor.submit(() -> inTransaction.executeWithoutResult(status -> {
+                transactionService.createTransactions(chunk);
+                chunkWritten.countDown();
+                try {
+                    Thread.sleep(1_500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(chunkWritten.await(60, TimeUnit.SECONDS));
+
+            transactionService.createTransaction(request(LocalDate.of(2024, 6, 30), TransactionType.INCOME, "500"));
+            importing.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ImportService.CHUNK_SIZE + 1, transactionRepository.count());
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void createTag_racingATransactionWithTheSameTag_leavesOneTag() throws Exception {
+        int rounds = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                String name = "Lunch " + i;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> created = executor.submit(() -> {
+                    start.await();
+                    try {
+                        tagService.createTag(CreateTagRequest.builder().name(name).color("#222222").build());
+                    } catch (IllegalArgumentException e) {
+                        // The transaction created it first.
+                    }
+                    return null;
+                });
+                Future<?> linked = executor.submit(() -> {
+                    start.await();
+                    return transactionService.createTransaction(request(LocalDate.of(2024, 5, 1),
+                            TransactionType.EXPENSE, "10", name.toLowerCase()));
+                });
+                start.countDown();
+                created.get(60, TimeUnit.SECONDS);
+                linked.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(rounds, tagRepository.count());
+        for (int i = 0; i < rounds; i++) {
+            Tag tag = tagRepository.findByNameIgnoreCase("LUNCH " + i).orElseThrow();
+            Number links = (Number) entityManager
+                    .createNativeQuery("SELECT COUNT(*) FROM transaction_tag WHERE tag_id = :tagId")
+                    .setParameter("tagId", tag.getId())
+                    .getSingleResult();
+            assertEquals(1, links.intValue());
+        }
+    }
+
+    @Test
+    void createTransactions_rejectsEmptyAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(Collections.nCopies(
+                TransactionService.MAX_BATCH_SIZE + 1,
+                request(LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, "1"))));
+    }
+}
@@ -0,0 +1,320 @@
+package com.cashlog.service;
+
+import com.cashlog.dto.request.BulkTransactionRequest;
+import com.cashlog.dto.request.CreateTransactionRequest;
+import com.cashlog.dto.response.BatchItemResultDTO;
+import com.cashlog.entity.Category;
+import com.cashlog.entity.MonthlyBalance;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.event.TransactionsBulkChangedEvent;
+import com.cashlog.exception.ResourceNotFoundException;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.MonthlyBalanceRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Commits for real, because tags to add are created in their own
+ * transactions; every test cleans up after itself.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class TransactionBulkTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private TransactionTemplate inTransaction;
+    private Category food;
+    private Category cafe;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction = new TransactionTemplate(transactionManager);
+        food = categoryRepository.save(Category.builder().name("Food").color("#111111").build());
+        cafe = categoryRepository.save(Category.builder().name("Cafe").color("#222222").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction.executeWithoutResult(status -> {
+            for (String table : List.of("transaction_tag", "transaction", "tag", "monthly_aggregate", "monthly_balance")) {
+                entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+            }
+        });
+        categoryRepository.deleteAll(List.of(food, cafe));
+        // The index would otherwise keep handing out the ids of the deleted tags.
+        tagIndex.load();
+    }
+
+    /** Creates one row per memo, a month apart from 2023-11 on, alternating expense and income. */
+    private List<Long> create(String... memos) {
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < memos.length; i++) {
+            requests.add(CreateTransactionRequest.builder()
+                    .transactionDate(LocalDate.of(2023, 11, 10).plusMonths(i))
+                    .transactionType(i % 2 == 0 ? TransactionType.EXPENSE : TransactionType.INCOME)
+                    .originalAmount(new BigDecimal(1000 * (i + 1)))
+                    .originalCurrency("KRW")
+                    .categoryId(food.getId())
+                    .memo(memos[i])
+                    .tagNames(Set.of("card"))
+                    .build());
+        }
+        return transactionService.createTransactions(requests).getResults().stream()
+                .map(BatchItemResultDTO::getId)
+                .toList();
+    }
+
+    private Map<Long, Transaction> load(List<Long> ids) {
+        return inTransaction.execute(status -> transactionRepository.findAllByIdIn(ids).stream()
+                .peek(t -> t.getTags().size())
+                .collect(Collectors.toMap(Transaction::getId, Function.identity())));
+    }
+
+    private static Set<String> tagNames(Transaction transaction) {
+        return transaction.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
+    }
+
+    /**
+     * The rollup, and the balance checkpoint of every month that still has
+     * rows, match a rebuild from the raw rows. Emptied months keep their
+     * checkpoint, as after single deletes.
+     */
+    private void assertRollupMatchesRows() {
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+        Map<Integer, BigDecimal> checkpoints = monthlyBalanceRepository.findAll().stream()
+                .collect(Collectors.toMap(MonthlyBalance::getMonthKey, MonthlyBalance::getCumulativeNet));
+        monthlyAggregateService.rebuild();
+        for (MonthlyBalance rebuilt : monthlyBalanceRepository.findAll()) {
+            assertEquals(0, rebuilt.getCumulativeNet().compareTo(checkpoints.get(rebuilt.getMonthKey())),
+                    "checkpoint of " + rebuilt.getMonthKey());
+        }
+    }
+
+    @Test
+    void setCategory_movesTheMatchingRowsAndTheirRollupBuckets() {
+        List<Long> ids = create("스타벅스 강남", "김밥천국", "스타벅스 역삼", "스타벅스 판교");
+        transactionService.updateTransaction(ids.get(3), CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.of(2024, 2, 10))
+                .transactionType(TransactionType.INCOME)
+                .originalAmount(new BigDecimal("4000"))
+                .originalCurrency("KRW")
+                .categoryId(cafe.getId())
+                .memo("스타벅스 판교")
+                .build());
+        events.clear();
+
+        int affected = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.SET_CATEGORY)
+                .q("스타벅스")
+                .categoryId(cafe.getId())
+                .build()).getAffected();
+
+        // The row already in Cafe matched but did not change.
+        assertEquals(2, affected);
+        Map<Long, Transaction> rows = load(ids);
+        assertEquals(cafe.getId(), rows.get(ids.get(0)).getCategory().getId());
+        assertEquals(food.getId(), rows.get(ids.get(1)).getCategory().getId());
+        assertEquals(cafe.getId(), rows.get(ids.get(2)).getCategory().getId());
+        assertEquals(0, events.stream(TransactionChangedEvent.class).count());
+        List<TransactionsBulkChangedEvent> published = events.stream(TransactionsBulkChangedEvent.class).toList();
+        assertEquals(1, published.size());
+        assertEquals(Set.of(ids.get(0), ids.get(2)), Set.copyOf(published.get(0).ids()));
+        assertEquals(2, published.get(0).before().size());
+        assertTrue(published.get(0).before().stream().allMatch(bucket -> bucket.categoryId().equals(food.getId())));
+        assertRollupMatchesRows();
+    }
+
+    @Test
+    void addAndRemoveTags_onlyTouchRowsTheyChange() {
+        List<Long> ids = create("a", "b", "c");
+
+        int added = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.ADD_TAGS)
+                .ids(ids.subList(0, 2))
+                .tagNames(Set.of(" Card ", "travel"))
+                .build()).getAffected();
+        int addedAgain = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.ADD_TAGS)
+                .ids(ids)
+                .tagNames(Set.of("TRAVEL"))
+                .build()).getAffected();
+
+        assertEquals(2, added);
+        assertEquals(1, addedAgain);
+        Map<Long, Transaction> rows = load(ids);
+        assertEquals(Set.of("card", "travel"), tagNames(rows.get(ids.get(0))));
+        assertEquals(Set.of("card", "travel"), tagNames(rows.get(ids.get(2))));
+
+        int removed = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.REMOVE_TAGS)
+                .type(TransactionType.EXPENSE)
+                .tagNames(Set.of("card", "unknown"))
+                .build()).getAffected();
+        int removedUnknown = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.REMOVE_TAGS)
+                .ids(ids)
+                .tagNames(Set.of("unknown"))
+                .build()).getAffected();
+
+        assertEquals(2, removed);
+        assertEquals(0, removedUnknown);
+        rows = load(ids);
+        assertEquals(Set.of("travel"), tagNames(rows.get(ids.get(0))));
+        assertEquals(Set.of("card", "travel"), tagNames(rows.get(ids.get(1))));
+        assertEquals(Set.of("travel"), tagNames(rows.get(ids.get(2))));
+
+        int addedToNone = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.ADD_TAGS)
+                .minAmount(new BigDecimal("1000000"))
+                .tagNames(Set.of("Orphan"))
+                .build()).getAffected();
+        assertEquals(0, addedToNone);
+        assertFalse(tagRepository.existsByNameIgnoreCase("orphan"));
+    }
+
+    @Test
+    void delete_removesTheRowsAndTakesThemOutOfTheRollupAndBalances() {
+        List<Long> ids = create("a", "b", "c", "d", "e");
+
+        int affected = transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.DELETE)
+                .startDate(LocalDate.of(2023, 12, 1))
+                .endDate(LocalDate.of(2024, 2, 29))
+                .tagIds(List.of(load(ids).get(ids.get(0)).getTags().iterator().next().getId()))
+                .build()).getAffected();
+
+        assertEquals(3, affected);
+        assertEquals(Set.of(ids.get(0), ids.get(4)), load(ids).keySet());
+        assertEquals(2, monthlyAggregateService.verify().getBucketsChecked());
+        assertRollupMatchesRows();
+    }
+
+    @Test
+    void statementCount_doesNotGrowWithTheNumberOfRows() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        long[] statements = new long[2];
+        int[] sizes = {5, 100};
+        for (int i = 0; i < sizes.length; i++) {
+            String[] memos = new String[sizes[i]];
+            Arrays.fill(memos, "memo");
+            create(memos);
+            statistics.clear();
+            assertEquals(sizes[i], transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                    .action(BulkTransactionRequest.Action.SET_CATEGORY)
+                    .categoryIds(List.of(food.getId()))
+                    .categoryId(cafe.getId())
+                    .build()).getAffected());
+            assertEquals(sizes[i], transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                    .action(BulkTransactionRequest.Action.DELETE)
+                    .categoryIds(List.of(cafe.getId()))
+                    .build()).getAffected());
+            statements[i] = statistics.getPrepareStatementCount();
+        }
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(statements[0], statements[1]);
+        assertTrue(statements[1] < 20, "prepared statements: " + statements[1]);
+        assertEquals(0, transactionRepository.count());
+        assertTrue(monthlyAggregateService.verify().getDrift().isEmpty());
+    }
+
+    @Test
+    void missingFiltersOrArguments_areRejectedBeforeAnythingChanges() {
+        List<Long> ids = create("a");
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.DELETE)
+                .startDate(LocalDate.of(2023, 1, 1))
+                .q(" ")
+                .build()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.SET_CATEGORY)
+                .ids(ids)
+                .build()));
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.SET_CATEGORY)
+                .ids(ids)
+                .categoryId(-1L)
+                .build()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.ADD_TAGS)
+                .ids(ids)
+                .tagNames(Set.of(" "))
+                .build()));
+
+        assertEquals(1, transactionRepository.count());
+    }
+}
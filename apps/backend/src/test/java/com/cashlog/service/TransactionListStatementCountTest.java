@@ -0,0 +1,125 @@
+package com.cashlog.service;
+
+import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
+import com.cashlog.entity.Transaction;
+import com.cashlog.entity.TransactionType;
+import com.cashlog.mapper.TransactionMapper;
+import com.cashlog.repository.CategoryRepository;
+import com.cashlog.repository.TagRepository;
+import com.cashlog.repository.TransactionRepository;
+import com.cashlog.specification.TagMatch;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the number of SQL statements a transaction list page costs, so a lazy
+ * load creeping back into the mapping shows up as a failure rather than as
+ * one extra select per row.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TransactionService.class, TransactionMapper.class, MonthlyAggregateService.class, TagIndex.class,
+        MemoSearchService.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class TransactionListStatementCountTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Tag lunch;
+
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = List.of(
+                categoryRepository.save(Category.builder().name("Food").color("#111111").build()),
+                categoryRepository.save(Category.builder().name("Transport").color("#222222").build()),
+                categoryRepository.save(Category.builder().name("Rent").color("#333333").build()));
+        lunch = tagRepository.save(Tag.builder().name("lunch").color("#111111").build());
+        Tag work = tagRepository.save(Tag.builder().name("work").color("#222222").build());
+        for (int i = 0; i < 60; i++) {
+            BigDecimal amount = BigDecimal.valueOf(1000 + i);
+            transactionRepository.save(Transaction.builder()
+                    .transactionDate(LocalDate.of(2024, 1, 1).plusDays(i / 3))
+                    .transactionType(TransactionType.EXPENSE)
+                    .originalAmount(amount)
+                    .originalCurrency("KRW")
+                    .amountKrw(amount)
+                    .category(categories.get(i % 3))
+                    .tags(new HashSet<>(i % 2 == 0 ? Set.of(lunch, work) : Set.of(lunch)))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void offsetPage_costsIdsCountAndOneBatchLoad_whateverItsSize(int size) {
+        var page = transactionService.getTransactions(null, null, null, null, List.of(lunch.getId()), TagMatch.ANY,
+                null, null, null, PageRequest.of(1, size, Sort.by(Sort.Direction.DESC, "transactionDate")));
+
+        assertEquals(size, page.getContent().size());
+        assertEquals(60, page.getTotalElements());
+        page.getContent().forEach(t -> {
+            assertNotNull(t.getCategory().getName());
+            assertFalse(t.getTags().isEmpty());
+        });
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void cursorPage_costsIdsAndOneBatchLoad_whateverItsSize(int size) {
+        var first = transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null, null, null, size, false);
+        statistics.clear();
+
+        var second = transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null, null, first.getNextCursor(), size, false);
+
+        assertEquals(size, second.getContent().size());
+        assertTrue(second.getContent().get(0).getTransactionDate()
+                .compareTo(first.getContent().get(size - 1).getTransactionDate()) <= 0);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
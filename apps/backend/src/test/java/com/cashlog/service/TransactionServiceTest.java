@@ -1,27 +1,42 @@
 package com.cashlog.service;
 
+import com.cashlog.dto.request.BulkTransactionRequest;
 import com.cashlog.dto.request.CreateTransactionRequest;
 import com.cashlog.dto.response.TransactionDTO;
 import com.cashlog.entity.Category;
+import com.cashlog.entity.Tag;
 import com.cashlog.entity.Transaction;
 import com.cashlog.entity.TransactionType;
+import com.cashlog.event.TransactionChangedEvent;
+import com.cashlog.exception.ResourceNotFoundException;
 import com.cashlog.mapper.TransactionMapper;
 import com.cashlog.repository.CategoryRepository;
 import com.cashlog.repository.TagRepository;
 import com.cashlog.repository.TransactionRepository;
+import com.cashlog.specification.TagMatch;
+import com.cashlog.specification.TransactionOrder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +54,18 @@ class TransactionServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
 
+    @Mock
+    private MonthlyAggregateService monthlyAggregateService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private MemoSearchService memoSearchService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -59,6 +86,7 @@ class TransactionServiceTest {
                 .originalAmount(request.getOriginalAmount())
                 .originalCurrency(request.getOriginalCurrency())
                 .amountKrw(request.getOriginalAmount())
+                .category(Category.builder().id(1L).build())
                 .tags(new HashSet<>())
                 .build();
 
@@ -70,6 +98,9 @@ class TransactionServiceTest {
 
         assertNotNull(result);
         verify(transactionRepository).save(any(Transaction.class));
+        verify(monthlyAggregateService).add(transaction);
+        verify(memoSearchService).index(transaction);
+        verify(eventPublisher).publishEvent(any(TransactionChangedEvent.class));
     }
 
     @Test
@@ -86,6 +117,7 @@ class TransactionServiceTest {
         Transaction transaction = Transaction.builder()
                 .id(1L)
                 .amountKrw(new BigDecimal("130000"))
+                .category(Category.builder().id(1L).build())
                 .tags(new HashSet<>())
                 .build();
 
@@ -98,4 +130,238 @@ class TransactionServiceTest {
         assertNotNull(result);
         verify(transactionRepository).save(any(Transaction.class));
     }
+
+    @Test
+    void createTransaction_roundsConvertedAmountToTwoDecimals() {
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.now())
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("12.34"))
+                .originalCurrency("USD")
+                .conversionRate(new BigDecimal("1312.5678"))
+                .categoryId(1L)
+                .build();
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(Category.builder().id(1L).name("Food").color("#ff0000").build()));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toDTO(any(Transaction.class))).thenReturn(new TransactionDTO());
+
+        transactionService.createTransaction(request);
+
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(saved.capture());
+        // 12.34 x 1312.5678 = 16197.086652
+        assertEquals(new BigDecimal("16197.09"), saved.getValue().getAmountKrw());
+        ArgumentCaptor<TransactionChangedEvent> event = ArgumentCaptor.forClass(TransactionChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(new BigDecimal("16197.09"), event.getValue().after().amountKrw());
+    }
+
+    @Test
+    void createTransaction_resolvesTagsThroughTheIndex_withoutLookingThemUp() {
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.now())
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("10000"))
+                .originalCurrency("KRW")
+                .categoryId(1L)
+                .tagNames(Set.of("Lunch", " lunch", " "))
+                .build();
+        Tag lunch = Tag.builder().id(5L).name("Lunch").build();
+
+        when(tagIndex.resolveAll(Set.of("Lunch", " lunch", " "))).thenReturn(Map.of("lunch", 5L));
+        when(tagRepository.getReferenceById(5L)).thenReturn(lunch);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(Category.builder().id(1L).build()));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        transactionService.createTransaction(request);
+
+        verify(transactionRepository).save(argThat(saved -> saved.getTags().equals(Set.of(lunch))));
+        verify(tagRepository, never()).findByNameIgnoreCase(any());
+    }
+
+    @Test
+    void createAndUpdate_checkTheCategoryAndRowBeforeCreatingTags() {
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.now())
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("10000"))
+                .originalCurrency("KRW")
+                .categoryId(99L)
+                .tagNames(Set.of("New tag"))
+                .build();
+        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(transactionRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.createTransaction(request));
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.updateTransaction(7L, request));
+
+        verifyNoInteractions(tagIndex);
+    }
+
+    @Test
+    void updateTransaction_movesRowBetweenRollupBuckets() {
+        Category food = Category.builder().id(1L).name("Food").color("#ff0000").build();
+        Transaction existing = Transaction.builder()
+                .id(7L)
+                .transactionDate(LocalDate.of(2024, 1, 31))
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("5000"))
+                .originalCurrency("KRW")
+                .amountKrw(new BigDecimal("5000"))
+                .category(food)
+                .tags(new HashSet<>())
+                .build();
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.of(2024, 2, 1))
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("8000"))
+                .originalCurrency("KRW")
+                .categoryId(1L)
+                .build();
+
+        when(transactionRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(food));
+        doAnswer(invocation -> {
+            Transaction t = invocation.getArgument(0);
+            // The old bucket must be released while the row still has its old values.
+            assertEquals(LocalDate.of(2024, 1, 31), t.getTransactionDate());
+            assertEquals(0, new BigDecimal("5000").compareTo(t.getAmountKrw()));
+            return null;
+        }).when(monthlyAggregateService).subtract(existing);
+        when(transactionRepository.save(existing)).thenReturn(existing);
+
+        transactionService.updateTransaction(7L, request);
+
+        var inOrder = inOrder(monthlyAggregateService);
+        inOrder.verify(monthlyAggregateService).subtract(existing);
+        inOrder.verify(monthlyAggregateService).add(existing);
+        verify(memoSearchService, never()).reindex(any());
+    }
+
+    @Test
+    void updateTransaction_reindexesMemo_onlyWhenItChanged() {
+        Category food = Category.builder().id(1L).name("Food").color("#ff0000").build();
+        Transaction existing = Transaction.builder()
+                .id(7L)
+                .transactionDate(LocalDate.of(2024, 1, 31))
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("5000"))
+                .originalCurrency("KRW")
+                .amountKrw(new BigDecimal("5000"))
+                .category(food)
+                .memo("점심 김밥")
+                .tags(new HashSet<>())
+                .build();
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+                .transactionDate(LocalDate.of(2024, 1, 31))
+                .transactionType(TransactionType.EXPENSE)
+                .originalAmount(new BigDecimal("5000"))
+                .originalCurrency("KRW")
+                .categoryId(1L)
+                .memo("점심 라면")
+                .build();
+        when(transactionRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(food));
+        when(transactionRepository.save(existing)).thenReturn(existing);
+
+        transactionService.updateTransaction(7L, request);
+
+        verify(memoSearchService).reindex(argThat(t -> t.getMemo().equals("점심 라면")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scrollTransactions_returnsCursorOfLastRow_whenMoreRowsFollow() {
+        Transaction newest = Transaction.builder().id(9L).transactionDate(LocalDate.of(2024, 3, 2)).build();
+        Transaction next = Transaction.builder().id(7L).transactionDate(LocalDate.of(2024, 3, 1)).build();
+        when(transactionRepository.findIds(any(Specification.class), any(Sort.class), eq(3))).thenReturn(List.of(9L, 7L, 5L));
+        // Batch-loaded in arbitrary order; the page keeps the id order.
+        when(transactionRepository.findAllByIdIn(List.of(9L, 7L))).thenReturn(List.of(next, newest));
+        when(transactionMapper.toDTO(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction t = inv.getArgument(0);
+            return TransactionDTO.builder().id(t.getId()).transactionDate(t.getTransactionDate()).build();
+        });
+
+        var page = transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null, null, null, 2, false);
+
+        assertEquals(List.of(9L, 7L), page.getContent().stream().map(TransactionDTO::getId).toList());
+        assertEquals(new TransactionCursor(LocalDate.of(2024, 3, 1), 7L),
+                TransactionCursor.decode(page.getNextCursor()));
+        assertNull(page.getTotalElements());
+        verify(transactionRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scrollTransactions_endsWithoutCursor_andCountsOnRequest() {
+        when(transactionRepository.findIds(any(Specification.class), any(Sort.class), eq(21))).thenReturn(List.of());
+        when(transactionRepository.count(any(Specification.class))).thenReturn(40L);
+        String cursor = new TransactionCursor(LocalDate.of(2024, 3, 1), 7L).encode();
+
+        var page = transactionService.scrollTransactions(null, null, TransactionType.EXPENSE, null, null, TagMatch.ANY, null, null, null, null, cursor, 20, true);
+
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+        assertEquals(40L, page.getTotalElements());
+        verify(transactionRepository, never()).findAllByIdIn(any());
+    }
+
+    @Test
+    void scrollTransactions_rejectsForgedCursorAndOversizedPage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null, null, "not-a-cursor", 20, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null, null, null,
+                        TransactionService.MAX_SCROLL_SIZE + 1, false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scrollTransactions_byAmount_returnsAmountCursorOfLastRow() {
+        Transaction largest = Transaction.builder().id(4L).amountKrw(new BigDecimal("90000")).build();
+        Transaction next = Transaction.builder().id(8L).amountKrw(new BigDecimal("45000")).build();
+        when(transactionRepository.findIds(any(Specification.class), any(Sort.class), eq(3))).thenReturn(List.of(4L, 8L, 2L));
+        when(transactionRepository.findAllByIdIn(List.of(4L, 8L))).thenReturn(List.of(largest, next));
+        when(transactionMapper.toDTO(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction t = inv.getArgument(0);
+            return TransactionDTO.builder().id(t.getId()).amountKrw(t.getAmountKrw()).build();
+        });
+
+        var page = transactionService.scrollTransactions(null, null, TransactionType.EXPENSE, null, null, TagMatch.ANY,
+                new BigDecimal("10000"), null, null, TransactionOrder.AMOUNT, null, 2, false);
+
+        assertEquals(TransactionCursor.ofAmount(new BigDecimal("45000"), 8L), TransactionCursor.decode(page.getNextCursor()));
+        verify(transactionRepository).findIds(any(Specification.class),
+                eq(Sort.by(Sort.Order.asc("transactionType"), Sort.Order.desc("amountKrw"), Sort.Order.desc("id"))), eq(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkUpdate_refusesToMatchMoreThanTheRowLimit_beforeChangingAnything() {
+        List<Long> tooMany = LongStream.rangeClosed(1, TransactionService.MAX_BULK_ROWS + 1).boxed().toList();
+        when(transactionRepository.findIds(any(Specification.class), eq(Sort.unsorted()),
+                eq(TransactionService.MAX_BULK_ROWS + 1))).thenReturn(tooMany);
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.bulkUpdate(BulkTransactionRequest.builder()
+                .action(BulkTransactionRequest.Action.ADD_TAGS)
+                .type(TransactionType.EXPENSE)
+                .tagNames(Set.of("New"))
+                .build()));
+        verify(tagIndex, never()).resolveAll(any());
+        verify(transactionRepository, never()).insertTagLinks(any(), any());
+        verifyNoInteractions(monthlyAggregateService, eventPublisher);
+    }
+
+    @Test
+    void scrollTransactions_rejectsCursorOfOtherOrderAndSwappedAmountRange() {
+        String dateCursor = new TransactionCursor(LocalDate.of(2024, 3, 1), 7L).encode();
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY, null, null, null,
+                        TransactionOrder.AMOUNT, dateCursor, 20, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.scrollTransactions(null, null, null, null, null, TagMatch.ANY,
+                        new BigDecimal("5000"), new BigDecimal("1000"), null, null, null, 20, false));
+        verifyNoInteractions(transactionRepository);
+    }
 }
@@ -0,0 +1,31 @@
+package com.cashlog.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendGranularityTest {
+
+    @Test
+    void isoWeek_straddlingNewYear_keepsOneLabel() {
+        LocalDate monday = TrendGranularity.WEEK.truncate(LocalDate.of(2025, 1, 1));
+
+        assertEquals(LocalDate.of(2024, 12, 30), monday);
+        assertEquals("2025-W01", TrendGranularity.WEEK.label(monday));
+        assertEquals(LocalDate.of(2025, 1, 6), TrendGranularity.WEEK.next(monday));
+    }
+
+    @Test
+    void calendarBuckets_truncateAndStep() {
+        LocalDate date = LocalDate.of(2024, 8, 17);
+
+        assertEquals(LocalDate.of(2024, 7, 1), TrendGranularity.QUARTER.truncate(date));
+        assertEquals("2024-Q3", TrendGranularity.QUARTER.label(LocalDate.of(2024, 7, 1)));
+        assertEquals(LocalDate.of(2024, 10, 1), TrendGranularity.QUARTER.next(LocalDate.of(2024, 7, 1)));
+        assertEquals("2024-08", TrendGranularity.MONTH.label(TrendGranularity.MONTH.truncate(date)));
+        assertEquals("2024", TrendGranularity.YEAR.label(TrendGranularity.YEAR.truncate(date)));
+        assertEquals("2024-08-17", TrendGranularity.DAY.label(TrendGranularity.DAY.truncate(date)));
+    }
+}
@@ -0,0 +1,30 @@
+package com.cashlog.specification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoGramsTest {
+
+    @Test
+    void words_areLowerCasedRunsOfLettersAndDigits() {
+        assertEquals(List.of("점심값", "coffee", "2잔"), MemoGrams.words(" 점심값, Coffee/2잔 "));
+        assertEquals(List.of("a"), MemoGrams.words("A a"));
+        assertEquals(List.of(), MemoGrams.words(null));
+    }
+
+    @Test
+    void index_startsOneGramAtEveryCharacterOfEveryWord() {
+        assertEquals(Set.of("점심", "심값", "값$", "a$"), MemoGrams.index("점심값 a"));
+    }
+
+    @Test
+    void query_isTheWordsBigrams_orNothingForOneCharacter() {
+        assertEquals(List.of("점심", "심값"), MemoGrams.query("점심값"));
+        assertEquals(List.of("aa"), MemoGrams.query("aaa"));
+        assertEquals(List.of(), MemoGrams.query("김"));
+    }
+}